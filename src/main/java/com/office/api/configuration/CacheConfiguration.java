@@ -0,0 +1,68 @@
+package com.office.api.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Backs the Hibernate second-level cache with Caffeine. Each cached entity has its own
+ * region, sized and expired from {@code office.cache.<region>}, and each cached
+ * association collection shares the limits of its owner. Hibernate statistics are on so
+ * the hits, misses and puts of every region are published as {@code hibernate.*} meters.
+ */
+@Configuration
+public class CacheConfiguration {
+    // Entity regions and the collection regions they own, named after the tables
+    static final Map<String, List<String>> REGIONS = Map.of(
+            "companies", List.of("employees", "projects", "teams"),
+            "employees", List.of(),
+            "projects", List.of("teams"),
+            "teams", List.of("members"));
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        REGIONS.forEach((region, collections) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStoreByValue(false);
+            configuration.setMaximumSize(OptionalLong.of(environment.getRequiredProperty(
+                    "office.cache." + region + ".maximum-size", Long.class)));
+            configuration.setExpireAfterWrite(OptionalLong.of(environment.getRequiredProperty(
+                    "office.cache." + region + ".time-to-live", Duration.class).toNanos()));
+
+            this.createCache(cacheManager, region, configuration);
+            collections.forEach(collection -> this.createCache(cacheManager, region + "." + collection, configuration));
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Changing the team of an employee also drops the cached members of both teams
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private void createCache(CacheManager cacheManager, String name, CaffeineConfiguration<Object, Object> configuration) {
+        if(cacheManager.getCache(name) == null)
+            cacheManager.createCache(name, configuration);
+    }
+}
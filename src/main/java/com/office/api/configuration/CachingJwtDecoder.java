@@ -0,0 +1,104 @@
+package com.office.api.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keeps already verified tokens so a token presented again skips the signature
+ * check and the claims parsing. Entries are keyed by the SHA-256 of the raw token
+ * and leave the cache as soon as the token's {@code exp} passes. The given validator
+ * still runs on every call, for checks that must not be cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final OAuth2TokenValidator<Jwt> validator;
+    private final Clock clock;
+    private final Cache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, OAuth2TokenValidator<Jwt> validator,
+                             long maximumSize, MeterRegistry registry) {
+        this(delegate, validator, maximumSize, registry, Clock.systemUTC());
+    }
+    CachingJwtDecoder(JwtDecoder delegate, OAuth2TokenValidator<Jwt> validator,
+                      long maximumSize, MeterRegistry registry, Clock clock) {
+        this.delegate = delegate;
+        this.validator = validator;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpiresAt())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+        Gauge.builder("office.jwt.cache.hit.ratio", cache, value -> value.stats().hitRate())
+                .description("Share of decoded tokens served from the verified token cache")
+                .register(registry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt jwt = cache.get(key, ignored -> delegate.decode(token));
+        if(jwt.getExpiresAt() != null && !jwt.getExpiresAt().isAfter(clock.instant())) {
+            cache.invalidate(key);
+            jwt = delegate.decode(token);
+        }
+
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+        if(result.hasErrors())
+            throw new JwtValidationException(
+                    result.getErrors().iterator().next().getDescription(), result.getErrors());
+        return jwt;
+    }
+
+    public double hitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class ExpiresAt implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if(expiresAt == null)
+                return 0L;
+            return Math.max(0L, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.office.api.configuration;
+
+import com.office.api.service.MembershipService;
+import com.office.api.service.TokenService;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Rejects employee tokens whose membership version no longer matches the
+ * employee's current one, e.g. after a role or team change.
+ */
+public class MembershipVersionValidator implements OAuth2TokenValidator<Jwt> {
+    private static final OAuth2Error OUTDATED = new OAuth2Error(
+            OAuth2ErrorCodes.INVALID_TOKEN, "The token membership is outdated", null);
+
+    private final MembershipService membershipService;
+
+    public MembershipVersionValidator(MembershipService membershipService) {
+        this.membershipService = membershipService;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        Object version = jwt.getClaim(TokenService.VERSION_CLAIM);
+        if(version == null)
+            return OAuth2TokenValidatorResult.success();
+
+        Optional<Long> current = membershipService.getVersion(UUID.fromString(jwt.getSubject()));
+        if(current.isPresent() && version instanceof Number number && current.get() == number.longValue())
+            return OAuth2TokenValidatorResult.success();
+        return OAuth2TokenValidatorResult.failure(OUTDATED);
+    }
+}
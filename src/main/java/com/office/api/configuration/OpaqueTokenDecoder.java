@@ -0,0 +1,37 @@
+package com.office.api.configuration;
+
+import com.office.api.service.AccessTokenStore;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Resolves opaque tokens through the {@link AccessTokenStore} into the same {@link Jwt}
+ * the signed tokens decode to, so the resource server installs the same
+ * {@code SCOPE_*} authorities either way. The given validator runs on every call.
+ */
+public class OpaqueTokenDecoder implements JwtDecoder {
+    private final AccessTokenStore tokenStore;
+    private final OAuth2TokenValidator<Jwt> validator;
+
+    public OpaqueTokenDecoder(AccessTokenStore tokenStore, OAuth2TokenValidator<Jwt> validator) {
+        this.tokenStore = tokenStore;
+        this.validator = validator;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = tokenStore.find(token)
+                .orElseThrow(() -> new BadJwtException("The token is unknown or expired"));
+
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+        if(result.hasErrors())
+            throw new JwtValidationException(
+                    result.getErrors().iterator().next().getDescription(), result.getErrors());
+        return jwt;
+    }
+}
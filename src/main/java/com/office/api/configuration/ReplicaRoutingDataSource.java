@@ -0,0 +1,68 @@
+package com.office.api.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hands the connections of read-only transactions to the replica and everything else
+ * to the primary. A subject that has just written is pinned to the primary for the pin
+ * window, counted from the commit, so it reads its own writes while the replica catches
+ * up. The read-only flag is only known once the transaction has begun, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target { PRIMARY, REPLICA }
+
+    private final Cache<String, Boolean> pinned;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration pinWindow, long capacity) {
+        this(primary, replica, pinWindow, capacity, Ticker.systemTicker());
+    }
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration pinWindow, long capacity, Ticker ticker) {
+        this.pinned = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(pinWindow)
+                .ticker(ticker)
+                .build();
+        this.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        this.setDefaultTargetDataSource(primary);
+        this.afterPropertiesSet();
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        String subject = subject();
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return subject != null && pinned.getIfPresent(subject) != null ? Target.PRIMARY : Target.REPLICA;
+
+        // The proxy probes a connection before the transaction is active, that one pins nobody
+        if(subject != null && TransactionSynchronizationManager.isSynchronizationActive()) this.pin(subject);
+        return Target.PRIMARY;
+    }
+
+    private void pin(String subject) {
+        pinned.put(subject, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pinned.put(subject, Boolean.TRUE);
+            }
+        });
+    }
+    private static String subject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication == null || authentication instanceof AnonymousAuthenticationToken) return null;
+        return authentication.getName();
+    }
+}
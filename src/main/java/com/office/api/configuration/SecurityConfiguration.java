@@ -1,9 +1,16 @@
 package com.office.api.configuration;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.*;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.office.api.service.AccessTokenStore;
+import com.office.api.service.MembershipService;
+import com.office.api.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,27 +21,50 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
 import org.springframework.security.web.SecurityFilterChain;
 
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static java.util.Base64.getMimeDecoder;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
+    private static final Set<SignatureAlgorithm> ALGORITHMS = EnumSet.of(SignatureAlgorithm.RS256, SignatureAlgorithm.ES256);
+
     private final String publicKey = System.getenv("PUBLIC_KEY");
     private final String privateKey = System.getenv("PRIVATE_KEY");
+    private final SignatureAlgorithm algorithm;
+    @Value("${office.token.mode}")
+    private TokenMode mode;
+
+    public SecurityConfiguration(@Value("${office.jwt.algorithm}") String algorithm) {
+        this.algorithm = supportedAlgorithm(algorithm);
+    }
+
+    // Fails the startup on any other algorithm, naming the ones the signing keys are read for
+    static SignatureAlgorithm supportedAlgorithm(String name) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.from(name);
+        if(algorithm == null || !ALGORITHMS.contains(algorithm))
+            throw new IllegalStateException("Unsupported JWT algorithm " + name
+                    + ", office.jwt.algorithm (JWT_ALGORITHM) must be one of "
+                    + ALGORITHMS.stream().map(SignatureAlgorithm::getName).collect(Collectors.joining(", ")));
+        return algorithm;
+    }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -43,8 +73,11 @@ public class SecurityConfiguration {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (the import report) finish in an async dispatch of an authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST,
                                 "/employees",
+                                "/employees/import",
                                 "/projects").hasAuthority("SCOPE_COMPANY")
                         .requestMatchers(HttpMethod.PUT,
                                 "/adresses",
@@ -60,10 +93,12 @@ public class SecurityConfiguration {
                                 "/projects",
                                 "/companies",
                                 "/projects/{id}",
+                                "/projects/{id}/summary",
                                 "/employees").hasAuthority("SCOPE_COMPANY")
 
                         .requestMatchers(HttpMethod.POST,
                                 "/teams",
+                                "/teams/{id}/move",
                                 "/tasks").hasAuthority("SCOPE_MANAGER")
                         .requestMatchers(HttpMethod.PUT,
                                 "/teams/{id}",
@@ -88,10 +123,17 @@ public class SecurityConfiguration {
                                 "/comments",
                                 "/employees/me").hasAuthority("SCOPE_EMPLOYEE")
 
+                        .requestMatchers(HttpMethod.GET,
+                                "/search").hasAnyAuthority("SCOPE_COMPANY", "SCOPE_EMPLOYEE")
+                        .requestMatchers(HttpMethod.GET,
+                                "/employees/autocomplete").hasAnyAuthority("SCOPE_COMPANY", "SCOPE_MANAGER")
+
                         .requestMatchers(HttpMethod.POST,
                                 "/companies",
                                 "/companies/login",
-                                "/employees/login").permitAll()
+                                "/companies/refresh",
+                                "/employees/login",
+                                "/employees/refresh").permitAll()
                         .anyRequest().authenticated())
                 .build();
     }
@@ -100,24 +142,63 @@ public class SecurityConfiguration {
         return new BCryptPasswordEncoder();
     }
     @Bean
-    public JwtDecoder decoder() throws InvalidKeySpecException, NoSuchAlgorithmException {
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        X509EncodedKeySpec keySpecX509 = new X509EncodedKeySpec(getMimeDecoder().decode(publicKey));
-        RSAPublicKey pubKey = (RSAPublicKey) kf.generatePublic(keySpecX509);
+    public JwtDecoder decoder(MeterRegistry registry,
+                              MembershipService membershipService,
+                              RefreshTokenService refreshTokenService,
+                              AccessTokenStore tokenStore,
+                              @Value("${office.jwt.cache.maximum-size}") long cacheSize)
+            throws InvalidKeySpecException, NoSuchAlgorithmException {
+        var validator = new DelegatingOAuth2TokenValidator<>(
+                new SessionRevocationValidator(refreshTokenService),
+                new MembershipVersionValidator(membershipService));
+        if(mode == TokenMode.OPAQUE)
+            return new OpaqueTokenDecoder(tokenStore, validator);
+
+        JWK jwk = this.signingKey(false);
+        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
+
+        var processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.parse(algorithm.getName()), jwks));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
 
-        return NimbusJwtDecoder.withPublicKey(pubKey).build();
+        JwtDecoder decoder = new NimbusJwtDecoder(processor);
+        return new CachingJwtDecoder(decoder, validator, cacheSize, registry);
     }
     @Bean
-    public JwtEncoder encoder() throws NoSuchAlgorithmException, InvalidKeySpecException {
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        PKCS8EncodedKeySpec keySpecPKCS8 = new PKCS8EncodedKeySpec(getMimeDecoder().decode(privateKey));
-        PrivateKey privKey = kf.generatePrivate(keySpecPKCS8);
+    public JwtEncoder encoder(AccessTokenStore tokenStore) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        if(mode == TokenMode.OPAQUE)
+            return parameters -> tokenStore.issue(parameters.getClaims());
+
+        JWK jwk = this.signingKey(true);
+        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
+        var encoder = new NimbusJwtEncoder(jwks);
 
+        JwsHeader header = JwsHeader.with(algorithm).build();
+        return parameters -> parameters.getJwsHeader() != null ?
+                encoder.encode(parameters) :
+                encoder.encode(JwtEncoderParameters.from(header, parameters.getClaims()));
+    }
+
+    private JWK signingKey(boolean withPrivateKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        KeyFactory kf = switch (algorithm) {
+            case RS256 -> KeyFactory.getInstance("RSA");
+            case ES256 -> KeyFactory.getInstance("EC");
+            default -> throw new IllegalStateException("Unsupported JWT algorithm " + algorithm.getName());
+        };
         X509EncodedKeySpec keySpecX509 = new X509EncodedKeySpec(getMimeDecoder().decode(publicKey));
-        RSAPublicKey pubKey = (RSAPublicKey) kf.generatePublic(keySpecX509);
+        PublicKey pubKey = kf.generatePublic(keySpecX509);
 
-        JWK jwk = new RSAKey.Builder(pubKey).privateKey(privKey).build();
-        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+        if(algorithm == SignatureAlgorithm.ES256) {
+            var builder = new ECKey.Builder(Curve.P_256, (ECPublicKey) pubKey);
+            if(withPrivateKey) builder.privateKey(this.privateKey(kf));
+            return builder.build();
+        }
+        var builder = new RSAKey.Builder((RSAPublicKey) pubKey);
+        if(withPrivateKey) builder.privateKey(this.privateKey(kf));
+        return builder.build();
+    }
+    private PrivateKey privateKey(KeyFactory kf) throws InvalidKeySpecException {
+        PKCS8EncodedKeySpec keySpecPKCS8 = new PKCS8EncodedKeySpec(getMimeDecoder().decode(privateKey));
+        return kf.generatePrivate(keySpecPKCS8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.office.api.configuration;
+
+import com.office.api.service.RefreshTokenService;
+import com.office.api.service.TokenService;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.UUID;
+
+/**
+ * Rejects access tokens whose refresh token session has been revoked, e.g. after
+ * a refresh token was reused or its owner was removed.
+ */
+public class SessionRevocationValidator implements OAuth2TokenValidator<Jwt> {
+    private static final OAuth2Error REVOKED = new OAuth2Error(
+            OAuth2ErrorCodes.INVALID_TOKEN, "The token session has been revoked", null);
+
+    private final RefreshTokenService refreshTokenService;
+
+    public SessionRevocationValidator(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        String session = jwt.getClaimAsString(TokenService.SESSION_CLAIM);
+        if(session == null || !refreshTokenService.isRevoked(UUID.fromString(session)))
+            return OAuth2TokenValidatorResult.success();
+        return OAuth2TokenValidatorResult.failure(REVOKED);
+    }
+}
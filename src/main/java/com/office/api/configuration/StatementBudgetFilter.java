@@ -0,0 +1,78 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements each request runs, authentication included, into
+ * {@code office.jdbc.request.statements}. A request going over the budget is logged
+ * and counted in {@code office.jdbc.request.over.budget}, both tagged with the matched
+ * route rather than the raw path.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final int budget;
+
+    public StatementBudgetFilter(MeterRegistry registry,
+                                 @Value("${office.jdbc.request-statement-budget}") int budget) {
+        this.registry = registry;
+        this.budget = budget;
+    }
+
+    static void count() {
+        int[] statements = STATEMENTS.get();
+        if(statements != null) statements[0]++;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int[] statements = new int[1];
+        STATEMENTS.set(statements);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            STATEMENTS.remove();
+            this.record(request, statements[0]);
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("office.jdbc.request.statements")
+                .description("Statements run by a single request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(statements);
+        if(statements <= budget) return;
+
+        Counter.builder("office.jdbc.request.over.budget")
+                .description("Requests that ran more statements than the budget")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .increment();
+        log.warn("{} {} ran {} statements, over the budget of {}", request.getMethod(), uri, statements, budget);
+    }
+}
@@ -0,0 +1,30 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the data source handed to JPA and Flyway, whether the single pool or the
+ * replica router, in a {@link StatementMetricsDataSource}.
+ */
+@Configuration
+public class StatementMetricsConfiguration {
+    @Bean
+    public static BeanPostProcessor statementMetrics(ObjectProvider<MeterRegistry> registry, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String name) {
+                if(!"dataSource".equals(name) || !(bean instanceof DataSource dataSource)) return bean;
+                return new StatementMetricsDataSource(dataSource, registry.getObject(), environment.getRequiredProperty(
+                        "office.jdbc.slow-statement-threshold", Duration.class));
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement run through the connections it hands out. Each execution is
+ * recorded in {@code office.jdbc.statements}, tagged by statement type, and counted
+ * towards the {@link StatementBudgetFilter} of the current request. Executions slower
+ * than the threshold are logged with their literals replaced by {@code ?}, bound
+ * parameters are never captured.
+ */
+@Slf4j
+public class StatementMetricsDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTIONS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> TYPES = Set.of("select", "insert", "update", "delete", "merge", "with");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?");
+
+    private final MeterRegistry registry;
+    private final long slowThreshold;
+    private final Counter slow;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StatementMetricsDataSource(DataSource target, MeterRegistry registry, Duration slowThreshold) {
+        super(target);
+        this.registry = registry;
+        this.slowThreshold = slowThreshold.toNanos();
+        this.slow = Counter.builder("office.jdbc.statements.slow")
+                .description("Statements that ran longer than the slow statement threshold")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.connection(super.getConnection());
+    }
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return this.connection(super.getConnection(username, password));
+    }
+
+    static String redact(String sql) {
+        return NUMBER_LITERAL.matcher(STRING_LITERAL.matcher(sql).replaceAll("?")).replaceAll("?");
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch(method.getName()) {
+                case "createStatement" -> proxy(Statement.class, result, this.statement((Statement) result, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class, result, this.statement((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, result, this.statement((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        });
+    }
+    private Handler statement(Statement statement, String prepared) {
+        return (method, args) -> {
+            if(!EXECUTIONS.contains(method.getName())) return invoke(statement, method, args);
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String value ? value : prepared;
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                this.record(sql, System.nanoTime() - start);
+            }
+        };
+    }
+    private void record(String sql, long nanos) {
+        StatementBudgetFilter.count();
+        timers.computeIfAbsent(type(sql), type -> Timer.builder("office.jdbc.statements")
+                .description("Time spent executing statements")
+                .tag("type", type)
+                .register(registry)).record(Duration.ofNanos(nanos));
+        if(nanos < slowThreshold) return;
+
+        slow.increment();
+        log.warn("Slow statement ({} ms): {}", nanos / 1_000_000, sql == null ? "batch" : redact(sql));
+    }
+
+    private static String type(String sql) {
+        if(sql == null) return "batch";
+        String keyword = sql.stripLeading().split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+        return TYPES.contains(keyword) ? keyword : "other";
+    }
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch(InvocationTargetException exception) {
+            throw exception.getTargetException();
+        }
+    }
+    // Proxies are only equal to themselves, everything else goes to the handler
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocation = (proxy, method, args) -> switch(method.getName()) {
+            case "equals" -> args[0] == proxy;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> target.toString();
+            default -> handler.invoke(method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocation));
+    }
+
+    private interface Handler {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,11 @@
+package com.office.api.configuration;
+
+/**
+ * Format of the access tokens handed out at login. {@code JWT} tokens are signed and
+ * self-contained; {@code OPAQUE} tokens are random references resolved through the
+ * local token store, which keeps headers small and skips signature checks.
+ */
+public enum TokenMode {
+    JWT,
+    OPAQUE
+}
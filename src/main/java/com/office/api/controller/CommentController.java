@@ -3,6 +3,8 @@ package com.office.api.controller;
 import com.office.api.model.dto.comment.CommentDTO;
 import com.office.api.model.dto.comment.NewCommentDTO;
 import com.office.api.model.dto.comment.UpdateCommentDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.service.CommentService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -10,8 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/comments")
 public class CommentController {
@@ -43,13 +43,13 @@ public class CommentController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
     @GetMapping("/{id}")
-    public ResponseEntity<List<CommentDTO>> getAllComments(@PathVariable Long id, JwtAuthenticationToken token) {
-        List<CommentDTO> allComments = commentService.getAllComments(id, token);
+    public ResponseEntity<PageDTO<CommentDTO>> getAllComments(@PathVariable Long id, PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<CommentDTO> allComments = commentService.getAllComments(id, page, token);
         return ResponseEntity.status(HttpStatus.OK).body(allComments);
     }
     @GetMapping
-    public ResponseEntity<List<CommentDTO>> getComments(JwtAuthenticationToken token) {
-        List<CommentDTO> comments = commentService.getComments(token);
+    public ResponseEntity<PageDTO<CommentDTO>> getComments(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<CommentDTO> comments = commentService.getComments(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(comments);
     }
 }
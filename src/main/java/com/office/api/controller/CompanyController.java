@@ -2,6 +2,7 @@ package com.office.api.controller;
 
 import com.office.api.model.dto.company.*;
 import com.office.api.service.CompanyService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +19,13 @@ public class CompanyController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid LoginRequestDTO data) {
-        LoginResponseDTO login = companyService.login(data);
+    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid LoginRequestDTO data, HttpServletRequest request) {
+        LoginResponseDTO login = companyService.login(data, request.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.OK).body(login);
+    }
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody @Valid RefreshRequestDTO data) {
+        LoginResponseDTO login = companyService.refresh(data);
         return ResponseEntity.status(HttpStatus.OK).body(login);
     }
     @PostMapping
@@ -1,28 +1,43 @@
 package com.office.api.controller;
 
 import com.office.api.model.dto.employee.*;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.service.EmployeeImportService;
 import com.office.api.service.EmployeeService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Set;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/employees")
 public class EmployeeController {
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeImportService employeeImportService) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid LoginRequestDTO data) {
-        LoginResponseDTO token = employeeService.login(data);
+    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid LoginRequestDTO data, HttpServletRequest request) {
+        LoginResponseDTO token = employeeService.login(data, request.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.OK).body(token);
+    }
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody @Valid RefreshRequestDTO data) {
+        LoginResponseDTO token = employeeService.refresh(data);
         return ResponseEntity.status(HttpStatus.OK).body(token);
     }
     @PostMapping
@@ -32,6 +47,14 @@ public class EmployeeController {
         employeeService.newEmployee(data, token);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importEmployees(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            JwtAuthenticationToken token) {
+        StreamingResponseBody report = employeeImportService.importEmployees(body, contentType, token);
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(report);
+    }
     @PutMapping
     public ResponseEntity<Void> updateEmployee(
             @RequestBody @Valid UpdateEmployeeDTO data,
@@ -47,10 +70,17 @@ public class EmployeeController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
     @GetMapping
-    public ResponseEntity<Set<EmployeeDTO>> getAllEmployees(JwtAuthenticationToken token) {
-        Set<EmployeeDTO> allEmployees = employeeService.getAllEmployees(token);
+    public ResponseEntity<PageDTO<EmployeeDTO>> getAllEmployees(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<EmployeeDTO> allEmployees = employeeService.getAllEmployees(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(allEmployees);
     }
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<EmployeeMatchDTO>> completeEmployees(@RequestParam(required = false) String prefix,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    JwtAuthenticationToken token) {
+        List<EmployeeMatchDTO> employees = employeeService.completeEmployees(prefix, limit, token);
+        return ResponseEntity.status(HttpStatus.OK).body(employees);
+    }
     @GetMapping("/me")
     public ResponseEntity<EmployeeDTO> getEmployee(JwtAuthenticationToken token) {
         EmployeeDTO employee = employeeService.getEmployee(token);
@@ -1,7 +1,10 @@
 package com.office.api.controller;
 
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.project.NewProjectDTO;
 import com.office.api.model.dto.project.ProjectDTO;
+import com.office.api.model.dto.project.ProjectSummaryDTO;
 import com.office.api.model.dto.project.UpdateProjectDTO;
 import com.office.api.service.ProjectService;
 import jakarta.validation.Valid;
@@ -10,8 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Set;
-
 @RestController
 @RequestMapping("/projects")
 public class ProjectController {
@@ -37,8 +38,8 @@ public class ProjectController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
     @GetMapping
-    public ResponseEntity<Set<ProjectDTO>> getAllProjects(JwtAuthenticationToken token) {
-        Set<ProjectDTO> projects = projectService.getAllProjects(token);
+    public ResponseEntity<PageDTO<ProjectDTO>> getAllProjects(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<ProjectDTO> projects = projectService.getAllProjects(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(projects);
     }
     @GetMapping("/{id}")
@@ -46,4 +47,9 @@ public class ProjectController {
         ProjectDTO project = projectService.getProject(id, token);
         return ResponseEntity.status(HttpStatus.OK).body(project);
     }
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<ProjectSummaryDTO> getSummary(@PathVariable Long id, JwtAuthenticationToken token) {
+        ProjectSummaryDTO summary = projectService.getSummary(id, token);
+        return ResponseEntity.status(HttpStatus.OK).body(summary);
+    }
 }
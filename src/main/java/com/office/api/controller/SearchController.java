@@ -0,0 +1,28 @@
+package com.office.api.controller;
+
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.search.SearchHitDTO;
+import com.office.api.service.SearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<PageDTO<SearchHitDTO>> search(@RequestParam(required = false) String q,
+                                                        PageRequestDTO page,
+                                                        JwtAuthenticationToken token) {
+        PageDTO<SearchHitDTO> hits = searchService.search(q, page, token);
+        return ResponseEntity.status(HttpStatus.OK).body(hits);
+    }
+}
@@ -1,5 +1,7 @@
 package com.office.api.controller;
 
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.task.NewTaskDTO;
 import com.office.api.model.dto.task.TaskDTO;
 import com.office.api.model.dto.task.UpdateTaskDTO;
@@ -10,8 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Set;
-
 @RestController
 @RequestMapping("/tasks")
 public class TaskController {
@@ -39,8 +39,8 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
     @GetMapping
-    public ResponseEntity<Set<TaskDTO>> getTasks(JwtAuthenticationToken token) {
-        Set<TaskDTO> tasks = taskService.getTasks(token);
+    public ResponseEntity<PageDTO<TaskDTO>> getTasks(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<TaskDTO> tasks = taskService.getTasks(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(tasks);
     }
     @GetMapping("/{id}")
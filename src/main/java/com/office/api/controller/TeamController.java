@@ -1,5 +1,8 @@
 package com.office.api.controller;
 
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.team.MoveMembersDTO;
 import com.office.api.model.dto.team.NewTeamDTO;
 import com.office.api.model.dto.team.TeamDTO;
 import com.office.api.model.dto.team.UpdateTeamDTO;
@@ -10,8 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Set;
-
 @RestController
 @RequestMapping("/teams")
 public class TeamController {
@@ -33,19 +34,26 @@ public class TeamController {
         teamService.updateTeam(id, data, token);
         return ResponseEntity.status(HttpStatus.OK).build();
     }
+    @PostMapping("/{id}/move")
+    public ResponseEntity<Void> moveMembers(@PathVariable Long id,
+                                            @RequestBody @Valid MoveMembersDTO data,
+                                            JwtAuthenticationToken token) {
+        teamService.moveMembers(id, data, token);
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTeam(@PathVariable Long id, JwtAuthenticationToken token) {
         teamService.deleteTeam(id, token);
         return ResponseEntity.status(HttpStatus.OK).build();
     }
     @GetMapping
-    public ResponseEntity<Set<TeamDTO>> getAllTeams(JwtAuthenticationToken token) {
-        Set<TeamDTO> teams = teamService.getAllTeams(token);
+    public ResponseEntity<PageDTO<TeamDTO>> getAllTeams(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<TeamDTO> teams = teamService.getAllTeams(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(teams);
     }
     @GetMapping("/project")
-    public ResponseEntity<Set<TeamDTO>> getTeams(JwtAuthenticationToken token) {
-        Set<TeamDTO> teams = teamService.getTeams(token);
+    public ResponseEntity<PageDTO<TeamDTO>> getTeams(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageDTO<TeamDTO> teams = teamService.getTeams(page, token);
         return ResponseEntity.status(HttpStatus.OK).body(teams);
     }
 }
@@ -0,0 +1,7 @@
+package com.office.api.exception;
+
+public class HashingUnavailableException extends RuntimeException {
+    public HashingUnavailableException() {
+        super("Too many authentication requests, try again later");
+    }
+}
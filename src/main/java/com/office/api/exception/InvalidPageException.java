@@ -0,0 +1,7 @@
+package com.office.api.exception;
+
+public class InvalidPageException extends RuntimeException {
+    public InvalidPageException() {
+        super("Invalid page cursor or limit");
+    }
+}
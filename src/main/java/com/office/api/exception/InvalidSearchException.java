@@ -0,0 +1,7 @@
+package com.office.api.exception;
+
+public class InvalidSearchException extends RuntimeException {
+    public InvalidSearchException() {
+        super("Search query must have between 1 and 200 characters");
+    }
+}
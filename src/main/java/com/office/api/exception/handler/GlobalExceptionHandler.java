@@ -2,6 +2,7 @@ package com.office.api.exception.handler;
 
 
 import com.office.api.exception.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -29,7 +30,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 formatter.format(LocalDateTime.now()));
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exceptionDTO);
     }
-    @ExceptionHandler({InvalidEmployeeException.class, InvalidDeadlineException.class})
+    @ExceptionHandler({InvalidEmployeeException.class, InvalidDeadlineException.class, InvalidPageException.class, InvalidSearchException.class})
     public ResponseEntity<ExceptionDTO> handleInvalidException(RuntimeException exception) {
         ExceptionDTO exceptionDTO = new ExceptionDTO(HttpStatus.BAD_REQUEST.value(),
                 HttpStatus.BAD_REQUEST, "Invalid Data", exception.getMessage(),
@@ -49,4 +50,22 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 formatter.format(LocalDateTime.now()));
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exceptionDTO);
     }
-}
+    @ExceptionHandler(HashingUnavailableException.class)
+    public ResponseEntity<ExceptionDTO> handleUnavailableException(RuntimeException exception) {
+        ExceptionDTO exceptionDTO = new ExceptionDTO(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", exception.getMessage(),
+                formatter.format(LocalDateTime.now()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exceptionDTO);
+    }
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ExceptionDTO> handleThrottledException(LoginThrottledException exception) {
+        ExceptionDTO exceptionDTO = new ExceptionDTO(HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", exception.getMessage(),
+                formatter.format(LocalDateTime.now()));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter()))
+                .body(exceptionDTO);
+    }
+}
\ No newline at end of file
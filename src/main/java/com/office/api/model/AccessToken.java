@@ -0,0 +1,27 @@
+package com.office.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "access_tokens", indexes = {
+        @Index(name = "access_tokens_expires_at_idx", columnList = "expires_at")})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AccessToken {
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String claims;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -15,7 +15,8 @@ import lombok.Setter;
 @Setter
 public class Address {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adresses_id")
+    @SequenceGenerator(name = "adresses_id", sequenceName = "adresses_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 8)
@@ -30,7 +31,7 @@ public class Address {
     private String city;
     @Column(nullable = false)
     private String state;
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(
             name = "company_id",
             unique = true)
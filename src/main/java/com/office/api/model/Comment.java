@@ -10,14 +10,17 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "comments_task_id_posted_at_id_idx", columnList = "task_id, posted_at desc, id desc"),
+        @Index(name = "comments_owner_id_posted_at_id_idx", columnList = "owner_id, posted_at desc, id desc")})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_id")
+    @SequenceGenerator(name = "comments_id", sequenceName = "comments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,10 +29,10 @@ public class Comment {
     @Column(name = "posted_at", nullable = false)
     private LocalDateTime postedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private Employee owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "task_id")
     private Task task;
 
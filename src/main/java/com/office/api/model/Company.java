@@ -6,12 +6,16 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
 @Table(name = "companies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companies")
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -21,7 +25,7 @@ public class Company {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String name;
     @Column(nullable = false, unique = true, length = 14)
     private String cnpj;
@@ -30,12 +34,13 @@ public class Company {
     @Column(nullable = false)
     private Role role;
 
-    @OneToOne(mappedBy = "company", cascade = {CascadeType.REMOVE, CascadeType.PERSIST})
-    private Address address;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companies.employees")
     @OneToMany(mappedBy = "company", cascade = CascadeType.REMOVE)
     private Set<Employee> employees;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companies.projects")
     @OneToMany(mappedBy = "company", cascade = CascadeType.REMOVE)
     private Set<Project> projects;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companies.teams")
     @OneToMany(mappedBy = "company", cascade = CascadeType.REMOVE)
     private Set<Team> teams;
 
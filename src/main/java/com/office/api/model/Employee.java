@@ -7,13 +7,19 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.br.CPF;
 
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+        @Index(name = "employees_company_id_username_idx", columnList = "company_id, username"),
+        @Index(name = "employees_team_id_idx", columnList = "team_id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -37,13 +43,13 @@ public class Employee {
     private String password;
     @Column(nullable = false)
     private Role role;
+    @Column(name = "membership_version", nullable = false)
+    private long membershipVersion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
-    @OneToOne(mappedBy = "manager")
-    private Project project;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id")
     private Company company;
     @OneToMany(mappedBy = "owner", cascade = CascadeType.REMOVE)
@@ -5,45 +5,58 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDate;
 import java.util.Set;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        @Index(name = "projects_company_id_id_idx", columnList = "company_id, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects")
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Project {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_id")
+    @SequenceGenerator(name = "projects_id", sequenceName = "projects_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String name;
     @Column(nullable = false)
     private String description;
     @Column(nullable = false)
     private LocalDate deadline;
-    @Column(nullable = false)
+    // Derived from the deadline on every read, so it needs no bulk updates. A cached project keeps
+    // the value it was loaded with, the short time-to-live of the projects region bounds the lag
+    @Formula("deadline <= current_date")
     private boolean expired;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", nullable = false)
     private Company company;
-    @OneToOne
-    @JoinColumn(name = "manager_id", nullable = false)
+    // The foreign key sets it to null when the manager is deleted
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "manager_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private Employee manager;
     @OneToMany(mappedBy = "project", cascade = CascadeType.REMOVE)
     private Set<Task> tasks;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects.teams")
     @OneToMany(mappedBy = "project", cascade = CascadeType.REMOVE)
     private Set<Team> teams;
 
     public Project(String name, String description, LocalDate deadline, Company company, Employee manager) {
         this.name = name;
         this.description = description;
-        this.expired = false;
         this.deadline = deadline;
         this.company = company;
         this.manager = manager;
@@ -0,0 +1,35 @@
+package com.office.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of a project, only ever changed by the relative updates of
+ * {@link com.office.api.repository.ProjectSummaryRepository} so concurrent writers add up.
+ */
+@Entity
+@Table(name = "project_summaries")
+@NoArgsConstructor
+@Getter
+public class ProjectSummary {
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(nullable = false)
+    private long tasks;
+    @Column(nullable = false)
+    private long comments;
+    @Column(nullable = false)
+    private long teams;
+    @Column(nullable = false)
+    private long members;
+
+    public ProjectSummary(Long projectId) {
+        this.projectId = projectId;
+    }
+}
@@ -0,0 +1,49 @@
+package com.office.api.model;
+
+import com.office.api.model.enums.Realm;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "refresh_tokens_subject_idx", columnList = "subject"),
+        @Index(name = "refresh_tokens_session_idx", columnList = "session"),
+        @Index(name = "refresh_tokens_revoked_at_idx", columnList = "revoked_at")})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    @Column(nullable = false)
+    private UUID subject;
+    @Column(nullable = false)
+    private Realm realm;
+    @Column(nullable = false)
+    private UUID session;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    @Column(name = "used_at")
+    private Instant usedAt;
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    public RefreshToken(String tokenHash, UUID subject, Realm realm, UUID session, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.subject = subject;
+        this.realm = realm;
+        this.session = session;
+        this.expiresAt = expiresAt;
+    }
+}
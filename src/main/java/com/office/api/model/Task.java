@@ -5,33 +5,38 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "tasks_project_id_id_idx", columnList = "project_id, id"),
+        @Index(name = "tasks_project_id_deadline_idx", columnList = "project_id, deadline")})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id")
+    @SequenceGenerator(name = "tasks_id", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String title;
     @Column(nullable = false)
     private String description;
     @Column(nullable = false)
     private LocalDateTime deadline;
-    @Column(nullable = false)
+    // Compared against the database clock when the task is read
+    @Formula("deadline <= current_timestamp")
     private boolean expired;
 
     @OneToMany(mappedBy = "task", cascade = CascadeType.REMOVE)
     private Set<Comment> comments;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     private Project project;
 
@@ -39,7 +44,6 @@ public class Task {
         this.title = title;
         this.description = description;
         this.deadline = deadline;
-        this.expired = false;
         this.project = project;
     }
 }
\ No newline at end of file
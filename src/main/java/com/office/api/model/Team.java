@@ -5,29 +5,37 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
 @Entity
-@Table(name = "teams")
+@Table(name = "teams", indexes = {
+        @Index(name = "teams_company_id_id_idx", columnList = "company_id, id"),
+        @Index(name = "teams_project_id_id_idx", columnList = "project_id, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teams")
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Team {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teams_id")
+    @SequenceGenerator(name = "teams_id", sequenceName = "teams_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teams.members")
     @OneToMany(mappedBy = "team", cascade =  CascadeType.MERGE)
     private Set<Employee> members;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id")
     private Company company;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     private Project project;
 
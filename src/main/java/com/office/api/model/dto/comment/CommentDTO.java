@@ -1,30 +1,38 @@
 package com.office.api.model.dto.comment;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.office.api.model.Comment;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public record CommentDTO(Long id,
                          String content,
                          String posted_at,
-                         String owner_username) {
+                         String owner_username,
+                         // Exact instant for ordering and page cursors, the formatted one drops the fraction
+                         @JsonIgnore LocalDateTime postedAt) {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final Comparator<CommentDTO> NEWEST_FIRST =
+            Comparator.comparing(CommentDTO::postedAt).thenComparing(CommentDTO::id).reversed();
+
+    // Used by the JPQL constructor expressions in CommentRepository
+    public CommentDTO(Long id, String content, LocalDateTime postedAt, String ownerUsername) {
+        this(id, content, FORMATTER.format(postedAt), ownerUsername, postedAt);
+    }
 
     public static CommentDTO toDTO(Comment comment) {
-        var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
         return new CommentDTO(
                 comment.getId(),
                 comment.getContent(),
-                formatter.format(comment.getPostedAt()),
+                comment.getPostedAt(),
                 comment.getOwner().getUsername());
     }
     public static List<CommentDTO> toDTOList(Set<Comment> comments) {
-        var commentList = comments.stream()
+        return comments.stream()
                 .map(CommentDTO::toDTO)
-                .sorted(Comparator.comparing(CommentDTO::posted_at))
-                .collect(Collectors.toCollection(ArrayList::new));
-        Collections.reverse(commentList);
-        return commentList;
+                .sorted(NEWEST_FIRST)
+                .toList();
     }
 }
@@ -1,5 +1,6 @@
 package com.office.api.model.dto.company;
 
+import com.office.api.model.Address;
 import com.office.api.model.Company;
 import com.office.api.model.dto.address.AddressDTO;
 
@@ -7,10 +8,10 @@ public record CompanyDTO(String name,
                          String cnpj,
                          AddressDTO address) {
 
-    public static CompanyDTO toDTO(Company company) {
+    public static CompanyDTO toDTO(Company company, Address address) {
         return new CompanyDTO(
                 company.getName(),
                 company.getCnpj(),
-                AddressDTO.toDTO(company.getAddress()));
+                AddressDTO.toDTO(address));
     }
 }
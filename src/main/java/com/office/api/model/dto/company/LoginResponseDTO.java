@@ -1,4 +1,4 @@
 package com.office.api.model.dto.company;
 
-public record LoginResponseDTO(String token, Long expires_in) {
+public record LoginResponseDTO(String token, String refresh_token, Long expires_in) {
 }
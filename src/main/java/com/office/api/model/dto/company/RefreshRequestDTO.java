@@ -0,0 +1,8 @@
+package com.office.api.model.dto.company;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequestDTO(
+        @NotBlank
+        String refresh_token) {
+}
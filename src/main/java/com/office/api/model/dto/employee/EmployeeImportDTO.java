@@ -0,0 +1,6 @@
+package com.office.api.model.dto.employee;
+
+public record EmployeeImportDTO(
+        int created,
+        int rejected) {
+}
@@ -0,0 +1,8 @@
+package com.office.api.model.dto.employee;
+
+public record EmployeeImportRowDTO(
+        long row,
+        String username,
+        boolean created,
+        String error) {
+}
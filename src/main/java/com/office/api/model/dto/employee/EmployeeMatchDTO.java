@@ -0,0 +1,6 @@
+package com.office.api.model.dto.employee;
+
+public record EmployeeMatchDTO(
+        String username,
+        String name) {
+}
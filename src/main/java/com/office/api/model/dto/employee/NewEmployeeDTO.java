@@ -9,8 +9,10 @@ public record NewEmployeeDTO(
         String name,
         @NotBlank
         String username,
+        @NotBlank
         @CPF
         String cpf,
+        @NotBlank
         @Email
         String email,
         @NotBlank
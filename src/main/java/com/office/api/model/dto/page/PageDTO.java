@@ -0,0 +1,8 @@
+package com.office.api.model.dto.page;
+
+import java.util.List;
+
+public record PageDTO<T>(
+        List<T> items,
+        String next_cursor) {
+}
@@ -0,0 +1,7 @@
+package com.office.api.model.dto.page;
+
+public record PageRequestDTO(
+        String cursor,
+        Integer limit,
+        boolean unpaged) {
+}
@@ -2,24 +2,33 @@ package com.office.api.model.dto.project;
 
 import com.office.api.model.Project;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public record ProjectDTO(
+        Long id,
         String name,
         String description,
         String manager_username,
         String deadline,
         boolean is_expired) {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Used by the JPQL constructor expressions in ProjectRepository and TeamRepository, the manager
+    // username is null once the manager is deleted
+    public ProjectDTO(Long id, String name, String description, String managerUsername, LocalDate deadline, boolean expired) {
+        this(id, name, description, managerUsername, FORMATTER.format(deadline), expired);
+    }
 
     public static ProjectDTO toDTO(Project project) {
-        var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         return new ProjectDTO(
+                project.getId(),
                 project.getName(),
                 project.getDescription(),
-                project.getManager().getUsername(),
-                formatter.format(project.getDeadline()),
+                project.getManager() == null ? null : project.getManager().getUsername(),
+                project.getDeadline(),
                 project.isExpired());
     }
 
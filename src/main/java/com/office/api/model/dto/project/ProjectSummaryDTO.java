@@ -0,0 +1,10 @@
+package com.office.api.model.dto.project;
+
+public record ProjectSummaryDTO(
+        Long project_id,
+        Long tasks,
+        Long expired_tasks,
+        Long comments,
+        Long teams,
+        Long headcount) {
+}
@@ -0,0 +1,10 @@
+package com.office.api.model.dto.search;
+
+public record SearchHitDTO(
+        String kind,
+        Long id,
+        Long task_id,
+        String task_title,
+        String snippet,
+        float rank) {
+}
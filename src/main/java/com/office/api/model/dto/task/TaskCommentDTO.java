@@ -0,0 +1,16 @@
+package com.office.api.model.dto.task;
+
+import com.office.api.model.dto.comment.CommentDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * A comment projected together with the id of its task, so the comments of a page of
+ * tasks can be read in one query and grouped with {@link TaskDTO#withComments(java.util.List, java.util.List)}.
+ */
+public record TaskCommentDTO(Long task_id, CommentDTO comment) {
+
+    public TaskCommentDTO(Long taskId, Long id, String content, LocalDateTime postedAt, String ownerUsername) {
+        this(taskId, new CommentDTO(id, content, postedAt, ownerUsername));
+    }
+}
@@ -3,9 +3,9 @@ package com.office.api.model.dto.task;
 import com.office.api.model.Task;
 import com.office.api.model.dto.comment.CommentDTO;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public record TaskDTO(
@@ -15,18 +15,34 @@ public record TaskDTO(
         String deadline,
         boolean is_expired,
         List<CommentDTO> comments) {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    // Used by the JPQL constructor expressions in TaskRepository, comments are attached afterwards
+    public TaskDTO(Long id, String title, String description, LocalDateTime deadline, boolean expired) {
+        this(id, title, description, FORMATTER.format(deadline), expired, List.of());
+    }
 
     public static TaskDTO toDTO(Task task) {
-        var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         return new TaskDTO(
                 task.getId(),
                 task.getTitle(),
                 task.getDescription(),
-                formatter.format(task.getDeadline()),
+                FORMATTER.format(task.getDeadline()),
                 task.isExpired(),
                 CommentDTO.toDTOList(task.getComments()));
     }
     public static Set<TaskDTO> toDTOList(Set<Task> tasks) {
         return tasks.stream().map(TaskDTO::toDTO).collect(Collectors.toSet());
     }
+    public TaskDTO withComments(List<CommentDTO> comments) {
+        return new TaskDTO(id, title, description, deadline, is_expired, comments);
+    }
+    public static List<TaskDTO> withComments(List<TaskDTO> tasks, List<TaskCommentDTO> comments) {
+        Map<Long, List<CommentDTO>> byTask = new HashMap<>();
+        for(TaskCommentDTO comment : comments)
+            byTask.computeIfAbsent(comment.task_id(), id -> new ArrayList<>()).add(comment.comment());
+        return tasks.stream()
+                .map(task -> task.withComments(byTask.getOrDefault(task.id(), List.of())))
+                .toList();
+    }
 }
@@ -0,0 +1,14 @@
+package com.office.api.model.dto.team;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Set;
+
+public record MoveMembersDTO(
+        @NotNull
+        Long to_team_id,
+        @NotEmpty
+        Set<@NotBlank String> usernames) {
+}
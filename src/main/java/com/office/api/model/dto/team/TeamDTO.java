@@ -4,7 +4,8 @@ import com.office.api.model.Team;
 import com.office.api.model.dto.employee.EmployeeDTO;
 import com.office.api.model.dto.project.ProjectDTO;
 
-import java.util.Set;
+import java.time.LocalDate;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public record TeamDTO(
@@ -13,6 +14,12 @@ public record TeamDTO(
         ProjectDTO project,
         Set<EmployeeDTO> members) {
 
+    // Used by the JPQL constructor expressions in TeamRepository, members are attached afterwards
+    public TeamDTO(Long id, String name, Long projectId, String projectName, String projectDescription,
+                   String managerUsername, LocalDate projectDeadline, boolean projectExpired) {
+        this(id, name, new ProjectDTO(projectId, projectName, projectDescription, managerUsername, projectDeadline, projectExpired), Set.of());
+    }
+
     public static TeamDTO toDTO(Team team) {
         return new TeamDTO(
                 team.getId(),
@@ -23,4 +30,15 @@ public record TeamDTO(
     public static Set<TeamDTO> toDTOList(Set<Team> teams) {
         return teams.stream().map(TeamDTO::toDTO).collect(Collectors.toSet());
     }
+    public TeamDTO withMembers(Set<EmployeeDTO> members) {
+        return new TeamDTO(id, name, project, members);
+    }
+    public static List<TeamDTO> withMembers(List<TeamDTO> teams, List<TeamMemberDTO> members) {
+        Map<Long, Set<EmployeeDTO>> byTeam = new HashMap<>();
+        for(TeamMemberDTO member : members)
+            byTeam.computeIfAbsent(member.team_id(), id -> new HashSet<>()).add(member.employee());
+        return teams.stream()
+                .map(team -> team.withMembers(byTeam.getOrDefault(team.id(), Set.of())))
+                .toList();
+    }
 }
@@ -0,0 +1,15 @@
+package com.office.api.model.dto.team;
+
+import com.office.api.model.dto.employee.EmployeeDTO;
+import com.office.api.model.enums.Role;
+
+/**
+ * An employee projected together with the id of their team, so the members of a page of
+ * teams can be read in one query and grouped with {@link TeamDTO#withMembers(java.util.List, java.util.List)}.
+ */
+public record TeamMemberDTO(Long team_id, EmployeeDTO employee) {
+
+    public TeamMemberDTO(Long teamId, String name, String username, String cpf, String email, Role role, String company) {
+        this(teamId, new EmployeeDTO(name, username, cpf, email, role, company));
+    }
+}
@@ -0,0 +1,6 @@
+package com.office.api.model.enums;
+
+public enum Realm {
+    COMPANY,
+    EMPLOYEE
+}
@@ -0,0 +1,23 @@
+package com.office.api.repository;
+
+import com.office.api.model.AccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface AccessTokenRepository extends JpaRepository<AccessToken, String> {
+    // Tokens are introspected right after they are issued, before the replica may have them
+    @Transactional
+    Optional<AccessToken> findById(String id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from AccessToken a where a.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
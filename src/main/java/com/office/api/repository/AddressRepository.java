@@ -2,8 +2,14 @@ package com.office.api.repository;
 
 import com.office.api.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
+    @Query("select a from Address a where a.company.id = :companyId")
+    Optional<Address> findByCompanyId(UUID companyId);
 }
@@ -1,9 +1,42 @@
 package com.office.api.repository;
 
 import com.office.api.model.Comment;
+import com.office.api.model.dto.comment.CommentDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    Optional<Comment> findByIdAndOwnerId(Long id, UUID ownerId);
+
+    // Newest first, seeking the (owner_id, posted_at desc, id desc) and (task_id, ...) indexes
+    // from the last row of the previous page, so a page only reads its own rows
+    @Query("""
+            select new com.office.api.model.dto.comment.CommentDTO(c.id, c.content, c.postedAt, o.username)
+            from Comment c join c.owner o where o.id = :ownerId and (c.postedAt, c.id) < (:beforeTime, :beforeId)
+            order by c.postedAt desc, c.id desc""")
+    List<CommentDTO> findAllDTOByOwnerId(UUID ownerId, LocalDateTime beforeTime, Long beforeId, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.comment.CommentDTO(c.id, c.content, c.postedAt, o.username)
+            from Comment c join c.owner o where c.task.id = :taskId and (c.postedAt, c.id) < (:beforeTime, :beforeId)
+            order by c.postedAt desc, c.id desc""")
+    List<CommentDTO> findAllDTOByTaskId(Long taskId, LocalDateTime beforeTime, Long beforeId, Pageable pageable);
+    @Query("select c.owner.id from Comment c where c.id = :id")
+    Optional<UUID> findOwnerIdById(Long id);
+    @Query("select c.task.project.id from Comment c where c.id = :id and c.owner.id = :ownerId")
+    Optional<Long> findProjectIdByIdAndOwnerId(Long id, UUID ownerId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Comment c where c.id = :id and c.owner.id = :ownerId")
+    int deleteByIdAndOwnerId(Long id, UUID ownerId);
 }
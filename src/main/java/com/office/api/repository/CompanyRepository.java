@@ -2,7 +2,9 @@ package com.office.api.repository;
 
 import com.office.api.model.Company;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.Set;
@@ -10,9 +12,17 @@ import java.util.UUID;
 
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, UUID> {
+    @Transactional
     Optional<Company> findByName(String name);
 
+    // Each side of the union seeks its own unique index, a plain "or" may scan the table instead
+    @Query("""
+            select count(c) > 0 from Company c where c.id in (
+            select n.id from Company n where n.name = :name union select k.id from Company k where k.cnpj = :cnpj)""")
     boolean existsByNameOrCnpj(String name, String cnpj);
 
+    @Query("""
+            select c from Company c where c.id in (
+            select n.id from Company n where n.name = :name union select k.id from Company k where k.cnpj = :cnpj)""")
     Set<Company> findAllByNameOrCnpj(String name, String cnpj);
 }
@@ -1,16 +1,112 @@
 package com.office.api.repository;
 
 import com.office.api.model.Employee;
+import com.office.api.model.dto.employee.EmployeeDTO;
+import com.office.api.model.dto.employee.EmployeeMatchDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
+    // Login reads the primary, a password changed moments ago may not have reached the replica.
+    // Tokens are issued once these lookups have returned, so the team is fetched along.
+    @Transactional
+    @EntityGraph(attributePaths = "team")
     Optional<Employee> findByUsername(String username);
+    @Transactional
+    @EntityGraph(attributePaths = "team")
+    Optional<Employee> findWithTeamById(UUID id);
+    Optional<Employee> findByUsernameAndCompanyId(String username, UUID companyId);
+    List<Employee> findAllByUsernameInAndCompanyId(Collection<String> usernames, UUID companyId);
+    // Each side of the union seeks its own unique index, a plain "or" may scan the table instead
+    @Query("""
+            select count(e) > 0 from Employee e where e.id in (
+            select u.id from Employee u where u.username = :username
+            union select c.id from Employee c where c.cpf = :cpf
+            union select m.id from Employee m where m.email = :email)""")
     boolean existsByUsernameOrCpfOrEmail(String username, String cpf, String email);
+    @Query("""
+            select e from Employee e where e.id in (
+            select u.id from Employee u where u.username = :username
+            union select m.id from Employee m where m.email = :email)""")
     Set<Employee> findAllByUsernameOrEmail(String username, String email);
+
+    @Query("""
+            select new com.office.api.model.dto.employee.EmployeeDTO(e.name, e.username, e.cpf, e.email, e.role, c.name)
+            from Employee e join e.company c where c.id = :companyId and e.username > :after order by e.username""")
+    List<EmployeeDTO> findAllDTOByCompanyId(UUID companyId, String after, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.employee.EmployeeMatchDTO(e.username, e.name)
+            from Employee e where e.company.id = :companyId""")
+    List<EmployeeMatchDTO> findAllMatchDTOByCompanyId(UUID companyId);
+    @Query("""
+            select new com.office.api.model.dto.employee.EmployeeDTO(e.name, e.username, e.cpf, e.email, e.role, c.name)
+            from Employee e join e.company c where e.id = :id""")
+    Optional<EmployeeDTO> findDTOById(UUID id);
+    @Query("select e.username from Employee e where e.username in :usernames")
+    Set<String> findUsernamesByUsernameIn(Collection<String> usernames);
+    @Query("select e.cpf from Employee e where e.cpf in :cpfs")
+    Set<String> findCpfsByCpfIn(Collection<String> cpfs);
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findEmailsByEmailIn(Collection<String> emails);
+    // A bump lagging on the replica would let revoked tokens through, so this reads the primary
+    @Transactional
+    @Query("select e.membershipVersion from Employee e where e.id = :id")
+    Optional<Long> findMembershipVersionById(UUID id);
+    @Query("select e.id from Employee e where e.username = :username and e.company.id = :companyId")
+    Optional<UUID> findIdByUsernameAndCompanyId(String username, UUID companyId);
+    @Query("select count(e) from Employee e where e.team.id = :teamId")
+    long countByTeamId(Long teamId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id and e.company.id = :companyId")
+    int deleteByIdAndCompanyId(UUID id, UUID companyId);
+
+    @Transactional
+    @Modifying
+    @Query("update Employee e set e.membershipVersion = e.membershipVersion + 1 where e.team.id = :teamId")
+    int incrementMembershipVersionByTeamId(Long teamId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update Employee e set e.membershipVersion = e.membershipVersion + 1
+            where e.id in (select m.id from Employee m join m.team t where t.project.id = :projectId
+                           union select p.manager.id from Project p where p.id = :projectId)""")
+    int incrementMembershipVersionByProjectId(Long projectId);
+
+    // Team membership changes only touch rows still in the expected state, callers compare the count
+    @Transactional
+    @Modifying
+    @Query("""
+            update Employee e set e.team.id = :teamId, e.membershipVersion = e.membershipVersion + 1
+            where e.username in :usernames and e.company.id = :companyId
+            and e.team is null and e.role <> com.office.api.model.enums.Role.MANAGER""")
+    int joinTeamByUsernameIn(Long teamId, Collection<String> usernames, UUID companyId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update Employee e set e.team = null, e.membershipVersion = e.membershipVersion + 1
+            where e.username in :usernames and e.team.id = :teamId""")
+    int leaveTeamByUsernameIn(Long teamId, Collection<String> usernames);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update Employee e set e.team.id = :toTeamId, e.membershipVersion = e.membershipVersion + 1
+            where e.username in :usernames and e.team.id = :fromTeamId""")
+    int moveTeamByUsernameIn(Long fromTeamId, Long toTeamId, Collection<String> usernames);
 }
@@ -1,13 +1,43 @@
 package com.office.api.repository;
 
 import com.office.api.model.Project;
+import com.office.api.model.dto.project.ProjectDTO;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     boolean existsByName(String name);
     Set<Project> findByName(String name);
+    @EntityGraph(attributePaths = "manager")
+    Optional<Project> findByIdAndCompanyId(Long id, UUID companyId);
+
+    @Query("""
+            select new com.office.api.model.dto.project.ProjectDTO(p.id, p.name, p.description, m.username, p.deadline, p.expired)
+            from Project p left join p.manager m where p.company.id = :companyId and p.id > :after order by p.id""")
+    List<ProjectDTO> findAllDTOByCompanyId(UUID companyId, Long after, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.project.ProjectDTO(p.id, p.name, p.description, m.username, p.deadline, p.expired)
+            from Project p left join p.manager m where p.id = :id and p.company.id = :companyId""")
+    Optional<ProjectDTO> findDTOByIdAndCompanyId(Long id, UUID companyId);
+    @Query("select p.company.id from Project p where p.id = :id")
+    Optional<UUID> findCompanyIdById(Long id);
+    boolean existsByManagerId(UUID managerId);
+    @Query("select p.id from Project p where p.manager.id = :managerId")
+    Optional<Long> findIdByManagerId(UUID managerId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Project p where p.id = :id and p.company.id = :companyId")
+    int deleteByIdAndCompanyId(Long id, UUID companyId);
 }
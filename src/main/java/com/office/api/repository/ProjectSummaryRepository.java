@@ -0,0 +1,80 @@
+package com.office.api.repository;
+
+import com.office.api.model.ProjectSummary;
+import com.office.api.model.dto.project.ProjectSummaryDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProjectSummaryRepository extends JpaRepository<ProjectSummary, Long> {
+    // Expired tasks are counted on read, since a deadline passing changes no row
+    @Query("""
+            select new com.office.api.model.dto.project.ProjectSummaryDTO(s.projectId, s.tasks,
+            (select count(t) from Task t where t.project.id = s.projectId and t.deadline <= current_timestamp),
+            s.comments, s.teams, s.members)
+            from ProjectSummary s where s.projectId = :projectId""")
+    Optional<ProjectSummaryDTO> findDTOByProjectId(Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("update ProjectSummary s set s.tasks = s.tasks + 1 where s.projectId = :projectId")
+    int incrementTasks(Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProjectSummary s set s.tasks = s.tasks - 1, s.comments = s.comments - :comments
+            where s.projectId = :projectId""")
+    int decrementTasks(Long projectId, long comments);
+
+    @Transactional
+    @Modifying
+    @Query("update ProjectSummary s set s.comments = s.comments + 1 where s.projectId = :projectId")
+    int incrementComments(Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("update ProjectSummary s set s.comments = s.comments - 1 where s.projectId = :projectId")
+    int decrementComments(Long projectId);
+
+    // Run before the employee is deleted, while the comments the cascade removes still exist
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProjectSummary s set s.comments = s.comments
+            - (select count(c) from Comment c where c.owner.id = :ownerId and c.task.project.id = s.projectId)
+            where s.projectId in (select c.task.project.id from Comment c where c.owner.id = :ownerId)""")
+    int decrementCommentsByOwnerId(UUID ownerId);
+
+    @Transactional
+    @Modifying
+    @Query("update ProjectSummary s set s.teams = s.teams + 1 where s.projectId = :projectId")
+    int incrementTeams(Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProjectSummary s set s.teams = s.teams - 1, s.members = s.members - :members
+            where s.projectId = :projectId""")
+    int decrementTeams(Long projectId, long members);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProjectSummary s set s.members = s.members + :members
+            where s.projectId = (select t.project.id from Team t where t.id = :teamId)""")
+    int addMembersByTeamId(Long teamId, long members);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProjectSummary s set s.members = s.members - 1
+            where s.projectId = (select e.team.project.id from Employee e where e.id = :employeeId)""")
+    int decrementMembersByEmployeeId(UUID employeeId);
+}
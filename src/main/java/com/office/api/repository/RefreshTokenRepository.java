@@ -0,0 +1,41 @@
+package com.office.api.repository;
+
+import com.office.api.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    // Rotation and revocation checks must see the latest writes, so they stay on the primary
+    @Transactional
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Transactional
+    @Query("select distinct r.session from RefreshToken r where r.revokedAt > :since")
+    List<UUID> findSessionsRevokedSince(Instant since);
+    @Query("select distinct r.session from RefreshToken r where r.subject = :subject and r.revokedAt is null")
+    List<UUID> findActiveSessionsBySubject(UUID subject);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.usedAt = :now where r.id = :id and r.usedAt is null and r.revokedAt is null")
+    int markUsed(UUID id, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.session = :session and r.revokedAt is null")
+    int revokeSession(UUID session, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.subject = :subject and r.revokedAt is null")
+    int revokeSubject(UUID subject, Instant now);
+}
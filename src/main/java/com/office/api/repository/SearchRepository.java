@@ -0,0 +1,79 @@
+package com.office.api.repository;
+
+import com.office.api.model.dto.search.SearchHitDTO;
+import com.office.api.service.PageCursors;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Full-text search over the generated {@code search} columns of tasks and comments, each
+ * matched through its GIN index. Hits of both kinds are ranked together and paged by
+ * (rank, kind, id), and only the rows of the page get a snippet, since building one
+ * reads the whole text. The statements are Postgres only, so unlike the Spring Data
+ * repositories they are not planned by the H2 query plan tests.
+ */
+@Repository
+public class SearchRepository {
+    private static final String SEARCH = """
+            select hit.kind, hit.id, hit.task_id, hit.task_title, hit.rank,
+                   ts_headline('simple', hit.body, websearch_to_tsquery('simple', :query),
+                               'MaxWords=30, MinWords=10, MaxFragments=2') as snippet
+            from (
+                select * from (
+                    select 'task' as kind, t.id, t.id as task_id, t.title as task_title,
+                           concat_ws(' ', t.title, t.description) as body, ts_rank(t.search, q) as rank
+                    from tasks t, websearch_to_tsquery('simple', :query) q
+                    where t.search @@ q and %1$s
+                    union all
+                    select 'comment', c.id, c.task_id, t.title, c.content, ts_rank(c.search, q)
+                    from comments c join tasks t on t.id = c.task_id, websearch_to_tsquery('simple', :query) q
+                    where c.search @@ q and %1$s
+                ) ranked
+                where (ranked.rank, ranked.kind, ranked.id) < (cast(:rank as real), :kind, :id)
+                order by ranked.rank desc, ranked.kind desc, ranked.id desc
+                limit :limit
+            ) hit
+            order by hit.rank desc, hit.kind desc, hit.id desc""";
+    private static final String BY_PROJECT = SEARCH.formatted("t.project_id = :scope");
+    private static final String BY_COMPANY = SEARCH.formatted(
+            "t.project_id in (select p.id from projects p where p.company_id = :scope)");
+
+    private final EntityManager entityManager;
+
+    public SearchRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public List<SearchHitDTO> searchByProjectId(Long projectId, String query, PageCursors.RankKey before, Pageable pageable) {
+        return this.search(BY_PROJECT, projectId, query, before, pageable);
+    }
+    public List<SearchHitDTO> searchByCompanyId(UUID companyId, String query, PageCursors.RankKey before, Pageable pageable) {
+        return this.search(BY_COMPANY, companyId, query, before, pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SearchHitDTO> search(String sql, Object scope, String query, PageCursors.RankKey before, Pageable pageable) {
+        List<Tuple> rows = entityManager.createNativeQuery(sql, Tuple.class)
+                .setParameter("scope", scope)
+                .setParameter("query", query)
+                .setParameter("rank", before.rank())
+                .setParameter("kind", before.kind())
+                .setParameter("id", before.id())
+                .setParameter("limit", pageable.getPageSize())
+                .getResultList();
+        return rows.stream()
+                .map(row -> new SearchHitDTO(
+                        row.get("kind", String.class),
+                        row.get("id", Number.class).longValue(),
+                        row.get("task_id", Number.class).longValue(),
+                        row.get("task_title", String.class),
+                        row.get("snippet", String.class),
+                        row.get("rank", Number.class).floatValue()))
+                .toList();
+    }
+}
@@ -1,13 +1,45 @@
 package com.office.api.repository;
 
 import com.office.api.model.Task;
+import com.office.api.model.dto.task.TaskCommentDTO;
+import com.office.api.model.dto.task.TaskDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
     boolean existsByTitle(String name);
     Set<Task> findByTitle(String name);
+    Optional<Task> findByIdAndProjectId(Long id, Long projectId);
+
+    @Query("""
+            select new com.office.api.model.dto.task.TaskDTO(t.id, t.title, t.description, t.deadline, t.expired)
+            from Task t where t.project.id = :projectId and t.id > :after order by t.id""")
+    List<TaskDTO> findAllDTOByProjectId(Long projectId, Long after, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.task.TaskDTO(t.id, t.title, t.description, t.deadline, t.expired)
+            from Task t where t.id = :id and t.project.id = :projectId""")
+    Optional<TaskDTO> findDTOByIdAndProjectId(Long id, Long projectId);
+    @Query("""
+            select new com.office.api.model.dto.task.TaskCommentDTO(t.id, c.id, c.content, c.postedAt, o.username)
+            from Comment c join c.task t join c.owner o where t.id in :taskIds order by c.postedAt desc, c.id desc""")
+    List<TaskCommentDTO> findAllCommentDTOByTaskIdIn(Collection<Long> taskIds);
+    @Query("select t.project.id from Task t where t.id = :id")
+    Optional<Long> findProjectIdById(Long id);
+    @Query("select count(c) from Comment c where c.task.id = :id and c.task.project.id = :projectId")
+    long countCommentsByIdAndProjectId(Long id, Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Task t where t.id = :id and t.project.id = :projectId")
+    int deleteByIdAndProjectId(Long id, Long projectId);
 }
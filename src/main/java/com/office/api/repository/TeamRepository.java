@@ -1,13 +1,46 @@
 package com.office.api.repository;
 
 import com.office.api.model.Team;
+import com.office.api.model.dto.team.TeamDTO;
+import com.office.api.model.dto.team.TeamMemberDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
     boolean existsByName(String name);
     Set<Team> findByName(String name);
+    Optional<Team> findByIdAndCompanyId(Long id, UUID companyId);
+
+    @Query("""
+            select new com.office.api.model.dto.team.TeamDTO(t.id, t.name, p.id, p.name, p.description, m.username, p.deadline, p.expired)
+            from Team t join t.project p left join p.manager m where t.company.id = :companyId and t.id > :after order by t.id""")
+    List<TeamDTO> findAllDTOByCompanyId(UUID companyId, Long after, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.team.TeamDTO(t.id, t.name, p.id, p.name, p.description, m.username, p.deadline, p.expired)
+            from Team t join t.project p left join p.manager m where p.id = :projectId and t.id > :after order by t.id""")
+    List<TeamDTO> findAllDTOByProjectId(Long projectId, Long after, Pageable pageable);
+    @Query("""
+            select new com.office.api.model.dto.team.TeamMemberDTO(t.id, e.name, e.username, e.cpf, e.email, e.role, c.name)
+            from Employee e join e.team t join e.company c where t.id in :teamIds""")
+    List<TeamMemberDTO> findAllMemberDTOByTeamIdIn(Collection<Long> teamIds);
+    @Query("select t.company.id from Team t where t.id = :id")
+    Optional<UUID> findCompanyIdById(Long id);
+    @Query("select t.project.id from Team t where t.id = :id")
+    Optional<Long> findProjectIdById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Team t where t.id = :id and t.company.id = :companyId")
+    int deleteByIdAndCompanyId(Long id, UUID companyId);
 }
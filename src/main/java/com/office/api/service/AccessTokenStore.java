@@ -0,0 +1,165 @@
+package com.office.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.office.api.model.AccessToken;
+import com.office.api.repository.AccessTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backs the opaque token mode. Each token is 32 random bytes whose SHA-256 keys a row
+ * holding the claims the JWT would have carried, so the rest of the application keeps
+ * reading them from a {@link Jwt}. Resolved tokens stay in a size-bounded cache until
+ * they expire, so a token is read from the database about once per instance. Unknown
+ * tokens are cached as absent for {@code office.token.absent-ttl}, so replaying one does
+ * not reach the database on every request.
+ */
+@Service
+public class AccessTokenStore {
+    private static final int TOKEN_BYTES = 32;
+    private static final int PURGE_INTERVAL = 1024;
+    private static final TypeReference<Map<String, Object>> CLAIMS = new TypeReference<>() {};
+
+    private final AccessTokenRepository accessTokenRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration absentTtl;
+    private final Cache<String, Optional<Jwt>> cache;
+    private final Converter<Map<String, Object>, Map<String, Object>> claimsConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong issued = new AtomicLong();
+
+    @Autowired
+    public AccessTokenStore(AccessTokenRepository accessTokenRepository, ObjectMapper objectMapper,
+                            MeterRegistry registry, @Value("${office.token.cache-size}") long cacheSize,
+                            @Value("${office.token.absent-ttl}") Duration absentTtl) {
+        this(accessTokenRepository, objectMapper, registry, cacheSize, absentTtl, Clock.systemUTC());
+    }
+    AccessTokenStore(AccessTokenRepository accessTokenRepository, ObjectMapper objectMapper,
+                     MeterRegistry registry, long cacheSize, Duration absentTtl, Clock clock) {
+        this.accessTokenRepository = accessTokenRepository;
+        this.objectMapper = objectMapper;
+        this.absentTtl = absentTtl;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new ExpiresAt())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, "access_tokens");
+    }
+
+    public Jwt issue(JwtClaimsSet claimsSet) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claimsSet.getClaims().forEach((name, value) -> claims.put(name, normalize(value)));
+        Instant expiresAt = claimsSet.getExpiresAt();
+        if(expiresAt == null)
+            throw new IllegalArgumentException("Opaque tokens require an expiration");
+
+        String key = hash(token);
+        accessTokenRepository.save(new AccessToken(key, this.write(claims), expiresAt));
+        if(issued.incrementAndGet() % PURGE_INTERVAL == 0)
+            accessTokenRepository.deleteExpired(clock.instant());
+
+        Jwt jwt = this.toJwt(token, claims);
+        cache.put(key, Optional.of(jwt));
+        return jwt;
+    }
+    public Optional<Jwt> find(String token) {
+        String key = hash(token);
+        Optional<Jwt> jwt = cache.get(key, ignored -> accessTokenRepository.findById(key)
+                .map(value -> this.toJwt(token, this.read(value.getClaims()))));
+        return jwt.filter(value -> value.getExpiresAt() != null && value.getExpiresAt().isAfter(clock.instant()));
+    }
+
+    private Jwt toJwt(String token, Map<String, Object> claims) {
+        return Jwt.withTokenValue(token)
+                .header("typ", "opaque")
+                .claims(values -> values.putAll(claimsConverter.convert(claims)))
+                .build();
+    }
+    private String write(Map<String, Object> claims) {
+        try {
+            return objectMapper.writeValueAsString(claims);
+        } catch(JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+    private Map<String, Object> read(String claims) {
+        try {
+            return objectMapper.readValue(claims, CLAIMS);
+        } catch(JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // Keeps claims in the shapes a decoded JWT would hold, e.g. instants as epoch seconds
+    private static Object normalize(Object value) {
+        if(value instanceof Instant instant) return instant.getEpochSecond();
+        if(value instanceof Enum<?> constant) return constant.name();
+        if(value instanceof Collection<?> collection) {
+            List<Object> values = new ArrayList<>(collection.size());
+            for(Object element : collection)
+                values.add(normalize(element));
+            return values;
+        }
+        return value;
+    }
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch(NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private class ExpiresAt implements Expiry<String, Optional<Jwt>> {
+        @Override
+        public long expireAfterCreate(String key, Optional<Jwt> jwt, long currentTime) {
+            if(jwt.isEmpty())
+                return absentTtl.toNanos();
+            Instant expiresAt = jwt.get().getExpiresAt();
+            if(expiresAt == null)
+                return 0L;
+            return Math.max(0L, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+        @Override
+        public long expireAfterUpdate(String key, Optional<Jwt> jwt, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, jwt, currentTime);
+        }
+        @Override
+        public long expireAfterRead(String key, Optional<Jwt> jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,27 +1,27 @@
 package com.office.api.service;
 
+import com.office.api.exception.NullCompanyException;
 import com.office.api.model.Address;
-import com.office.api.model.Company;
 import com.office.api.model.dto.address.AddressDTO;
 import com.office.api.model.dto.address.UpdateAddressDTO;
 import com.office.api.repository.AddressRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
 
 @Service
 public class AddressService {
     private final AddressRepository addressRepository;
-    private final CompanyService companyService;
 
-    public AddressService(AddressRepository addressRepository, CompanyService companyService) {
+    public AddressService(AddressRepository addressRepository) {
         this.addressRepository = addressRepository;
-        this.companyService = companyService;
     }
 
+    @Transactional
     public void updateAddress(UpdateAddressDTO data, JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
-
-        Address address = company.getAddress();
+        Address address = this.getAddress(token.getName());
         address.setZipCode(data.zipCode());
         address.setNumber(data.number());
         address.setStreet(data.street());
@@ -31,10 +31,13 @@ public class AddressService {
 
         addressRepository.save(address);
     }
+    @Transactional(readOnly = true)
     public AddressDTO getAddress(JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
+        return AddressDTO.toDTO(this.getAddress(token.getName()));
+    }
 
-        Address address = company.getAddress();
-        return AddressDTO.toDTO(address);
+    private Address getAddress(String companyId) {
+        return addressRepository.findByCompanyId(UUID.fromString(companyId))
+                .orElseThrow(NullCompanyException::new);
     }
 }
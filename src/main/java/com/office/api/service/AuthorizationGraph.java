@@ -0,0 +1,342 @@
+package com.office.api.service;
+
+import com.office.api.repository.CommentRepository;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.TaskRepository;
+import com.office.api.repository.TeamRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Answers "does this row belong to that tenant" without loading either side. Companies,
+ * employees and projects get dense {@code int} ids, and every project, team, task and
+ * comment points at the dense id of its owner, teams at the one of their project too,
+ * so a check is two primitive lookups.
+ * <p>
+ * The ownership of a row never changes once it is created, so an entry is only written
+ * when the row is saved and dropped when it is deleted. Unknown ids are read through
+ * from the database, which also covers rows written by other instances.
+ * <p>
+ * Each map holds at most {@code office.authorization.max-entries} entries. A full map is
+ * cleared, together with the maps pointing at its dense ids, and refills through reads.
+ * Dense ids of removed employees and projects are handed out again.
+ */
+@Service
+public class AuthorizationGraph {
+    private static final int MISSING = -1;
+
+    private final TaskRepository taskRepository;
+    private final TeamRepository teamRepository;
+    private final CommentRepository commentRepository;
+    private final ProjectRepository projectRepository;
+
+    private final StampedLock lock = new StampedLock();
+    private final UuidIntMap companies = new UuidIntMap();
+    private final UuidIntMap employees = new UuidIntMap();
+    private final LongIntMap projectIds = new LongIntMap();
+    private final LongIntMap projects = new LongIntMap();
+    private final LongIntMap teams = new LongIntMap();
+    private final LongIntMap teamProjects = new LongIntMap();
+    private final LongIntMap tasks = new LongIntMap();
+    private final LongIntMap comments = new LongIntMap();
+    private final DenseIds companyIds = new DenseIds();
+    private final DenseIds employeeIds = new DenseIds();
+    private final DenseIds projectIndexes = new DenseIds();
+    private final int maxEntries;
+
+    public AuthorizationGraph(TaskRepository taskRepository, TeamRepository teamRepository, CommentRepository commentRepository, ProjectRepository projectRepository,
+                              @Value("${office.authorization.max-entries}") int maxEntries) {
+        this.taskRepository = taskRepository;
+        this.teamRepository = teamRepository;
+        this.commentRepository = commentRepository;
+        this.projectRepository = projectRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isProjectOfCompany(Long projectId, UUID companyId) {
+        if(projectId == null || companyId == null) return false;
+
+        int owner, company;
+        long stamp = lock.readLock();
+        try {
+            owner = projects.get(projectId);
+            company = companies.get(companyId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if(owner != MISSING) return owner == company;
+
+        Optional<UUID> loaded = projectRepository.findCompanyIdById(projectId);
+        loaded.ifPresent(value -> this.addProject(projectId, value));
+        return loaded.map(companyId::equals).orElse(false);
+    }
+    public boolean isTeamOfCompany(Long teamId, UUID companyId) {
+        if(teamId == null || companyId == null) return false;
+
+        int owner, company;
+        long stamp = lock.readLock();
+        try {
+            owner = teams.get(teamId);
+            company = companies.get(companyId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if(owner != MISSING) return owner == company;
+
+        Optional<UUID> loaded = teamRepository.findCompanyIdById(teamId);
+        loaded.ifPresent(value -> this.addTeam(teamId, value));
+        return loaded.map(companyId::equals).orElse(false);
+    }
+    public boolean isTeamOfProject(Long teamId, Long projectId) {
+        if(teamId == null || projectId == null) return false;
+
+        int owner, project;
+        long stamp = lock.readLock();
+        try {
+            owner = teamProjects.get(teamId);
+            project = projectIds.get(projectId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if(owner != MISSING) return owner == project;
+
+        Optional<Long> loaded = teamRepository.findProjectIdById(teamId);
+        loaded.ifPresent(value -> this.addTeamProject(teamId, value));
+        return loaded.map(projectId::equals).orElse(false);
+    }
+    public boolean isTaskOfProject(Long taskId, Long projectId) {
+        if(taskId == null || projectId == null) return false;
+
+        int owner, project;
+        long stamp = lock.readLock();
+        try {
+            owner = tasks.get(taskId);
+            project = projectIds.get(projectId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if(owner != MISSING) return owner == project;
+
+        Optional<Long> loaded = taskRepository.findProjectIdById(taskId);
+        loaded.ifPresent(value -> this.addTask(taskId, value));
+        return loaded.map(projectId::equals).orElse(false);
+    }
+    public boolean isCommentOfEmployee(Long commentId, UUID employeeId) {
+        if(commentId == null || employeeId == null) return false;
+
+        int owner, employee;
+        long stamp = lock.readLock();
+        try {
+            owner = comments.get(commentId);
+            employee = employees.get(employeeId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if(owner != MISSING) return owner == employee;
+
+        Optional<UUID> loaded = commentRepository.findOwnerIdById(commentId);
+        loaded.ifPresent(value -> this.addComment(commentId, value));
+        return loaded.map(employeeId::equals).orElse(false);
+    }
+
+    public void addProject(Long projectId, UUID companyId) {
+        long stamp = lock.writeLock();
+        try {
+            int owner = this.companyIndex(companyId);
+            if(projects.size() >= maxEntries) projects.clear();
+            projects.put(projectId, owner);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void addTeam(Long teamId, UUID companyId) {
+        long stamp = lock.writeLock();
+        try {
+            int owner = this.companyIndex(companyId);
+            if(teams.size() >= maxEntries) teams.clear();
+            teams.put(teamId, owner);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void addTeam(Long teamId, UUID companyId, Long projectId) {
+        this.addTeam(teamId, companyId);
+        this.addTeamProject(teamId, projectId);
+    }
+    private void addTeamProject(Long teamId, Long projectId) {
+        long stamp = lock.writeLock();
+        try {
+            int owner = this.projectIndex(projectId);
+            if(teamProjects.size() >= maxEntries) teamProjects.clear();
+            teamProjects.put(teamId, owner);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void addTask(Long taskId, Long projectId) {
+        long stamp = lock.writeLock();
+        try {
+            int owner = this.projectIndex(projectId);
+            if(tasks.size() >= maxEntries) tasks.clear();
+            tasks.put(taskId, owner);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void addComment(Long commentId, UUID employeeId) {
+        long stamp = lock.writeLock();
+        try {
+            int owner = this.employeeIndex(employeeId);
+            if(comments.size() >= maxEntries) comments.clear();
+            comments.put(commentId, owner);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Deleting a row cascades to its children in the database, so the child maps
+    // are dropped whole and read through again on the next check.
+    public void removeProject(Long projectId) {
+        long stamp = lock.writeLock();
+        try {
+            projects.remove(projectId);
+            int index = projectIds.get(projectId);
+            if(index != MISSING) {
+                projectIds.remove(projectId);
+                projectIndexes.release(index);
+            }
+            teams.clear();
+            teamProjects.clear();
+            tasks.clear();
+            comments.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void removeTeam(Long teamId) {
+        long stamp = lock.writeLock();
+        try {
+            teams.remove(teamId);
+            teamProjects.remove(teamId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void removeTask(Long taskId) {
+        long stamp = lock.writeLock();
+        try {
+            tasks.remove(taskId);
+            comments.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void removeComment(Long commentId) {
+        long stamp = lock.writeLock();
+        try {
+            comments.remove(commentId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void removeEmployee(UUID employeeId) {
+        long stamp = lock.writeLock();
+        try {
+            int index = employees.get(employeeId);
+            if(index != MISSING) {
+                employees.remove(employeeId);
+                employeeIds.release(index);
+            }
+            comments.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            companies.clear();
+            employees.clear();
+            projectIds.clear();
+            projects.clear();
+            teams.clear();
+            teamProjects.clear();
+            tasks.clear();
+            comments.clear();
+            companyIds.clear();
+            employeeIds.clear();
+            projectIndexes.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // A full dense id map takes the maps holding its ids down with it, since a
+    // reissued id must not match an entry written for the previous holder
+    private int companyIndex(UUID companyId) {
+        int index = companies.get(companyId);
+        if(index == MISSING) {
+            if(companies.size() >= maxEntries) {
+                companies.clear();
+                companyIds.clear();
+                projects.clear();
+                teams.clear();
+            }
+            index = companyIds.take();
+            companies.put(companyId, index);
+        }
+        return index;
+    }
+    private int projectIndex(Long projectId) {
+        int index = projectIds.get(projectId);
+        if(index == MISSING) {
+            if(projectIds.size() >= maxEntries) {
+                projectIds.clear();
+                projectIndexes.clear();
+                teamProjects.clear();
+                tasks.clear();
+            }
+            index = projectIndexes.take();
+            projectIds.put(projectId, index);
+        }
+        return index;
+    }
+    private int employeeIndex(UUID employeeId) {
+        int index = employees.get(employeeId);
+        if(index == MISSING) {
+            if(employees.size() >= maxEntries) {
+                employees.clear();
+                employeeIds.clear();
+                comments.clear();
+            }
+            index = employeeIds.take();
+            employees.put(employeeId, index);
+        }
+        return index;
+    }
+
+    // Hands out dense ids, released ones first
+    private static final class DenseIds {
+        private int next;
+        private int[] free = new int[16];
+        private int freeCount;
+
+        int take() {
+            return freeCount > 0 ? free[--freeCount] : next++;
+        }
+        void release(int id) {
+            if(freeCount == free.length)
+                free = Arrays.copyOf(free, free.length << 1);
+            free[freeCount++] = id;
+        }
+        void clear() {
+            next = 0;
+            freeCount = 0;
+        }
+    }
+}
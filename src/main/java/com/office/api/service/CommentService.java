@@ -8,69 +8,92 @@ import com.office.api.model.Task;
 import com.office.api.model.dto.comment.CommentDTO;
 import com.office.api.model.dto.comment.NewCommentDTO;
 import com.office.api.model.dto.comment.UpdateCommentDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.repository.CommentRepository;
+import com.office.api.repository.EmployeeRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TaskRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class CommentService {
+    private final TokenService tokenService;
     private final TaskRepository taskRepository;
-    private final EmployeeService employeeService;
     private final CommentRepository commentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AuthorizationGraph authorizationGraph;
+    private final PageCursors pageCursors;
+    private final ProjectSummaryRepository projectSummaryRepository;
 
-    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, EmployeeService employeeService) {
+    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, EmployeeRepository employeeRepository, TokenService tokenService, AuthorizationGraph authorizationGraph, PageCursors pageCursors, ProjectSummaryRepository projectSummaryRepository) {
+        this.tokenService = tokenService;
         this.taskRepository = taskRepository;
-        this.employeeService = employeeService;
         this.commentRepository = commentRepository;
+        this.employeeRepository = employeeRepository;
+        this.authorizationGraph = authorizationGraph;
+        this.pageCursors = pageCursors;
+        this.projectSummaryRepository = projectSummaryRepository;
     }
 
+    @Transactional
     public void newComment(Long id, NewCommentDTO data, JwtAuthenticationToken token) {
-        Employee employee = employeeService.getEmployee(token.getName());
-        Task task = taskRepository.findById(id).orElseThrow(NullTaskException::new);
-
-        if(!task.getProject().equals(employee.getTeam().getProject()))
+        Long projectId = tokenService.projectId(token);
+        if(!authorizationGraph.isTaskOfProject(id, projectId))
             throw new NullTaskException();
 
-        commentRepository.save(new Comment(data.content(), employee, task));
+        UUID employeeId = tokenService.subject(token);
+        Task task = taskRepository.getReferenceById(id);
+        Employee employee = employeeRepository.getReferenceById(employeeId);
+
+        Comment comment = new Comment(data.content(), employee, task);
+        commentRepository.save(comment);
+        projectSummaryRepository.incrementComments(projectId);
+        authorizationGraph.addComment(comment.getId(), employeeId);
     }
+    @Transactional
     public void updateComment(Long id, UpdateCommentDTO data, JwtAuthenticationToken token) {
-        Employee employee = employeeService.getEmployee(token.getName());
-        Comment comment = commentRepository.findById(id).orElseThrow(NullCommentException::new);
-
-        if(!employee.getComments().contains(comment))
-            throw new NullCommentException();
+        Comment comment = commentRepository.findByIdAndOwnerId(id, tokenService.subject(token))
+                .orElseThrow(NullCommentException::new);
 
         comment.setContent(data.content());
 
         commentRepository.save(comment);
     }
+    @Transactional
     public void deleteComment(Long id, JwtAuthenticationToken token) {
-        Employee employee = employeeService.getEmployee(token.getName());
-        Comment comment = commentRepository.findById(id).orElseThrow(NullCommentException::new);
-
-        if(!employee.getComments().contains(comment))
+        UUID ownerId = tokenService.subject(token);
+        Long projectId = commentRepository.findProjectIdByIdAndOwnerId(id, ownerId)
+                .orElseThrow(NullCommentException::new);
+        if(commentRepository.deleteByIdAndOwnerId(id, ownerId) == 0)
             throw new NullCommentException();
-
-        commentRepository.delete(comment);
+        projectSummaryRepository.decrementComments(projectId);
+        authorizationGraph.removeComment(id);
     }
-    public List<CommentDTO> getAllComments(Long id, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
-        Task task = taskRepository.findById(id).orElseThrow(NullTaskException::new);
-
-        if(!manager.getProject().getTasks().contains(task))
+    @Transactional(readOnly = true)
+    public PageDTO<CommentDTO> getAllComments(Long id, PageRequestDTO page, JwtAuthenticationToken token) {
+        if(!authorizationGraph.isTaskOfProject(id, tokenService.projectId(token)))
             throw new NullTaskException();
 
-        Set<Comment> comments = task.getComments();
-        return CommentDTO.toDTOList(comments);
+        PageCursors.TimeKey before = pageCursors.beforeTime(page);
+        List<CommentDTO> comments = commentRepository.findAllDTOByTaskId(
+                id, before.time(), before.id(), pageCursors.pageable(page));
+        return pageCursors.page(comments, page, CommentService::key);
+    }
+    @Transactional(readOnly = true)
+    public PageDTO<CommentDTO> getComments(PageRequestDTO page, JwtAuthenticationToken token) {
+        PageCursors.TimeKey before = pageCursors.beforeTime(page);
+        List<CommentDTO> comments = commentRepository.findAllDTOByOwnerId(
+                tokenService.subject(token), before.time(), before.id(), pageCursors.pageable(page));
+        return pageCursors.page(comments, page, CommentService::key);
     }
-    public List<CommentDTO> getComments(JwtAuthenticationToken token) {
-        Employee employee = employeeService.getEmployee(token.getName());
 
-        Set<Comment> comments = employee.getComments();
-        return CommentDTO.toDTOList(comments);
+    private static PageCursors.TimeKey key(CommentDTO comment) {
+        return new PageCursors.TimeKey(comment.postedAt(), comment.id());
     }
 }
@@ -5,84 +5,117 @@ import com.office.api.exception.NullCompanyException;
 import com.office.api.exception.UsedDataException;
 import com.office.api.model.Address;
 import com.office.api.model.Company;
+import com.office.api.model.enums.Realm;
 import com.office.api.model.dto.company.*;
+import com.office.api.repository.AddressRepository;
 import com.office.api.repository.CompanyRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class CompanyService {
-    private final JwtEncoder jwtEncoder;
-    private final PasswordEncoder encoder;
+    private final TokenService tokenService;
+    private final HashingService encoder;
+    private final MembershipService membershipService;
+    private final AuthorizationGraph authorizationGraph;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
     private final CompanyRepository companyRepository;
+    private final AddressRepository addressRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
 
-    public CompanyService(JwtEncoder jwtEncoder, PasswordEncoder encoder, CompanyRepository companyRepository) {
+    public CompanyService(TokenService tokenService, HashingService encoder, MembershipService membershipService, AuthorizationGraph authorizationGraph, LoginThrottle loginThrottle, RefreshTokenService refreshTokenService, CompanyRepository companyRepository, AddressRepository addressRepository, EmployeeDirectory employeeDirectory, PlatformTransactionManager transactionManager) {
         this.encoder = encoder;
-        this.jwtEncoder = jwtEncoder;
+        this.tokenService = tokenService;
+        this.membershipService = membershipService;
+        this.authorizationGraph = authorizationGraph;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokenService = refreshTokenService;
         this.companyRepository = companyRepository;
+        this.addressRepository = addressRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public LoginResponseDTO login(LoginRequestDTO data) {
+    public LoginResponseDTO login(LoginRequestDTO data, String address) {
+        loginThrottle.acquire("company", data.name(), address);
+
         Company company = companyRepository.findByName(data.name())
                 .orElseThrow(() -> new LoginFailedException("Company not found"));
         if(!encoder.matches(data.password(), company.getPassword()))
             throw new LoginFailedException("Password does not match");
 
-        var expiresIn = 86400L;
-        var now = Instant.now();
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("office.api")
-                .subject(company.getId().toString())
-                .expiresAt(now.plusSeconds(expiresIn))
-                .claim("scope", company.getRole())
-                .issuedAt(now)
-                .build();
+        RefreshTokenService.Grant grant = refreshTokenService.create(company.getId(), Realm.COMPANY);
+        Jwt accessToken = tokenService.issue(company, grant.session());
+        return new LoginResponseDTO(accessToken.getTokenValue(), grant.refreshToken(), tokenService.expiresIn());
+    }
+    public LoginResponseDTO refresh(RefreshRequestDTO data) {
+        RefreshTokenService.Grant grant = refreshTokenService.rotate(data.refresh_token(), Realm.COMPANY);
+        Company company = companyRepository.findById(grant.subject())
+                .orElseThrow(() -> new LoginFailedException("Company not found"));
 
-        Jwt accessToken = jwtEncoder.encode(JwtEncoderParameters.from(claims));
-        return new LoginResponseDTO(accessToken.getTokenValue(), expiresIn);
+        Jwt accessToken = tokenService.issue(company, grant.session());
+        return new LoginResponseDTO(accessToken.getTokenValue(), grant.refreshToken(), tokenService.expiresIn());
     }
+    // Hashed before the transaction opens, so no connection is held while it waits on the hashing pool
     public void newCompany(NewCompanyDTO data) {
-        if(companyRepository.existsByNameOrCnpj(data.name(), data.cnpj()))
-            throw new UsedDataException();
+        String password = encoder.encode(data.password());
+        transactionTemplate.executeWithoutResult(status -> {
+            if(companyRepository.existsByNameOrCnpj(data.name(), data.cnpj()))
+                throw new UsedDataException();
 
-        Company company = new Company(
-                data.name(),
-                data.cnpj(),
-                encoder.encode(data.password()));
-        company.setAddress(new Address(data.address(), company));
-        companyRepository.save(company);
+            Company company = new Company(
+                    data.name(),
+                    data.cnpj(),
+                    password);
+            companyRepository.save(company);
+            addressRepository.save(new Address(data.address(), company));
+        });
     }
     public void updateCompany(UpdateCompanyDTO data, JwtAuthenticationToken token) {
-        Company company = this.getCompany(token.getName());
-        Set<Company> usedData = companyRepository.findAllByNameOrCnpj(data.name(), data.cnpj());
-        if(usedData.stream().anyMatch(companyValue -> !companyValue.getId().equals(company.getId())))
-            throw new UsedDataException();
+        String password = encoder.encode(data.password());
+        transactionTemplate.executeWithoutResult(status -> {
+            Company company = this.getCompany(token.getName());
+            Set<Company> usedData = companyRepository.findAllByNameOrCnpj(data.name(), data.cnpj());
+            if(usedData.stream().anyMatch(companyValue -> !companyValue.getId().equals(company.getId())))
+                throw new UsedDataException();
 
-        company.setName(data.name());
-        company.setCnpj(data.cnpj());
-        company.setPassword(encoder.encode(data.password()));
+            company.setName(data.name());
+            company.setCnpj(data.cnpj());
+            company.setPassword(password);
 
-        companyRepository.save(company);
+            companyRepository.save(company);
+        });
     }
+    @Transactional
     public void removeCompany(JwtAuthenticationToken token) {
         Company company = this.getCompany(token.getName());
         companyRepository.delete(company);
+        refreshTokenService.revokeSubject(company.getId());
+        membershipService.evictAll();
+        authorizationGraph.clear();
+        employeeDirectory.evict(company.getId());
     }
+    @Transactional(readOnly = true)
     public CompanyDTO getCompany(JwtAuthenticationToken token) {
-        return CompanyDTO.toDTO(this.getCompany(token.getName()));
+        Company company = this.getCompany(token.getName());
+        Address address = addressRepository.findByCompanyId(company.getId())
+                .orElseThrow(NullCompanyException::new);
+        return CompanyDTO.toDTO(company, address);
     }
     public Company getCompany(String companyId) {
         return companyRepository.findById(UUID.fromString(companyId))
                 .orElseThrow(NullCompanyException::new);
     }
+    public Company getReference(UUID companyId) {
+        return companyRepository.getReferenceById(companyId);
+    }
 }
@@ -0,0 +1,271 @@
+package com.office.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.office.api.exception.InvalidPageException;
+import com.office.api.exception.InvalidSearchException;
+import com.office.api.model.dto.employee.EmployeeMatchDTO;
+import com.office.api.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Completes usernames and names of a company's employees from a prefix. Each company gets
+ * an immutable index, loaded with one query on first use, holding every username and
+ * every word-started suffix of every name in one sorted array, so a lookup is a binary
+ * search followed by a scan of the matching keys. Keys are lower cased with accents
+ * stripped, and the prefix is folded the same way.
+ * <p>
+ * Employee writes are collected per transaction and merged into a new index once it
+ * commits: the changed entries and their keys are dropped, and the keys of the new ones
+ * are sorted on their own and merged in, so a commit of k writes costs O(n + k log k)
+ * instead of a full re-sort. Writes made by other instances, or committed while an index
+ * was loading, show up when the index expires after {@code office.directory.time-to-live}.
+ */
+@Service
+public class EmployeeDirectory {
+    private static final int MAX_PREFIX_LENGTH = 200;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final EmployeeRepository employeeRepository;
+    private final int defaultResults;
+    private final int maxResults;
+    private final Cache<UUID, Index> indexes;
+
+    public EmployeeDirectory(EmployeeRepository employeeRepository,
+                             @Value("${office.directory.default-results}") int defaultResults,
+                             @Value("${office.directory.max-results}") int maxResults,
+                             @Value("${office.directory.companies}") int companies,
+                             @Value("${office.directory.time-to-live}") Duration timeToLive) {
+        this.employeeRepository = employeeRepository;
+        this.defaultResults = defaultResults;
+        this.maxResults = maxResults;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(companies)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    public List<EmployeeMatchDTO> complete(UUID companyId, String prefix, Integer limit) {
+        if(prefix == null || prefix.isBlank() || prefix.length() > MAX_PREFIX_LENGTH)
+            throw new InvalidSearchException();
+        if(limit != null && limit < 1)
+            throw new InvalidPageException();
+
+        return indexes.get(companyId, id -> Index.of(employeeRepository.findAllMatchDTOByCompanyId(id)))
+                .complete(fold(prefix), limit == null ? defaultResults : Math.min(limit, maxResults));
+    }
+
+    public void add(UUID companyId, String username, String name) {
+        this.write(companyId, username, new EmployeeMatchDTO(username, name));
+    }
+    public void update(UUID companyId, String previousUsername, String username, String name) {
+        this.write(companyId, previousUsername, new EmployeeMatchDTO(username, name));
+    }
+    public void remove(UUID companyId, String username) {
+        this.write(companyId, username, null);
+    }
+    // Bulk writes drop the index instead, it loads again on the next lookup
+    public void evict(UUID companyId) {
+        Writes writes = this.writes();
+        if(writes == null) indexes.invalidate(companyId);
+        else writes.evicted.add(companyId);
+    }
+
+    private void write(UUID companyId, String username, EmployeeMatchDTO entry) {
+        Writes writes = this.writes();
+        if(writes == null)
+            indexes.asMap().computeIfPresent(companyId, (id, index) -> index.apply(change(new HashMap<>(), username, entry)));
+        else
+            change(writes.changes.computeIfAbsent(companyId, id -> new LinkedHashMap<>()), username, entry);
+    }
+    // Drops the username and puts the entry, so the map keeps the last write of each username
+    private static Map<String, EmployeeMatchDTO> change(Map<String, EmployeeMatchDTO> changes, String username, EmployeeMatchDTO entry) {
+        changes.put(username, null);
+        if(entry != null) changes.put(entry.username(), entry);
+        return changes;
+    }
+    // The writes of the current transaction, bound on its first write, or null outside of one
+    private Writes writes() {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        Writes writes = (Writes) TransactionSynchronizationManager.getResource(this);
+        if(writes == null) {
+            writes = new Writes();
+            TransactionSynchronizationManager.bindResource(this, writes);
+            TransactionSynchronizationManager.registerSynchronization(writes);
+        }
+        return writes;
+    }
+
+    // Maps each username written to its final entry, null when it is gone
+    private final class Writes implements TransactionSynchronization {
+        private final Map<UUID, Map<String, EmployeeMatchDTO>> changes = new LinkedHashMap<>();
+        private final Set<UUID> evicted = new HashSet<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EmployeeDirectory.this);
+        }
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EmployeeDirectory.this, this);
+        }
+        @Override
+        public void afterCommit() {
+            changes.forEach((companyId, change) -> {
+                if(!evicted.contains(companyId))
+                    indexes.asMap().computeIfPresent(companyId, (id, index) -> index.apply(change));
+            });
+            indexes.invalidateAll(evicted);
+        }
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeDirectory.this);
+        }
+    }
+
+    static String fold(String value) {
+        return MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT).strip();
+    }
+
+    // Entries are sorted by username, keys point at the entry they were taken from
+    private static final class Index {
+        private static final Comparator<EmployeeMatchDTO> BY_USERNAME = Comparator.comparing(EmployeeMatchDTO::username);
+
+        private final EmployeeMatchDTO[] entries;
+        private final String[] keys;
+        private final int[] owners;
+
+        private Index(EmployeeMatchDTO[] entries, String[] keys, int[] owners) {
+            this.entries = entries;
+            this.keys = keys;
+            this.owners = owners;
+        }
+
+        static Index of(List<EmployeeMatchDTO> employees) {
+            EmployeeMatchDTO[] entries = employees.toArray(EmployeeMatchDTO[]::new);
+            Arrays.sort(entries, BY_USERNAME);
+
+            List<String> keys = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for(int i = 0; i < entries.length; i++)
+                keysOf(entries[i], i, keys, owners);
+            return sorted(entries, keys, owners);
+        }
+
+        // Drops the entries of the changed usernames and merges in the new ones
+        Index apply(Map<String, EmployeeMatchDTO> changes) {
+            EmployeeMatchDTO[] added = changes.values().stream()
+                    .filter(Objects::nonNull)
+                    .sorted(BY_USERNAME)
+                    .toArray(EmployeeMatchDTO[]::new);
+
+            List<EmployeeMatchDTO> merged = new ArrayList<>(entries.length + added.length);
+            List<String> addedKeys = new ArrayList<>();
+            List<Integer> addedOwners = new ArrayList<>();
+            int[] moved = new int[entries.length];
+            int next = 0;
+            for(int i = 0; i < entries.length; i++) {
+                if(changes.containsKey(entries[i].username())) {
+                    moved[i] = -1;
+                    continue;
+                }
+                for(; next < added.length && BY_USERNAME.compare(added[next], entries[i]) < 0; next++) {
+                    keysOf(added[next], merged.size(), addedKeys, addedOwners);
+                    merged.add(added[next]);
+                }
+                moved[i] = merged.size();
+                merged.add(entries[i]);
+            }
+            for(; next < added.length; next++) {
+                keysOf(added[next], merged.size(), addedKeys, addedOwners);
+                merged.add(added[next]);
+            }
+
+            Index fresh = sorted(new EmployeeMatchDTO[0], addedKeys, addedOwners);
+            String[] mergedKeys = new String[keys.length + fresh.keys.length];
+            int[] mergedOwners = new int[mergedKeys.length];
+            int size = 0, kept = 0, put = 0;
+            while(kept < keys.length || put < fresh.keys.length) {
+                if(kept < keys.length && moved[owners[kept]] < 0) {
+                    kept++;
+                } else if(put == fresh.keys.length || kept < keys.length && keys[kept].compareTo(fresh.keys[put]) <= 0) {
+                    mergedKeys[size] = keys[kept];
+                    mergedOwners[size++] = moved[owners[kept++]];
+                } else {
+                    mergedKeys[size] = fresh.keys[put];
+                    mergedOwners[size++] = fresh.owners[put++];
+                }
+            }
+            return new Index(merged.toArray(EmployeeMatchDTO[]::new),
+                    Arrays.copyOf(mergedKeys, size), Arrays.copyOf(mergedOwners, size));
+        }
+
+        // The username and every word-started suffix of the name
+        private static void keysOf(EmployeeMatchDTO entry, int owner, List<String> keys, List<Integer> owners) {
+            keys.add(fold(entry.username()));
+            owners.add(owner);
+            String name = entry.name() == null ? "" : fold(entry.name());
+            if(name.isEmpty()) return;
+            String[] words = SPACES.split(name);
+            for(int word = 0; word < words.length; word++) {
+                keys.add(String.join(" ", Arrays.copyOfRange(words, word, words.length)));
+                owners.add(owner);
+            }
+        }
+        private static Index sorted(EmployeeMatchDTO[] entries, List<String> keys, List<Integer> owners) {
+            Integer[] order = new Integer[keys.size()];
+            for(int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            String[] sortedKeys = new String[order.length];
+            int[] sortedOwners = new int[order.length];
+            for(int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedOwners[i] = owners.get(order[i]);
+            }
+            return new Index(entries, sortedKeys, sortedOwners);
+        }
+
+        // Matches come in key order, an employee matched by several keys is listed once
+        List<EmployeeMatchDTO> complete(String prefix, int limit) {
+            List<EmployeeMatchDTO> matches = new ArrayList<>(Math.min(limit, entries.length));
+            BitSet listed = new BitSet(entries.length);
+            for(int i = this.lowerBound(prefix); i < keys.length && matches.size() < limit && keys[i].startsWith(prefix); i++) {
+                if(listed.get(owners[i])) continue;
+                listed.set(owners[i]);
+                matches.add(entries[owners[i]]);
+            }
+            return matches;
+        }
+        private int lowerBound(String prefix) {
+            int low = 0, high = keys.length;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(keys[middle].compareTo(prefix) < 0) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+    }
+}
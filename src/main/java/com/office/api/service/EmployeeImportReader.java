@@ -0,0 +1,125 @@
+package com.office.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.office.api.exception.InvalidEmployeeException;
+import com.office.api.model.dto.employee.NewEmployeeDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reads an import body one line at a time, so the file is never held in memory. CSV
+ * bodies start with a header naming the columns in any order and keep each record on
+ * one line, NDJSON bodies carry one employee object per line. A line that does not
+ * parse becomes a row holding the error instead of the data, blank lines are skipped.
+ */
+final class EmployeeImportReader implements Iterator<EmployeeImportReader.Row> {
+    private static final List<String> COLUMNS = List.of("name", "username", "cpf", "email", "password");
+
+    private final BufferedReader reader;
+    private Function<String, NewEmployeeDTO> parser;
+    private long lineNumber;
+    private String line;
+
+    private EmployeeImportReader(InputStream body) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    static EmployeeImportReader csv(InputStream body) {
+        EmployeeImportReader reader = new EmployeeImportReader(body);
+        if(!reader.hasNext())
+            throw new InvalidEmployeeException("Missing CSV header");
+
+        List<String> header;
+        try {
+            header = split(reader.line.replace("\uFEFF", "").strip());
+        } catch(IllegalArgumentException exception) {
+            throw new InvalidEmployeeException("Malformed CSV header");
+        }
+        int[] indexes = COLUMNS.stream().mapToInt(header::indexOf).toArray();
+        if(Arrays.stream(indexes).anyMatch(index -> index < 0))
+            throw new InvalidEmployeeException("CSV header must name " + String.join(", ", COLUMNS));
+
+        reader.line = null;
+        reader.parser = line -> {
+            List<String> fields = split(line);
+            if(fields.size() != header.size())
+                throw new IllegalArgumentException("Expected " + header.size() + " fields");
+            return new NewEmployeeDTO(
+                    fields.get(indexes[0]),
+                    fields.get(indexes[1]),
+                    fields.get(indexes[2]),
+                    fields.get(indexes[3]),
+                    fields.get(indexes[4]));
+        };
+        return reader;
+    }
+    static EmployeeImportReader ndjson(InputStream body, ObjectMapper objectMapper) {
+        EmployeeImportReader reader = new EmployeeImportReader(body);
+        reader.parser = line -> {
+            try {
+                NewEmployeeDTO data = objectMapper.readValue(line, NewEmployeeDTO.class);
+                if(data == null) throw new IllegalArgumentException("Expected an object");
+                return data;
+            } catch(JsonProcessingException exception) {
+                throw new IllegalArgumentException("Malformed JSON");
+            }
+        };
+        return reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while(line == null) {
+                String read = reader.readLine();
+                if(read == null) return false;
+                lineNumber++;
+                if(!read.isBlank()) line = read;
+            }
+            return true;
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+    @Override
+    public Row next() {
+        if(!this.hasNext()) throw new NoSuchElementException();
+        String current = line;
+        line = null;
+        try {
+            return new Row(lineNumber, parser.apply(current), null);
+        } catch(IllegalArgumentException exception) {
+            return new Row(lineNumber, null, exception.getMessage());
+        }
+    }
+
+    // Splits one CSV record, honouring double quoted fields and "" escapes inside them
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if(c == '"') {
+                quoted = !quoted;
+            } else if(c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if(quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    record Row(long line, NewEmployeeDTO data, String error) {}
+}
@@ -0,0 +1,200 @@
+package com.office.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.office.api.exception.HashingUnavailableException;
+import com.office.api.model.Company;
+import com.office.api.model.Employee;
+import com.office.api.model.dto.employee.EmployeeImportDTO;
+import com.office.api.model.dto.employee.EmployeeImportRowDTO;
+import com.office.api.model.dto.employee.NewEmployeeDTO;
+import com.office.api.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Onboards employees from a streamed CSV or NDJSON body, {@code chunk-size} rows at a
+ * time. Each chunk is checked against the table with one IN query per unique column,
+ * hashed on the hashing pool and inserted in JDBC batches, then flushed and cleared so
+ * the persistence context never grows with the file. Rows that are invalid or already
+ * taken are reported and skipped without stopping the rest of the import.
+ * <p>
+ * The check and the insert of a chunk run in two short transactions with the hashing in
+ * between, so no connection waits on the hashing pool. A chunk the database rejects, e.g.
+ * on a username taken by a concurrent write, rolls back alone, and a chunk the busy
+ * hashing pool turns away is skipped, and either way its rows are reported as not saved. The report is streamed as NDJSON, one line per row as its chunk finishes
+ * and a last line with the totals, so it never grows with the file either.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+    private static final String CHUNK_FAILED = "Not saved, its chunk was rolled back";
+    private static final String HASHING_FAILED = "Not saved, the password hashing is busy, try again later";
+
+    private final TokenService tokenService;
+    private final HashingService encoder;
+    private final CompanyService companyService;
+    private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EmployeeImportService(TokenService tokenService, HashingService encoder, CompanyService companyService, EmployeeRepository employeeRepository, EntityManager entityManager, ObjectMapper objectMapper, Validator validator, EmployeeDirectory employeeDirectory,
+                                 PlatformTransactionManager transactionManager, @Value("${office.import.chunk-size}") int chunkSize) {
+        this.tokenService = tokenService;
+        this.encoder = encoder;
+        this.companyService = companyService;
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.employeeDirectory = employeeDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // A missing or malformed CSV header is rejected here, before the report starts
+    public StreamingResponseBody importEmployees(InputStream body, MediaType contentType, JwtAuthenticationToken token) {
+        UUID companyId = tokenService.companyId(token);
+        EmployeeImportReader reader = TEXT_CSV.isCompatibleWith(contentType)
+                ? EmployeeImportReader.csv(body)
+                : EmployeeImportReader.ndjson(body, objectMapper);
+        return output -> this.importEmployees(reader, companyId, output);
+    }
+
+    private void importEmployees(EmployeeImportReader reader, UUID companyId, OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        int created = 0, rejected = 0;
+        try {
+            List<EmployeeImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            while(reader.hasNext()) {
+                chunk.add(reader.next());
+                if(chunk.size() < chunkSize && reader.hasNext()) continue;
+
+                for(EmployeeImportRowDTO row : this.commitChunk(chunk, companyId)) {
+                    if(row.created()) created++;
+                    else rejected++;
+                    writeLine(output, writer.writeValueAsString(row));
+                }
+                output.flush();
+                chunk.clear();
+            }
+        } finally {
+            if(created > 0) employeeDirectory.evict(companyId);
+        }
+        writeLine(output, writer.writeValueAsString(new EmployeeImportDTO(created, rejected)));
+        output.flush();
+    }
+
+    private List<EmployeeImportRowDTO> commitChunk(List<EmployeeImportReader.Row> chunk, UUID companyId) {
+        String[] errors = new String[chunk.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> this.checkChunk(chunk, errors));
+            List<NewEmployeeDTO> accepted = new ArrayList<>();
+            for(int i = 0; i < chunk.size(); i++)
+                if(errors[i] == null) accepted.add(chunk.get(i).data());
+            if(!accepted.isEmpty()) {
+                // Hashed between the two transactions, so no connection is held while it waits on the pool
+                List<String> passwords = encoder.encodeAll(accepted.stream().map(NewEmployeeDTO::password).toList());
+                transactionTemplate.executeWithoutResult(status -> this.saveChunk(accepted, passwords, companyId));
+            }
+        } catch(HashingUnavailableException exception) {
+            log.warn("Import chunk of rows {} to {} not saved, the hashing pool is busy", chunk.get(0).line(),
+                    chunk.get(chunk.size() - 1).line());
+            fail(errors, HASHING_FAILED);
+        } catch(DataAccessException | PersistenceException exception) {
+            // The message may carry the conflicting values, so only its type is logged
+            log.warn("Import chunk of rows {} to {} rolled back on {}", chunk.get(0).line(),
+                    chunk.get(chunk.size() - 1).line(), exception.getClass().getSimpleName());
+            fail(errors, CHUNK_FAILED);
+        }
+
+        List<EmployeeImportRowDTO> rows = new ArrayList<>(chunk.size());
+        for(int i = 0; i < chunk.size(); i++) {
+            NewEmployeeDTO data = chunk.get(i).data();
+            rows.add(new EmployeeImportRowDTO(chunk.get(i).line(), data == null ? null : data.username(), errors[i] == null, errors[i]));
+        }
+        return rows;
+    }
+    private void checkChunk(List<EmployeeImportReader.Row> chunk, String[] errors) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> cpfs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for(int i = 0; i < chunk.size(); i++) {
+            NewEmployeeDTO data = chunk.get(i).data();
+            errors[i] = data == null ? chunk.get(i).error() : this.violations(data);
+            if(errors[i] != null) continue;
+
+            // The first row of the chunk keeps a repeated value, earlier chunks are already in the table
+            if(usernames.contains(data.username()) || cpfs.contains(data.cpf()) || emails.contains(data.email())) {
+                errors[i] = "Repeated in the import";
+                continue;
+            }
+            usernames.add(data.username());
+            cpfs.add(data.cpf());
+            emails.add(data.email());
+        }
+
+        if(!usernames.isEmpty()) {
+            Set<String> takenUsernames = employeeRepository.findUsernamesByUsernameIn(usernames);
+            Set<String> takenCpfs = employeeRepository.findCpfsByCpfIn(cpfs);
+            Set<String> takenEmails = employeeRepository.findEmailsByEmailIn(emails);
+            for(int i = 0; i < chunk.size(); i++) {
+                NewEmployeeDTO data = chunk.get(i).data();
+                if(errors[i] == null && (takenUsernames.contains(data.username())
+                        || takenCpfs.contains(data.cpf()) || takenEmails.contains(data.email())))
+                    errors[i] = "Data already in use";
+            }
+        }
+    }
+    // A row taken by a concurrent write since the check fails the flush and rolls the chunk back
+    private void saveChunk(List<NewEmployeeDTO> accepted, List<String> passwords, UUID companyId) {
+        Company company = companyService.getReference(companyId);
+        List<Employee> employees = new ArrayList<>(accepted.size());
+        for(int i = 0; i < accepted.size(); i++) {
+            NewEmployeeDTO data = accepted.get(i);
+            employees.add(new Employee(data.name(), data.username(), data.cpf(), data.email(), passwords.get(i), company));
+        }
+        employeeRepository.saveAll(employees);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    private String violations(NewEmployeeDTO data) {
+        Set<ConstraintViolation<NewEmployeeDTO>> violations = validator.validate(data);
+        if(violations.isEmpty()) return null;
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+    private static void fail(String[] errors, String error) {
+        for(int i = 0; i < errors.length; i++)
+            if(errors[i] == null) errors[i] = error;
+    }
+    private static void writeLine(OutputStream output, String line) throws IOException {
+        output.write(line.getBytes(StandardCharsets.UTF_8));
+        output.write('\n');
+    }
+}
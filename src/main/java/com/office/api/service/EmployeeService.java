@@ -5,111 +5,151 @@ import com.office.api.exception.NullEmployeeException;
 import com.office.api.exception.UsedDataException;
 import com.office.api.model.Company;
 import com.office.api.model.Employee;
+import com.office.api.model.Project;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.enums.Realm;
 import com.office.api.model.dto.employee.*;
-import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.office.api.repository.ProjectSummaryRepository;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class EmployeeService {
-    private final JwtEncoder jwtEncoder;
-    private final PasswordEncoder encoder;
+    private final TokenService tokenService;
+    private final HashingService encoder;
     private final CompanyService companyService;
+    private final MembershipService membershipService;
     private final EmployeeRepository employeeRepository;
-
-    public EmployeeService(JwtEncoder jwtEncoder, PasswordEncoder encoder, CompanyService companyService, EmployeeRepository employeeRepository) {
+    private final AuthorizationGraph authorizationGraph;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final PageCursors pageCursors;
+    private final EntityCacheService entityCacheService;
+    private final ProjectSummaryRepository projectSummaryRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
+
+    public EmployeeService(TokenService tokenService, HashingService encoder, CompanyService companyService, MembershipService membershipService, EmployeeRepository employeeRepository, AuthorizationGraph authorizationGraph, LoginThrottle loginThrottle, RefreshTokenService refreshTokenService, PageCursors pageCursors, EntityCacheService entityCacheService, ProjectSummaryRepository projectSummaryRepository, EmployeeDirectory employeeDirectory, PlatformTransactionManager transactionManager) {
         this.encoder = encoder;
-        this.jwtEncoder = jwtEncoder;
+        this.tokenService = tokenService;
         this.companyService = companyService;
+        this.membershipService = membershipService;
         this.employeeRepository = employeeRepository;
+        this.authorizationGraph = authorizationGraph;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokenService = refreshTokenService;
+        this.pageCursors = pageCursors;
+        this.entityCacheService = entityCacheService;
+        this.projectSummaryRepository = projectSummaryRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
-    public LoginResponseDTO login(LoginRequestDTO data) {
+    public LoginResponseDTO login(LoginRequestDTO data, String address) {
+        loginThrottle.acquire("employee", data.username(), address);
+
         Employee employee = employeeRepository.findByUsername(data.username())
                 .orElseThrow(() -> new LoginFailedException("Employee not found"));
         if(!encoder.matches(data.password(), employee.getPassword()))
             throw new LoginFailedException("Password does not match");
 
-        var expiresIn = 86400L;
-        var now = Instant.now();
-
-        var roles = employee.getRole().equals(Role.MANAGER)?
-                Set.of(Role.MANAGER, Role.EMPLOYEE):
-                Set.of(Role.EMPLOYEE);
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("office.api")
-                .subject(employee.getId().toString())
-                .expiresAt(now.plusSeconds(expiresIn))
-                .claim("scope", roles)
-                .issuedAt(now)
-                .build();
+        RefreshTokenService.Grant grant = refreshTokenService.create(employee.getId(), Realm.EMPLOYEE);
+        Jwt accessToken = tokenService.issue(employee, grant.session());
+        return new LoginResponseDTO(accessToken.getTokenValue(), grant.refreshToken(), tokenService.expiresIn());
+    }
+    public LoginResponseDTO refresh(RefreshRequestDTO data) {
+        RefreshTokenService.Grant grant = refreshTokenService.rotate(data.refresh_token(), Realm.EMPLOYEE);
+        Employee employee = employeeRepository.findWithTeamById(grant.subject())
+                .orElseThrow(() -> new LoginFailedException("Employee not found"));
 
-        Jwt accessToken = jwtEncoder.encode(JwtEncoderParameters.from(claims));
-        return new LoginResponseDTO(accessToken.getTokenValue(), expiresIn);
+        Jwt accessToken = tokenService.issue(employee, grant.session());
+        return new LoginResponseDTO(accessToken.getTokenValue(), grant.refreshToken(), tokenService.expiresIn());
     }
+    // Hashed before the transaction opens, so no connection is held while it waits on the hashing pool
     public void newEmployee(NewEmployeeDTO data, JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
-
-        if(employeeRepository.existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email()))
-            throw new UsedDataException();
-
-        Employee employee = new Employee(
-                data.name(),
-                data.username(),
-                data.cpf(),
-                data.email(),
-                encoder.encode(data.password()),
-                company);
-        employeeRepository.save(employee);
+        String password = encoder.encode(data.password());
+        transactionTemplate.executeWithoutResult(status -> {
+            UUID companyId = tokenService.companyId(token);
+            Company company = companyService.getReference(companyId);
+
+            if(employeeRepository.existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email()))
+                throw new UsedDataException();
+
+            Employee employee = new Employee(
+                    data.name(),
+                    data.username(),
+                    data.cpf(),
+                    data.email(),
+                    password,
+                    company);
+            employeeRepository.save(employee);
+            employeeDirectory.add(companyId, employee.getUsername(), employee.getName());
+        });
     }
     public void updateEmployee(UpdateEmployeeDTO data, JwtAuthenticationToken token) {
-        UUID employeeId = UUID.fromString(token.getName());
-        Employee employee = employeeRepository.findById(employeeId)
-                .orElseThrow(NullEmployeeException::new);
-
-        Set<Employee> usedData = employeeRepository.findAllByUsernameOrEmail(data.username(), data.email());
-        if(usedData.stream().anyMatch(employeeValue -> !employeeValue.getId().equals(employee.getId())))
-            throw new UsedDataException();
-
-        employee.setName(data.name());
-        employee.setUsername(data.username());
-        employee.setEmail(data.email());
-        employee.setPassword(encoder.encode(data.password()));
-
-        employeeRepository.save(employee);
+        String password = encoder.encode(data.password());
+        transactionTemplate.executeWithoutResult(status -> {
+            UUID employeeId = UUID.fromString(token.getName());
+            Employee employee = employeeRepository.findById(employeeId)
+                    .orElseThrow(NullEmployeeException::new);
+
+            Set<Employee> usedData = employeeRepository.findAllByUsernameOrEmail(data.username(), data.email());
+            if(usedData.stream().anyMatch(employeeValue -> !employeeValue.getId().equals(employee.getId())))
+                throw new UsedDataException();
+
+            String previousUsername = employee.getUsername();
+            employee.setName(data.name());
+            employee.setUsername(data.username());
+            employee.setEmail(data.email());
+            employee.setPassword(password);
+
+            employeeRepository.save(employee);
+            employeeDirectory.update(tokenService.companyId(token), previousUsername, data.username(), data.name());
+        });
     }
+    @Transactional
     public void removeEmployee(String username, JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
-        Employee employee = employeeRepository.findByUsername(username)
+        UUID companyId = tokenService.companyId(token);
+        UUID employeeId = employeeRepository.findIdByUsernameAndCompanyId(username, companyId)
                 .orElseThrow(NullEmployeeException::new);
 
-        if(!company.getEmployees().contains(employee))
+        projectSummaryRepository.decrementCommentsByOwnerId(employeeId);
+        projectSummaryRepository.decrementMembersByEmployeeId(employeeId);
+        if(employeeRepository.deleteByIdAndCompanyId(employeeId, companyId) == 0)
             throw new NullEmployeeException();
-
-        employeeRepository.delete(employee);
+        // The foreign key takes the employee off the project they managed
+        entityCacheService.evict(Project.class);
+        refreshTokenService.revokeSubject(employeeId);
+        membershipService.evict(employeeId);
+        authorizationGraph.removeEmployee(employeeId);
+        employeeDirectory.remove(companyId, username);
     }
-    public Set<EmployeeDTO> getAllEmployees(JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
+    @Transactional(readOnly = true)
+    public PageDTO<EmployeeDTO> getAllEmployees(PageRequestDTO page, JwtAuthenticationToken token) {
+        UUID companyId = tokenService.companyId(token);
 
-        Set<Employee> employees = company.getEmployees();
-        return EmployeeDTO.toDTOList(employees);
+        List<EmployeeDTO> employees = employeeRepository.findAllDTOByCompanyId(
+                companyId, pageCursors.afterKey(page), pageCursors.pageable(page));
+        return pageCursors.page(employees, page, EmployeeDTO::username);
     }
+    @Transactional(readOnly = true)
+    public List<EmployeeMatchDTO> completeEmployees(String prefix, Integer limit, JwtAuthenticationToken token) {
+        return employeeDirectory.complete(tokenService.companyId(token), prefix, limit);
+    }
+    @Transactional(readOnly = true)
     public EmployeeDTO getEmployee(JwtAuthenticationToken token) {
         UUID employeeId = UUID.fromString(token.getName());
-        Employee employee = employeeRepository.findById(employeeId)
+        return employeeRepository.findDTOById(employeeId)
                 .orElseThrow(NullEmployeeException::new);
-
-        return EmployeeDTO.toDTO(employee);
     }
     public Employee getEmployee(String employeeId) {
         UUID id = UUID.fromString(employeeId);
@@ -0,0 +1,53 @@
+package com.office.api.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * Evicts second-level cache regions the database changes behind Hibernate. A bulk
+ * delete only invalidates the region of the entity it names, while the foreign keys
+ * go on to delete or null out rows of other tables, so callers evict those entities
+ * here, together with every cached collection holding them.
+ */
+@Service
+public class EntityCacheService {
+    private final Cache cache;
+    private final MappingMetamodel metamodel;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cache = sessionFactory.getCache();
+        this.metamodel = sessionFactory.getMappingMetamodel();
+    }
+
+    public void evict(Class<?>... entities) {
+        Runnable eviction = () -> this.evictNow(Set.of(entities));
+        eviction.run();
+        this.afterCommit(eviction);
+    }
+
+    private void evictNow(Set<Class<?>> entities) {
+        entities.forEach(cache::evictEntityData);
+        metamodel.forEachCollectionDescriptor(collection -> {
+            Class<?> element = collection.getAttributeMapping().getElementDescriptor().getJavaType().getJavaTypeClass();
+            if(collection.hasCache() && entities.contains(element))
+                cache.evictCollectionData(collection.getRole());
+        });
+    }
+    private void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
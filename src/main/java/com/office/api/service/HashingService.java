@@ -0,0 +1,126 @@
+package com.office.api.service;
+
+import com.office.api.exception.HashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs every BCrypt hash and comparison on a small dedicated pool, so a burst of
+ * logins can only occupy {@code threads} cores and never the servlet workers.
+ * When the queue is full the call fails at once with {@link HashingUnavailableException}.
+ */
+@Service
+public class HashingService {
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer queueTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public HashingService(PasswordEncoder encoder,
+                          MeterRegistry registry,
+                          @Value("${office.hashing.threads}") int threads,
+                          @Value("${office.hashing.queue-capacity}") int queueCapacity,
+                          @Value("${office.hashing.timeout}") Duration timeout) {
+        this.encoder = encoder;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(registry, executor, "office.hashing");
+        this.queueTimer = Timer.builder("office.hashing.queue")
+                .description("Time a hashing task waits for a free thread")
+                .register(registry);
+        this.encodeTimer = Timer.builder("office.hashing.duration")
+                .tag("operation", "encode")
+                .register(registry);
+        this.matchesTimer = Timer.builder("office.hashing.duration")
+                .tag("operation", "matches")
+                .register(registry);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return this.submit(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return this.submit(matchesTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Submits at most one hash per pool thread at a time, leaving the queue free for logins
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int window = executor.getMaximumPoolSize();
+        for(int from = 0; from < rawPasswords.size(); from += window) {
+            List<Future<String>> futures = rawPasswords.subList(from, Math.min(from + window, rawPasswords.size())).stream()
+                    .map(rawPassword -> this.schedule(encodeTimer, () -> encoder.encode(rawPassword)))
+                    .toList();
+            for(Future<String> future : futures)
+                encoded.add(this.await(future));
+        }
+        return encoded;
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> operation) {
+        return this.await(this.schedule(timer, operation));
+    }
+    private <T> Future<T> schedule(Timer timer, Supplier<T> operation) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new HashingUnavailableException();
+        }
+    }
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingUnavailableException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingUnavailableException();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException exception)
+                throw exception;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.office.api.service;
+
+import com.office.api.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Limits login attempts per principal and per client address with a sliding window
+ * counter: the previous window's count, weighted by how much of it still overlaps the
+ * window ending now, plus the current window's count. Keys are reduced to a 64-bit hash
+ * and kept in fixed-size tables split over independently locked stripes, so counting an
+ * attempt allocates nothing. When a stripe is full of live keys, the key whose last
+ * attempt is the oldest makes room for the new one. Rejected attempts count as attempts
+ * too, so a key that is still being throttled is not the one evicted.
+ */
+@Service
+public class LoginThrottle {
+    private static final int STRIPES = 64;
+    private static final long PRINCIPAL_SEED = 0x9e3779b97f4a7c15L;
+    private static final long ADDRESS_SEED = 0xc2b2ae3d27d4eb4fL;
+
+    private final Clock clock;
+    private final long window;
+    private final int principalLimit;
+    private final int addressLimit;
+    private final Stripe[] stripes;
+    private final Counter principalThrottled;
+    private final Counter addressThrottled;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry registry,
+                         @Value("${office.login.throttle.window}") Duration window,
+                         @Value("${office.login.throttle.principal-limit}") int principalLimit,
+                         @Value("${office.login.throttle.address-limit}") int addressLimit,
+                         @Value("${office.login.throttle.capacity}") int capacity) {
+        this(registry, window, principalLimit, addressLimit, capacity, Clock.systemUTC());
+    }
+    LoginThrottle(MeterRegistry registry, Duration window, int principalLimit, int addressLimit,
+                  int capacity, Clock clock) {
+        this.clock = clock;
+        this.window = window.toMillis();
+        this.principalLimit = principalLimit;
+        this.addressLimit = addressLimit;
+        this.stripes = new Stripe[STRIPES];
+        for(int i = 0; i < STRIPES; i++)
+            stripes[i] = new Stripe(Math.max(1, capacity / STRIPES));
+
+        this.principalThrottled = Counter.builder("office.login.throttled")
+                .description("Login attempts rejected before the credentials were checked")
+                .tag("key", "principal")
+                .register(registry);
+        this.addressThrottled = Counter.builder("office.login.throttled")
+                .description("Login attempts rejected before the credentials were checked")
+                .tag("key", "address")
+                .register(registry);
+    }
+
+    /**
+     * Counts one attempt for {@code principal} within {@code realm} and for {@code address},
+     * throwing {@link LoginThrottledException} when either is already over its limit.
+     */
+    public void acquire(String realm, String principal, String address) {
+        long now = clock.millis();
+        long principalKey = hash(hash(PRINCIPAL_SEED, realm), principal);
+        long addressKey = hash(ADDRESS_SEED, address);
+
+        if(!this.stripe(addressKey).tryAcquire(addressKey, now, window, addressLimit)) {
+            addressThrottled.increment();
+            throw new LoginThrottledException(this.retryAfter(now));
+        }
+        if(!this.stripe(principalKey).tryAcquire(principalKey, now, window, principalLimit)) {
+            principalThrottled.increment();
+            throw new LoginThrottledException(this.retryAfter(now));
+        }
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[(int) (key >>> 58) & (STRIPES - 1)];
+    }
+    private long retryAfter(long now) {
+        long remaining = window - now % window;
+        return Math.max(1L, (remaining + 999L) / 1000L);
+    }
+
+    private static long hash(long seed, String value) {
+        long hash = seed;
+        if(value != null) {
+            for(int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0L ? 1L : hash;
+    }
+
+    private static final class Stripe {
+        private final int capacity;
+        private final long[] keys;
+        private final long[] windows;
+        private final int[] current;
+        private final int[] previous;
+        private final long[] lastAttempts;
+        private int size;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            int length = Integer.highestOneBit(Math.max(2, capacity) - 1) << 2;
+            this.keys = new long[length];
+            this.windows = new long[length];
+            this.current = new int[length];
+            this.previous = new int[length];
+            this.lastAttempts = new long[length];
+        }
+
+        synchronized boolean tryAcquire(long key, long now, long window, int limit) {
+            long index = now / window;
+            int slot = this.find(key);
+            if(slot < 0) {
+                if(size >= capacity) this.purge(index);
+                if(size >= capacity) {
+                    this.remove(this.leastRecentlyAttempted());
+                    slot = this.find(key);
+                }
+                slot = ~slot;
+                keys[slot] = key;
+                windows[slot] = index;
+                current[slot] = 0;
+                previous[slot] = 0;
+                size++;
+            }
+
+            if(windows[slot] != index) {
+                previous[slot] = windows[slot] == index - 1 ? current[slot] : 0;
+                current[slot] = 0;
+                windows[slot] = index;
+            }
+
+            lastAttempts[slot] = now;
+            double overlap = 1.0 - (double) (now % window) / window;
+            if(previous[slot] * overlap + current[slot] >= limit) return false;
+            current[slot]++;
+            return true;
+        }
+
+        // Returns the slot holding the key, or the complement of the free slot it belongs in
+        private int find(long key) {
+            int mask = keys.length - 1;
+            for(int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                if(keys[slot] == key) return slot;
+                if(keys[slot] == 0L) return ~slot;
+            }
+        }
+        private int leastRecentlyAttempted() {
+            int oldest = -1;
+            for(int i = 0; i < keys.length; i++) {
+                if(keys[i] != 0L && (oldest < 0 || lastAttempts[i] < lastAttempts[oldest]))
+                    oldest = i;
+            }
+            return oldest;
+        }
+        // Empties the slot and shifts back the keys after it that probed past it
+        private void remove(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for(int next = (hole + 1) & mask; keys[next] != 0L; next = (next + 1) & mask) {
+                int home = (int) keys[next] & mask;
+                if(((next - home) & mask) < ((next - hole) & mask)) continue;
+                keys[hole] = keys[next];
+                windows[hole] = windows[next];
+                current[hole] = current[next];
+                previous[hole] = previous[next];
+                lastAttempts[hole] = lastAttempts[next];
+                hole = next;
+            }
+            keys[hole] = 0L;
+            size--;
+        }
+        // Drops keys whose last attempt no longer falls in the previous window
+        private void purge(long index) {
+            long[] liveKeys = new long[size];
+            long[] liveWindows = new long[size];
+            long[] liveLastAttempts = new long[size];
+            int[] liveCurrent = new int[size];
+            int[] livePrevious = new int[size];
+            int live = 0;
+            for(int i = 0; i < keys.length; i++) {
+                if(keys[i] == 0L || windows[i] < index - 1) continue;
+                liveKeys[live] = keys[i];
+                liveWindows[live] = windows[i];
+                liveLastAttempts[live] = lastAttempts[i];
+                liveCurrent[live] = current[i];
+                livePrevious[live] = previous[i];
+                live++;
+            }
+
+            Arrays.fill(keys, 0L);
+            size = 0;
+            for(int i = 0; i < live; i++) {
+                int slot = ~this.find(liveKeys[i]);
+                keys[slot] = liveKeys[i];
+                windows[slot] = liveWindows[i];
+                lastAttempts[slot] = liveLastAttempts[i];
+                current[slot] = liveCurrent[i];
+                previous[slot] = livePrevious[i];
+                size++;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.office.api.service;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from {@code long} to {@code int} with linear probing. Lookups
+ * never box and never allocate. Not thread safe, callers guard it themselves.
+ */
+final class LongIntMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private boolean hasZero;
+    private int zeroValue;
+
+    LongIntMap() {
+        this(16);
+    }
+    LongIntMap(int capacity) {
+        int length = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+        this.keys = new long[length];
+        this.values = new int[length];
+    }
+
+    int get(long key) {
+        if(key == 0L) return hasZero ? zeroValue : MISSING;
+
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        for(int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if(current == key) return values[slot];
+            if(current == 0L) return MISSING;
+        }
+    }
+    void put(long key, int value) {
+        if(key == 0L) {
+            if(!hasZero) size++;
+            hasZero = true;
+            zeroValue = value;
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(keys[slot] != 0L && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        values[slot] = value;
+        if(keys[slot] == 0L) {
+            keys[slot] = key;
+            if(++size * 2 > keys.length)
+                this.resize(keys.length << 1);
+        }
+    }
+    void remove(long key) {
+        if(key == 0L) {
+            if(hasZero) size--;
+            hasZero = false;
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(keys[slot] != key) {
+            if(keys[slot] == 0L) return;
+            slot = (slot + 1) & mask;
+        }
+        size--;
+
+        // Shift the following entries back so no probe chain is left with a hole
+        for(int next = (slot + 1) & mask; keys[next] != 0L; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = 0L;
+    }
+    void clear() {
+        Arrays.fill(keys, 0L);
+        hasZero = false;
+        size = 0;
+    }
+    int size() {
+        return size;
+    }
+
+    private void resize(int length) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[length];
+        values = new int[length];
+
+        int mask = length - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] == 0L) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while(keys[slot] != 0L)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,70 @@
+package com.office.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.office.api.model.Employee;
+import com.office.api.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tracks the membership version of every employee. The version is copied into the
+ * access token at login and bumped whenever the employee's role, team or project
+ * changes, so a token issued before the change stops being accepted.
+ */
+@Service
+public class MembershipService {
+    private final EmployeeRepository employeeRepository;
+    private final Cache<UUID, Long> versions;
+
+    public MembershipService(EmployeeRepository employeeRepository,
+                             @Value("${office.membership.cache-size}") long cacheSize) {
+        this.employeeRepository = employeeRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public Optional<Long> getVersion(UUID employeeId) {
+        return Optional.ofNullable(versions.get(employeeId,
+                id -> employeeRepository.findMembershipVersionById(id).orElse(null)));
+    }
+
+    public void touch(Employee employee) {
+        employee.setMembershipVersion(employee.getMembershipVersion() + 1);
+        this.evict(employee.getId());
+    }
+    public void touchTeam(Long teamId) {
+        employeeRepository.incrementMembershipVersionByTeamId(teamId);
+        this.evictAll();
+    }
+    public void touchProject(Long projectId) {
+        employeeRepository.incrementMembershipVersionByProjectId(projectId);
+        this.evictAll();
+    }
+
+    public void evict(UUID employeeId) {
+        if(employeeId == null) return;
+        versions.invalidate(employeeId);
+        this.afterCommit(() -> versions.invalidate(employeeId));
+    }
+    public void evictAll() {
+        versions.invalidateAll();
+        this.afterCommit(versions::invalidateAll);
+    }
+
+    private void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package com.office.api.service;
+
+import com.office.api.exception.InvalidPageException;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Turns a {@link PageRequestDTO} into the keyset bound and row limit of a page query, and
+ * the rows it returned into a {@link PageDTO}. A cursor is the ordering key of the last
+ * row of the previous page, base64url encoded so clients treat it as opaque. Page queries
+ * read one row past the limit to know whether another page follows.
+ */
+@Service
+public class PageCursors {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // Within the range of every supported database, unlike LocalDateTime.MAX
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageCursors(@Value("${office.pagination.default-size}") int defaultSize,
+                       @Value("${office.pagination.max-size}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public Pageable pageable(PageRequestDTO page) {
+        if(page.unpaged()) return Pageable.unpaged();
+        return PageRequest.ofSize(this.size(page) + 1);
+    }
+    public <T> PageDTO<T> page(List<T> rows, PageRequestDTO page, Function<T, Object> key) {
+        if(page.unpaged() || rows.size() <= this.size(page))
+            return new PageDTO<>(rows, null);
+
+        List<T> items = new ArrayList<>(rows.subList(0, this.size(page)));
+        String cursor = String.valueOf(key.apply(items.get(items.size() - 1)));
+        return new PageDTO<>(items, ENCODER.encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Bounds for ascending id order, the first page starts below every serial id
+    public Long afterId(PageRequestDTO page) {
+        String cursor = this.decode(page);
+        return cursor == null ? 0L : this.parseId(cursor);
+    }
+    // Bounds for descending id order, the first page starts above every serial id
+    public Long beforeId(PageRequestDTO page) {
+        String cursor = this.decode(page);
+        return cursor == null ? Long.MAX_VALUE : this.parseId(cursor);
+    }
+    // Bounds for ascending text order, the first page starts above the empty string
+    public String afterKey(PageRequestDTO page) {
+        String cursor = this.decode(page);
+        return cursor == null ? "" : cursor;
+    }
+    // Bounds for descending (time, id) order, the first page starts above any stored time
+    public TimeKey beforeTime(PageRequestDTO page) {
+        String cursor = this.decode(page);
+        if(cursor == null) return new TimeKey(LATEST, Long.MAX_VALUE);
+
+        int separator = cursor.lastIndexOf('_');
+        if(separator < 0) throw new InvalidPageException();
+        try {
+            return new TimeKey(LocalDateTime.parse(cursor.substring(0, separator)), this.parseId(cursor.substring(separator + 1)));
+        } catch(DateTimeParseException exception) {
+            throw new InvalidPageException();
+        }
+    }
+
+    // Bounds for descending (rank, kind, id) order, the first page starts above any rank
+    public RankKey beforeRank(PageRequestDTO page) {
+        String cursor = this.decode(page);
+        if(cursor == null) return new RankKey(Float.MAX_VALUE, "", Long.MAX_VALUE);
+
+        String[] parts = cursor.split("_", 3);
+        if(parts.length != 3) throw new InvalidPageException();
+        try {
+            return new RankKey(Float.parseFloat(parts[0]), parts[1], this.parseId(parts[2]));
+        } catch(NumberFormatException exception) {
+            throw new InvalidPageException();
+        }
+    }
+
+    private int size(PageRequestDTO page) {
+        if(page.limit() == null) return defaultSize;
+        if(page.limit() < 1) throw new InvalidPageException();
+        return Math.min(page.limit(), maxSize);
+    }
+    private String decode(PageRequestDTO page) {
+        if(page.cursor() == null || page.cursor().isBlank()) return null;
+        try {
+            return new String(DECODER.decode(page.cursor()), StandardCharsets.UTF_8);
+        } catch(IllegalArgumentException exception) {
+            throw new InvalidPageException();
+        }
+    }
+    private Long parseId(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch(NumberFormatException exception) {
+            throw new InvalidPageException();
+        }
+    }
+
+    /**
+     * Ordering key of rows sorted by a timestamp with the id breaking ties, written into
+     * cursors as {@code <ISO local date-time>_<id>}.
+     */
+    public record TimeKey(LocalDateTime time, Long id) {
+        @Override
+        public String toString() {
+            return time + "_" + id;
+        }
+    }
+
+    /**
+     * Ordering key of ranked search hits, the kind and id breaking ties, written into
+     * cursors as {@code <rank>_<kind>_<id>}. A float prints back to the same value, so
+     * the bound matches the stored rank exactly.
+     */
+    public record RankKey(float rank, String kind, Long id) {
+        @Override
+        public String toString() {
+            return rank + "_" + kind + "_" + id;
+        }
+    }
+}
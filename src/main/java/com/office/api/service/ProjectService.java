@@ -1,77 +1,101 @@
 package com.office.api.service;
 
 import com.office.api.exception.*;
-import com.office.api.model.Company;
 import com.office.api.model.Employee;
 import com.office.api.model.Project;
+import com.office.api.model.ProjectSummary;
+import com.office.api.model.Team;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.project.NewProjectDTO;
 import com.office.api.model.dto.project.ProjectDTO;
+import com.office.api.model.dto.project.ProjectSummaryDTO;
 import com.office.api.model.dto.project.UpdateProjectDTO;
 import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
 import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class ProjectService {
+    private final TokenService tokenService;
     private final CompanyService companyService;
+    private final MembershipService membershipService;
+    private final AuthorizationGraph authorizationGraph;
     private final ProjectRepository projectRepository;
     private final EmployeeRepository employeeRepository;
+    private final PageCursors pageCursors;
+    private final EntityCacheService entityCacheService;
+    private final ProjectSummaryRepository projectSummaryRepository;
 
-    public ProjectService(ProjectRepository projectRepository, EmployeeRepository employeeRepository, CompanyService companyService) {
+    public ProjectService(ProjectRepository projectRepository, EmployeeRepository employeeRepository, CompanyService companyService, TokenService tokenService, MembershipService membershipService, AuthorizationGraph authorizationGraph, PageCursors pageCursors, EntityCacheService entityCacheService, ProjectSummaryRepository projectSummaryRepository) {
+        this.tokenService = tokenService;
         this.companyService = companyService;
+        this.membershipService = membershipService;
+        this.authorizationGraph = authorizationGraph;
         this.projectRepository = projectRepository;
         this.employeeRepository = employeeRepository;
+        this.pageCursors = pageCursors;
+        this.entityCacheService = entityCacheService;
+        this.projectSummaryRepository = projectSummaryRepository;
     }
 
+    @Transactional
     public void newProject(NewProjectDTO data, JwtAuthenticationToken token) {
         if(projectRepository.existsByName(data.name())) throw new UsedDataException();
-        Company company = companyService.getCompany(token.getName());
+        UUID companyId = tokenService.companyId(token);
 
         var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         LocalDate deadline = LocalDate.parse(data.deadline(), formatter);
         if (deadline.isBefore(LocalDate.now())) throw new InvalidDeadlineException();
 
-        Optional<Employee> optionalManager = employeeRepository.findByUsername(data.manager_username());
-        if(optionalManager.isEmpty() || !company.getEmployees().contains(optionalManager.get()))
+        Optional<Employee> optionalManager = employeeRepository.findByUsernameAndCompanyId(data.manager_username(), companyId);
+        if(optionalManager.isEmpty())
             throw new NullEmployeeException();
-        else if (optionalManager.get().getProject() != null)
+        else if (projectRepository.existsByManagerId(optionalManager.get().getId()))
             throw new InvalidEmployeeException("Already manage a project");
 
         Employee manager = optionalManager.get();
         if(!manager.getRole().equals(Role.MANAGER)) {
             manager.setRole(Role.MANAGER);
+            // Counted off the project of their team while the row still points at it
+            if(manager.getTeam() != null)
+                projectSummaryRepository.decrementMembersByEmployeeId(manager.getId());
             manager.setTeam(null);
         }
+        membershipService.touch(manager);
 
         Project project = new Project(
                 data.name(),
                 data.description(),
-                deadline, company, manager);
+                deadline, companyService.getReference(companyId), manager);
         projectRepository.save(project);
+        projectSummaryRepository.save(new ProjectSummary(project.getId()));
+        authorizationGraph.addProject(project.getId(), companyId);
     }
+    @Transactional
     public void updateProject(Long id, UpdateProjectDTO data, JwtAuthenticationToken token) {
         Set<Project> usedData = projectRepository.findByName(data.name());
         if(usedData.stream().anyMatch(project -> !project.getId().equals(id)))
             throw new UsedDataException();
 
-        Company company = companyService.getCompany(token.getName());
+        UUID companyId = tokenService.companyId(token);
 
-        Optional<Project> optionalProject = projectRepository.findById(id);
-        if(optionalProject.isEmpty() || !company.getProjects().contains(optionalProject.get()))
-            throw new NullProjectException();
-
-        Optional<Employee> optionalManager = employeeRepository.findByUsername(data.manager_username());
-        if(optionalManager.isEmpty() || !company.getEmployees().contains(optionalManager.get()))
-            throw new NullEmployeeException();
+        Project project = projectRepository.findByIdAndCompanyId(id, companyId)
+                .orElseThrow(NullProjectException::new);
 
-        Employee manager = optionalManager.get();
+        Employee manager = employeeRepository.findByUsernameAndCompanyId(data.manager_username(), companyId)
+                .orElseThrow(NullEmployeeException::new);
         if(!manager.getRole().equals(Role.MANAGER))
             manager.setRole(Role.MANAGER);
 
@@ -79,7 +103,12 @@ public class ProjectService {
         LocalDate deadline = LocalDate.parse(data.deadline(), formatter);
         if(deadline.isBefore(LocalDate.now())) throw new InvalidDeadlineException();
 
-        var project = optionalProject.get();
+        if(!manager.equals(project.getManager())) {
+            if(project.getManager() != null)
+                membershipService.touch(project.getManager());
+            membershipService.touch(manager);
+        }
+
         project.setName(data.name());
         project.setDescription(data.description());
         project.setDeadline(deadline);
@@ -87,31 +116,34 @@ public class ProjectService {
 
         projectRepository.save(project);
     }
+    @Transactional
     public void deleteProject(Long id, JwtAuthenticationToken token) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(NullProjectException::new);
-
-        Company company = companyService.getCompany(token.getName());
-
-        if(!company.getProjects().contains(project))
+        UUID companyId = tokenService.companyId(token);
+        if(!authorizationGraph.isProjectOfCompany(id, companyId))
             throw new NullProjectException();
 
-        projectRepository.deleteById(id);
+        membershipService.touchProject(id);
+        projectRepository.deleteByIdAndCompanyId(id, companyId);
+        // The foreign keys delete the project's teams and take their members off them
+        entityCacheService.evict(Team.class, Employee.class);
+        authorizationGraph.removeProject(id);
     }
-    public Set<ProjectDTO> getAllProjects(JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
-        Set<Project> projects = company.getProjects();
-        return ProjectDTO.toDTOList(projects);
+    @Transactional(readOnly = true)
+    public PageDTO<ProjectDTO> getAllProjects(PageRequestDTO page, JwtAuthenticationToken token) {
+        List<ProjectDTO> projects = projectRepository.findAllDTOByCompanyId(
+                tokenService.companyId(token), pageCursors.afterId(page), pageCursors.pageable(page));
+        return pageCursors.page(projects, page, ProjectDTO::id);
     }
+    @Transactional(readOnly = true)
     public ProjectDTO getProject(Long projectId, JwtAuthenticationToken token) {
-        Project project = projectRepository.findById(projectId)
+        return projectRepository.findDTOByIdAndCompanyId(projectId, tokenService.companyId(token))
                 .orElseThrow(NullProjectException::new);
-
-        Company company = companyService.getCompany(token.getName());
-
-        if(!company.getProjects().contains(project))
+    }
+    @Transactional(readOnly = true)
+    public ProjectSummaryDTO getSummary(Long projectId, JwtAuthenticationToken token) {
+        if(!authorizationGraph.isProjectOfCompany(projectId, tokenService.companyId(token)))
             throw new NullProjectException();
-
-        return ProjectDTO.toDTO(project);
+        return projectSummaryRepository.findDTOByProjectId(projectId)
+                .orElseThrow(NullProjectException::new);
     }
 }
@@ -0,0 +1,127 @@
+package com.office.api.service;
+
+import com.office.api.exception.LoginFailedException;
+import com.office.api.model.RefreshToken;
+import com.office.api.model.enums.Realm;
+import com.office.api.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates the refresh tokens behind each login session. Only the SHA-256
+ * of a token is stored, every token can be exchanged once, and presenting a token that
+ * was already exchanged revokes its whole session, since one of the two holders must
+ * have stolen it.
+ * <p>
+ * Revoked sessions are kept in a {@link RevocationFilter} until their last access token
+ * expires, so checking the session of every request stays off the database. The filter
+ * is rebuilt from the table at startup; revocations made by other instances are only
+ * seen by this one after its next restart, bounded by the access token lifetime.
+ */
+@Service
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration refreshTokenTtl;
+    private final Duration accessTokenTtl;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final RevocationFilter revoked = new RevocationFilter();
+
+    public record Grant(UUID subject, UUID session, String refreshToken) {
+    }
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${office.jwt.refresh-token-ttl}") Duration refreshTokenTtl,
+                               @Value("${office.jwt.access-token-ttl}") Duration accessTokenTtl) {
+        this(refreshTokenRepository, refreshTokenTtl, accessTokenTtl, Clock.systemUTC());
+    }
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, Duration refreshTokenTtl,
+                        Duration accessTokenTtl, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.accessTokenTtl = accessTokenTtl;
+        this.clock = clock;
+    }
+
+    public Grant create(UUID subject, Realm realm) {
+        UUID session = UUID.randomUUID();
+        return new Grant(subject, session, this.issue(subject, realm, session));
+    }
+    public Grant rotate(String refreshToken, Realm realm) {
+        Instant now = clock.instant();
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .filter(value -> value.getRealm() == realm)
+                .orElseThrow(() -> new LoginFailedException("Refresh token not found"));
+        if(token.getRevokedAt() != null || !token.getExpiresAt().isAfter(now))
+            throw new LoginFailedException("Refresh token expired");
+
+        if(refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            this.revokeSession(token.getSession());
+            throw new LoginFailedException("Refresh token already used");
+        }
+        return new Grant(token.getSubject(), token.getSession(),
+                this.issue(token.getSubject(), realm, token.getSession()));
+    }
+
+    public void revokeSession(UUID session) {
+        Instant now = clock.instant();
+        refreshTokenRepository.revokeSession(session, now);
+        revoked.add(session, now.plus(accessTokenTtl).toEpochMilli(), now.toEpochMilli());
+    }
+    public void revokeSubject(UUID subject) {
+        Instant now = clock.instant();
+        long expiresAt = now.plus(accessTokenTtl).toEpochMilli();
+        for(UUID session : refreshTokenRepository.findActiveSessionsBySubject(subject))
+            revoked.add(session, expiresAt, now.toEpochMilli());
+        refreshTokenRepository.revokeSubject(subject, now);
+    }
+    public boolean isRevoked(UUID session) {
+        return revoked.contains(session, clock.millis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant now = clock.instant();
+        long expiresAt = now.plus(accessTokenTtl).toEpochMilli();
+        revoked.reset();
+        for(UUID session : refreshTokenRepository.findSessionsRevokedSince(now.minus(accessTokenTtl)))
+            revoked.add(session, expiresAt, now.toEpochMilli());
+    }
+
+    private String issue(UUID subject, Realm realm, UUID session) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(hash(value), subject, realm, session,
+                clock.instant().plus(refreshTokenTtl)));
+        return value;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch(NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.office.api.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of revoked sessions answered in two steps: a Bloom filter that is read without
+ * locking and rules out almost every live session, then an exact map from session to
+ * the instant its last access token expires, consulted only on a filter hit. Entries
+ * are dropped once no token of the session can still be valid, and the bits are
+ * rebuilt from the remaining entries whenever the map is purged or outgrows them.
+ */
+final class RevocationFilter {
+    private static final int HASHES = 3;
+    private static final int BITS_PER_ENTRY = 16;
+    private static final int MINIMUM_ENTRIES = 64;
+
+    private final Map<UUID, Long> sessions = new HashMap<>();
+    private volatile AtomicLongArray bits;
+    private int threshold;
+
+    RevocationFilter() {
+        this.resize(MINIMUM_ENTRIES);
+    }
+
+    boolean contains(UUID session, long now) {
+        AtomicLongArray bits = this.bits;
+        long mask = (long) bits.length() * Long.SIZE - 1;
+        long first = LongIntMap.mix(session.getMostSignificantBits()) & 0xffffffffL;
+        long second = LongIntMap.mix(session.getLeastSignificantBits()) | 1L;
+        for(int i = 0; i < HASHES; i++) {
+            long bit = (first + i * second) & mask;
+            if((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0L) return false;
+        }
+
+        synchronized(this) {
+            Long expiresAt = sessions.get(session);
+            return expiresAt != null && expiresAt > now;
+        }
+    }
+    synchronized void add(UUID session, long expiresAt, long now) {
+        sessions.merge(session, expiresAt, Math::max);
+        if(sessions.size() > threshold) {
+            this.purge(now);
+            return;
+        }
+        set(bits, session);
+    }
+    synchronized void reset() {
+        sessions.clear();
+        this.resize(MINIMUM_ENTRIES);
+    }
+    synchronized int size() {
+        return sessions.size();
+    }
+
+    // Drops expired sessions and rebuilds the bits, doubling them if the live entries still fill them
+    private void purge(long now) {
+        Iterator<Long> iterator = sessions.values().iterator();
+        while(iterator.hasNext())
+            if(iterator.next() <= now) iterator.remove();
+        this.resize(Math.max(MINIMUM_ENTRIES, sessions.size() * 2));
+    }
+    private void resize(int entries) {
+        int words = Integer.highestOneBit(Math.max(1, entries * BITS_PER_ENTRY / Long.SIZE - 1)) << 1;
+        AtomicLongArray bits = new AtomicLongArray(words);
+        for(UUID session : sessions.keySet())
+            set(bits, session);
+        this.threshold = entries;
+        this.bits = bits;
+    }
+
+    // Writers hold the monitor, so a plain read-modify-write cannot lose a bit
+    private static void set(AtomicLongArray bits, UUID session) {
+        long mask = (long) bits.length() * Long.SIZE - 1;
+        long first = LongIntMap.mix(session.getMostSignificantBits()) & 0xffffffffL;
+        long second = LongIntMap.mix(session.getLeastSignificantBits()) | 1L;
+        for(int i = 0; i < HASHES; i++) {
+            long bit = (first + i * second) & mask;
+            int word = (int) (bit >>> 6);
+            bits.set(word, bits.get(word) | (1L << bit));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.office.api.service;
+
+import com.office.api.exception.InvalidSearchException;
+import com.office.api.exception.NullProjectException;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.search.SearchHitDTO;
+import com.office.api.repository.SearchRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class SearchService {
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final SearchRepository searchRepository;
+    private final TokenService tokenService;
+    private final PageCursors pageCursors;
+
+    public SearchService(SearchRepository searchRepository, TokenService tokenService, PageCursors pageCursors) {
+        this.searchRepository = searchRepository;
+        this.tokenService = tokenService;
+        this.pageCursors = pageCursors;
+    }
+
+    // Companies search every project they own, employees the project they work on
+    @Transactional(readOnly = true)
+    public PageDTO<SearchHitDTO> search(String query, PageRequestDTO page, JwtAuthenticationToken token) {
+        if(query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH)
+            throw new InvalidSearchException();
+
+        // Ranking has to score every match, so a search is always paged
+        PageRequestDTO paged = new PageRequestDTO(page.cursor(), page.limit(), false);
+        PageCursors.RankKey before = pageCursors.beforeRank(paged);
+        Pageable pageable = pageCursors.pageable(paged);
+
+        List<SearchHitDTO> hits;
+        if(tokenService.isCompany(token)) {
+            hits = searchRepository.searchByCompanyId(tokenService.companyId(token), query, before, pageable);
+        } else {
+            Long projectId = tokenService.projectId(token);
+            if(projectId == null)
+                throw new NullProjectException("You aren't working on a Project");
+            hits = searchRepository.searchByProjectId(projectId, query, before, pageable);
+        }
+        return pageCursors.page(hits, paged, hit -> new PageCursors.RankKey(hit.rank(), hit.kind(), hit.id()));
+    }
+}
@@ -4,37 +4,50 @@ import com.office.api.exception.InvalidDeadlineException;
 import com.office.api.exception.NullProjectException;
 import com.office.api.exception.NullTaskException;
 import com.office.api.exception.UsedDataException;
-import com.office.api.model.Employee;
 import com.office.api.model.Project;
 import com.office.api.model.Task;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.task.NewTaskDTO;
 import com.office.api.model.dto.task.TaskDTO;
 import com.office.api.model.dto.task.UpdateTaskDTO;
-import com.office.api.model.enums.Role;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TaskRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Set;
 
 @Service
 public class TaskService {
+    private final TokenService tokenService;
     private final TaskRepository taskRepository;
-    private final EmployeeService employeeService;
+    private final ProjectRepository projectRepository;
+    private final PageCursors pageCursors;
+    private final AuthorizationGraph authorizationGraph;
+    private final ProjectSummaryRepository projectSummaryRepository;
 
-    public TaskService(TaskRepository taskRepository, EmployeeService employeeService) {
+    public TaskService(TaskRepository taskRepository, ProjectRepository projectRepository, TokenService tokenService, PageCursors pageCursors, AuthorizationGraph authorizationGraph, ProjectSummaryRepository projectSummaryRepository) {
+        this.tokenService = tokenService;
         this.taskRepository = taskRepository;
-        this.employeeService = employeeService;
+        this.projectRepository = projectRepository;
+        this.pageCursors = pageCursors;
+        this.authorizationGraph = authorizationGraph;
+        this.projectSummaryRepository = projectSummaryRepository;
     }
 
+    @Transactional
     public void newTask(NewTaskDTO data, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
+        Long projectId = this.getProjectId(token);
 
         if(taskRepository.existsByTitle(data.title())) throw new UsedDataException();
 
-        Project project = manager.getProject();
+        Project project = projectRepository.getReferenceById(projectId);
 
         var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         LocalDateTime deadline = LocalDateTime.parse(data.deadline(), formatter);
@@ -45,18 +58,19 @@ public class TaskService {
                 data.description(),
                 deadline, project);
         taskRepository.save(task);
+        projectSummaryRepository.incrementTasks(projectId);
+        authorizationGraph.addTask(task.getId(), projectId);
     }
+    @Transactional
     public void updateTask(Long id, UpdateTaskDTO data, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
+        Long projectId = this.getProjectId(token);
 
         Set<Task> usedData = taskRepository.findByTitle(data.title());
         if(usedData.stream().anyMatch(project -> !project.getId().equals(id)))
             throw new UsedDataException();
 
-        Task task = taskRepository.findById(id).orElseThrow(NullTaskException::new);
-
-        if(!manager.getProject().getTasks().contains(task))
-            throw new NullTaskException();
+        Task task = taskRepository.findByIdAndProjectId(id, projectId)
+                .orElseThrow(NullTaskException::new);
 
         var formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         LocalDateTime deadline = LocalDateTime.parse(data.deadline(), formatter);
@@ -68,42 +82,42 @@ public class TaskService {
 
         taskRepository.save(task);
     }
+    @Transactional
     public void deleteTask(Long id, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
-
-        Task task = taskRepository.findById(id).orElseThrow(NullTaskException::new);
+        Long projectId = this.getProjectId(token);
 
-        if(!manager.getProject().getTasks().contains(task))
+        // The task's comments go with it, so they are counted while they still exist
+        long comments = taskRepository.countCommentsByIdAndProjectId(id, projectId);
+        if(taskRepository.deleteByIdAndProjectId(id, projectId) == 0)
             throw new NullTaskException();
-
-        taskRepository.delete(task);
+        projectSummaryRepository.decrementTasks(projectId, comments);
+        authorizationGraph.removeTask(id);
     }
-    public Set<TaskDTO> getTasks(JwtAuthenticationToken token) {
-        Project project;
-        Set<Task> tasks;
-        Employee employee = employeeService.getEmployee(token.getName());
-
-        try {
-            if (employee.getRole().equals(Role.MANAGER))
-                project = employee.getProject();
-            else
-                project = employee.getTeam().getProject();
-
-        tasks = project.getTasks();
-        } catch(NullPointerException e) {
-            throw new NullProjectException("You aren't working on a Project");
-        }
+    @Transactional(readOnly = true)
+    public PageDTO<TaskDTO> getTasks(PageRequestDTO page, JwtAuthenticationToken token) {
+        Long projectId = this.getProjectId(token);
 
-        return TaskDTO.toDTOList(tasks);
+        List<TaskDTO> tasks = taskRepository.findAllDTOByProjectId(projectId, pageCursors.afterId(page), pageCursors.pageable(page));
+        PageDTO<TaskDTO> result = pageCursors.page(tasks, page, TaskDTO::id);
+        if(result.items().isEmpty()) return result;
+
+        List<Long> ids = result.items().stream().map(TaskDTO::id).toList();
+        return new PageDTO<>(TaskDTO.withComments(result.items(), taskRepository.findAllCommentDTOByTaskIdIn(ids)), result.next_cursor());
     }
+    @Transactional(readOnly = true)
     public TaskDTO getTask(Long id, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
+        Long projectId = this.getProjectId(token);
 
-        Task task = taskRepository.findById(id).orElseThrow(NullTaskException::new);
+        TaskDTO task = taskRepository.findDTOByIdAndProjectId(id, projectId)
+                .orElseThrow(NullTaskException::new);
 
-        if(!manager.getProject().getTasks().contains(task))
-            throw new NullTaskException();
+        return TaskDTO.withComments(List.of(task), taskRepository.findAllCommentDTOByTaskIdIn(List.of(id))).get(0);
+    }
 
-        return TaskDTO.toDTO(task);
+    private Long getProjectId(JwtAuthenticationToken token) {
+        Long projectId = tokenService.projectId(token);
+        if(projectId == null)
+            throw new NullProjectException("You aren't working on a Project");
+        return projectId;
     }
 }
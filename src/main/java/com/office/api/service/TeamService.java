@@ -2,133 +2,195 @@ package com.office.api.service;
 
 import com.office.api.exception.InvalidEmployeeException;
 import com.office.api.exception.NullEmployeeException;
+import com.office.api.exception.NullProjectException;
 import com.office.api.exception.NullTeamException;
 import com.office.api.exception.UsedDataException;
-import com.office.api.model.Company;
 import com.office.api.model.Employee;
 import com.office.api.model.Team;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.team.MoveMembersDTO;
 import com.office.api.model.dto.team.NewTeamDTO;
 import com.office.api.model.dto.team.TeamDTO;
 import com.office.api.model.dto.team.UpdateTeamDTO;
 import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TeamRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class TeamService {
+    private final TokenService tokenService;
     private final TeamRepository teamRepository;
-    private final EmployeeRepository employeeRepository;
     private final CompanyService companyService;
-    private final EmployeeService employeeService;
+    private final MembershipService membershipService;
+    private final ProjectRepository projectRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AuthorizationGraph authorizationGraph;
+    private final PageCursors pageCursors;
+    private final EntityCacheService entityCacheService;
+    private final ProjectSummaryRepository projectSummaryRepository;
 
-    public TeamService(TeamRepository teamRepository, EmployeeRepository employeeRepository, CompanyService companyService, EmployeeService employeeService) {
+    public TeamService(TeamRepository teamRepository, EmployeeRepository employeeRepository, ProjectRepository projectRepository, CompanyService companyService, TokenService tokenService, MembershipService membershipService, AuthorizationGraph authorizationGraph, PageCursors pageCursors, EntityCacheService entityCacheService, ProjectSummaryRepository projectSummaryRepository) {
+        this.tokenService = tokenService;
         this.teamRepository = teamRepository;
-        this.employeeRepository = employeeRepository;
         this.companyService = companyService;
-        this.employeeService = employeeService;
+        this.membershipService = membershipService;
+        this.projectRepository = projectRepository;
+        this.employeeRepository = employeeRepository;
+        this.authorizationGraph = authorizationGraph;
+        this.pageCursors = pageCursors;
+        this.entityCacheService = entityCacheService;
+        this.projectSummaryRepository = projectSummaryRepository;
     }
 
+    @Transactional
     public void newTeam(NewTeamDTO data, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
+        Long projectId = tokenService.projectId(token);
+        if(projectId == null)
+            throw new NullProjectException("You aren't working on a Project");
 
         if(teamRepository.existsByName(data.name())) throw new UsedDataException();
 
+        UUID companyId = tokenService.companyId(token);
+        List<Employee> members = this.findEmployees(data.usernames(), companyId);
+        members.forEach(this::checkJoinable);
+
         Team team = new Team(
                 data.name(),
-                manager.getCompany(),
-                manager.getProject());
-        team.setMembers(new HashSet<>());
-
-        data.usernames().forEach(username -> {
-            Employee employee = employeeRepository.findByUsername(username)
-                    .orElseThrow(NullEmployeeException::new);
-            if(employee.getTeam() != null)
-                throw new InvalidEmployeeException("Already on a team");
-            else if(employee.getRole().equals(Role.MANAGER))
-                throw new InvalidEmployeeException("Manager can not be part of the team");
-            team.getMembers().add(employee);
-            employee.setTeam(team);
-        });
-
-        teamRepository.save(team);
+                companyService.getReference(companyId),
+                projectRepository.getReferenceById(projectId));
+        teamRepository.saveAndFlush(team);
+        projectSummaryRepository.incrementTeams(projectId);
+        this.join(team.getId(), members, companyId);
+        authorizationGraph.addTeam(team.getId(), companyId, projectId);
     }
+    @Transactional
     public void updateTeam (Long id, UpdateTeamDTO data, JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
+        UUID companyId = tokenService.companyId(token);
 
-        Optional<Team> optionalTeam = teamRepository.findById(id);
-        if(optionalTeam.isEmpty() || !manager.getCompany().equals(optionalTeam.get().getCompany()))
-            throw new NullTeamException();
-        Team team = optionalTeam.get();
+        Team team = teamRepository.findByIdAndCompanyId(id, companyId)
+                .orElseThrow(NullTeamException::new);
 
         Set<Team> usedData = teamRepository.findByName(data.name());
         if(usedData.stream().anyMatch(teamValue -> !teamValue.getId().equals(id)))
             throw new UsedDataException();
 
-        Set<Employee> employeesToAdd = this.filterToAdd(data.to_add(), team);
-        Set<Employee> employeesToRemove = this.filterToRemove(data.to_remove(), team);
+        Set<String> toAdd = data.to_add() == null ? Set.of() : data.to_add();
+        Set<String> toRemove = data.to_remove() == null ? Set.of() : data.to_remove();
+        Set<String> usernames = new HashSet<>(toAdd);
+        usernames.addAll(toRemove);
+
+        List<Employee> employees = this.findEmployees(usernames, companyId);
+        List<Employee> joining = employees.stream().filter(employee -> toAdd.contains(employee.getUsername())).toList();
+        List<Employee> leaving = employees.stream().filter(employee -> toRemove.contains(employee.getUsername())).toList();
+        joining.forEach(this::checkJoinable);
+        leaving.forEach(employee -> this.checkMember(employee, id));
 
         team.setName(data.name());
-        team.getMembers().addAll(employeesToAdd);
-        team.getMembers().removeAll(employeesToRemove);
         teamRepository.save(team);
+        this.leave(id, leaving);
+        this.join(id, joining, companyId);
     }
-    public void deleteTeam(Long id, JwtAuthenticationToken token) {
-        Optional<Team> optionalTeam = teamRepository.findById(id);
-        Employee manager = employeeService.getEmployee(token.getName());
+    @Transactional
+    public void moveMembers(Long id, MoveMembersDTO data, JwtAuthenticationToken token) {
+        // Both teams must belong to the manager's own project, not just to the company
+        Long projectId = tokenService.projectId(token);
+        if(!authorizationGraph.isTeamOfProject(id, projectId) || !authorizationGraph.isTeamOfProject(data.to_team_id(), projectId))
+            throw new NullTeamException();
+        UUID companyId = tokenService.companyId(token);
+        if(id.equals(data.to_team_id()))
+            throw new InvalidEmployeeException("Already on the team");
 
-        if(optionalTeam.isEmpty() || !manager.getCompany().equals(optionalTeam.get().getCompany()))
+        List<Employee> members = this.findEmployees(data.usernames(), companyId);
+        members.forEach(employee -> this.checkMember(employee, id));
+
+        int moved = employeeRepository.moveTeamByUsernameIn(id, data.to_team_id(), data.usernames());
+        this.checkUpdated(moved, members);
+        projectSummaryRepository.addMembersByTeamId(id, -moved);
+        projectSummaryRepository.addMembersByTeamId(data.to_team_id(), moved);
+    }
+    @Transactional
+    public void deleteTeam(Long id, JwtAuthenticationToken token) {
+        UUID companyId = tokenService.companyId(token);
+        if(!authorizationGraph.isTeamOfCompany(id, companyId))
             throw new NullTeamException();
 
-        Team team = optionalTeam.get();
-        teamRepository.delete(team);
+        // Members are counted while they are still on the team
+        Long projectId = teamRepository.findProjectIdById(id).orElseThrow(NullTeamException::new);
+        long members = employeeRepository.countByTeamId(id);
+        membershipService.touchTeam(id);
+        if(teamRepository.deleteByIdAndCompanyId(id, companyId) == 0)
+            throw new NullTeamException();
+        projectSummaryRepository.decrementTeams(projectId, members);
+        // The foreign key takes the members off the deleted team
+        entityCacheService.evict(Employee.class);
+        authorizationGraph.removeTeam(id);
+    }
+    @Transactional(readOnly = true)
+    public PageDTO<TeamDTO> getAllTeams(PageRequestDTO page, JwtAuthenticationToken token) {
+        List<TeamDTO> teams = teamRepository.findAllDTOByCompanyId(
+                tokenService.companyId(token), pageCursors.afterId(page), pageCursors.pageable(page));
+        return this.withMembers(pageCursors.page(teams, page, TeamDTO::id));
     }
-    public Set<TeamDTO> getAllTeams(JwtAuthenticationToken token) {
-        Company company = companyService.getCompany(token.getName());
-        Set<Team> teams = company.getTeams();
-        return TeamDTO.toDTOList(teams);
+    @Transactional(readOnly = true)
+    public PageDTO<TeamDTO> getTeams(PageRequestDTO page, JwtAuthenticationToken token) {
+        List<TeamDTO> teams = teamRepository.findAllDTOByProjectId(
+                tokenService.projectId(token), pageCursors.afterId(page), pageCursors.pageable(page));
+        return this.withMembers(pageCursors.page(teams, page, TeamDTO::id));
     }
-    public Set<TeamDTO> getTeams(JwtAuthenticationToken token) {
-        Employee manager = employeeService.getEmployee(token.getName());
 
-        Set<Team> teams = manager.getProject().getTeams();
-        return TeamDTO.toDTOList(teams);
+    private PageDTO<TeamDTO> withMembers(PageDTO<TeamDTO> page) {
+        if(page.items().isEmpty()) return page;
+        List<Long> ids = page.items().stream().map(TeamDTO::id).toList();
+        return new PageDTO<>(TeamDTO.withMembers(page.items(), teamRepository.findAllMemberDTOByTeamIdIn(ids)), page.next_cursor());
     }
 
-    private Set<Employee> filterToAdd(Set<String> data, Team team) {
-        Set<Employee> toAdd = new HashSet<>();
-        data.forEach(username -> {
-            Optional<Employee> optionalEmployee = employeeRepository.findByUsername(username);
-            if(optionalEmployee.isEmpty() || !optionalEmployee.get().getCompany().equals(team.getCompany()))
-                throw new NullEmployeeException();
-
-            Employee employee = optionalEmployee.get();
-            if(employee.getTeam() != null)
-                throw new InvalidEmployeeException("Already on a team");
-            else if(employee.getRole().equals(Role.MANAGER))
-                throw new InvalidEmployeeException("Manager can not be part of the team");
-
-            employee.setTeam(team);
-            toAdd.add(employee);
-        });
-        return toAdd;
+    // One lookup for every username, a missing one means it is not an employee of the company
+    private List<Employee> findEmployees(Set<String> usernames, UUID companyId) {
+        if(usernames.isEmpty()) return List.of();
+        List<Employee> employees = employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId);
+        if(employees.size() != usernames.size())
+            throw new NullEmployeeException();
+        return employees;
+    }
+    private void checkJoinable(Employee employee) {
+        if(employee.getTeam() != null)
+            throw new InvalidEmployeeException("Already on a team");
+        else if(employee.getRole().equals(Role.MANAGER))
+            throw new InvalidEmployeeException("Manager can not be part of the team");
+    }
+    private void checkMember(Employee employee, Long teamId) {
+        if(employee.getTeam() == null || !employee.getTeam().getId().equals(teamId))
+            throw new InvalidEmployeeException("Does not exist in the team");
+    }
+
+    private void join(Long teamId, List<Employee> employees, UUID companyId) {
+        if(employees.isEmpty()) return;
+        Set<String> usernames = employees.stream().map(Employee::getUsername).collect(Collectors.toSet());
+        this.checkUpdated(employeeRepository.joinTeamByUsernameIn(teamId, usernames, companyId), employees);
+        projectSummaryRepository.addMembersByTeamId(teamId, employees.size());
+    }
+    private void leave(Long teamId, List<Employee> employees) {
+        if(employees.isEmpty()) return;
+        Set<String> usernames = employees.stream().map(Employee::getUsername).collect(Collectors.toSet());
+        this.checkUpdated(employeeRepository.leaveTeamByUsernameIn(teamId, usernames), employees);
+        projectSummaryRepository.addMembersByTeamId(teamId, -employees.size());
     }
-    private Set<Employee> filterToRemove(Set<String> data, Team team) {
-        Set<Employee> toRemove = new HashSet<>();
-        data.forEach(username -> {
-            Employee employee = employeeRepository.findByUsername(username)
-                    .orElseThrow(NullEmployeeException::new);
-            if(!employee.getTeam().equals(team))
-                throw new InvalidEmployeeException("Does not exist in the team");
-
-            employee.setTeam(null);
-            toRemove.add(employee);
-        });
-        return toRemove;
+    // The updates repeat the checks in their where clause, fewer rows means another request changed them first
+    private void checkUpdated(int updated, List<Employee> employees) {
+        if(updated != employees.size())
+            throw new InvalidEmployeeException("Team membership changed concurrently");
+        employees.forEach(employee -> membershipService.evict(employee.getId()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.office.api.service;
+
+import com.office.api.model.Company;
+import com.office.api.model.Employee;
+import com.office.api.model.Team;
+import com.office.api.model.enums.Role;
+import com.office.api.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Issues the access tokens and reads back the identifiers they carry, so the
+ * services can authorize a request without loading the caller first. Access tokens
+ * are short-lived and tied to the refresh token session they were issued for.
+ */
+@Service
+public class TokenService {
+    public static final String SESSION_CLAIM = "sid";
+    public static final String COMPANY_CLAIM = "company";
+    public static final String PROJECT_CLAIM = "project";
+    public static final String TEAM_CLAIM = "team";
+    public static final String VERSION_CLAIM = "version";
+
+    private final JwtEncoder jwtEncoder;
+    private final ProjectRepository projectRepository;
+    private final Duration accessTokenTtl;
+
+    public TokenService(JwtEncoder jwtEncoder, ProjectRepository projectRepository,
+                        @Value("${office.jwt.access-token-ttl}") Duration accessTokenTtl) {
+        this.jwtEncoder = jwtEncoder;
+        this.projectRepository = projectRepository;
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public long expiresIn() {
+        return accessTokenTtl.toSeconds();
+    }
+
+    public Jwt issue(Company company, UUID session) {
+        var now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("office.api")
+                .subject(company.getId().toString())
+                .expiresAt(now.plus(accessTokenTtl))
+                .claim("scope", company.getRole())
+                .claim(COMPANY_CLAIM, company.getId().toString())
+                .claim(SESSION_CLAIM, session.toString())
+                .issuedAt(now)
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims));
+    }
+    public Jwt issue(Employee employee, UUID session) {
+        var now = Instant.now();
+        var roles = employee.getRole().equals(Role.MANAGER)?
+                Set.of(Role.MANAGER, Role.EMPLOYEE):
+                Set.of(Role.EMPLOYEE);
+
+        Team team = employee.getTeam();
+        Long projectId = employee.getRole().equals(Role.MANAGER)?
+                projectRepository.findIdByManagerId(employee.getId()).orElse(null):
+                team == null ? null : team.getProject().getId();
+
+        var claims = JwtClaimsSet.builder()
+                .issuer("office.api")
+                .subject(employee.getId().toString())
+                .expiresAt(now.plus(accessTokenTtl))
+                .claim("scope", roles)
+                .claim(COMPANY_CLAIM, employee.getCompany().getId().toString())
+                .claim(VERSION_CLAIM, employee.getMembershipVersion())
+                .claim(SESSION_CLAIM, session.toString())
+                .issuedAt(now);
+        if(projectId != null) claims.claim(PROJECT_CLAIM, projectId);
+        if(team != null) claims.claim(TEAM_CLAIM, team.getId());
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims.build()));
+    }
+
+    public UUID subject(JwtAuthenticationToken token) {
+        return UUID.fromString(token.getName());
+    }
+    public boolean isCompany(JwtAuthenticationToken token) {
+        return token.getAuthorities().stream()
+                .anyMatch(authority -> ("SCOPE_" + Role.COMPANY).equals(authority.getAuthority()));
+    }
+    public UUID companyId(JwtAuthenticationToken token) {
+        return UUID.fromString(token.getToken().getClaimAsString(COMPANY_CLAIM));
+    }
+    public Long projectId(JwtAuthenticationToken token) {
+        return this.longClaim(token.getToken(), PROJECT_CLAIM);
+    }
+    public Long teamId(JwtAuthenticationToken token) {
+        return this.longClaim(token.getToken(), TEAM_CLAIM);
+    }
+
+    private Long longClaim(Jwt jwt, String claim) {
+        Object value = jwt.getClaim(claim);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.office.api.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing map from {@link UUID} to {@code int}. Keys are stored as their two
+ * {@code long} halves so lookups neither box nor allocate. Not thread safe, callers
+ * guard it themselves.
+ */
+final class UuidIntMap {
+    static final int MISSING = -1;
+
+    private long[] most;
+    private long[] least;
+    private int[] values;
+    private int size;
+    private boolean hasZero;
+    private int zeroValue;
+
+    UuidIntMap() {
+        this(16);
+    }
+    UuidIntMap(int capacity) {
+        int length = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+        this.most = new long[length];
+        this.least = new long[length];
+        this.values = new int[length];
+    }
+
+    int get(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        if(msb == 0L && lsb == 0L) return hasZero ? zeroValue : MISSING;
+
+        int mask = most.length - 1;
+        for(int slot = mix(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            if(most[slot] == msb && least[slot] == lsb) return values[slot];
+            if(most[slot] == 0L && least[slot] == 0L) return MISSING;
+        }
+    }
+    void put(UUID key, int value) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        if(msb == 0L && lsb == 0L) {
+            if(!hasZero) size++;
+            hasZero = true;
+            zeroValue = value;
+            return;
+        }
+
+        int mask = most.length - 1;
+        int slot = mix(msb, lsb) & mask;
+        while(!this.isEmpty(slot) && (most[slot] != msb || least[slot] != lsb))
+            slot = (slot + 1) & mask;
+        values[slot] = value;
+        if(this.isEmpty(slot)) {
+            most[slot] = msb;
+            least[slot] = lsb;
+            if(++size * 2 > most.length)
+                this.resize(most.length << 1);
+        }
+    }
+    void remove(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        if(msb == 0L && lsb == 0L) {
+            if(hasZero) size--;
+            hasZero = false;
+            return;
+        }
+
+        int mask = most.length - 1;
+        int slot = mix(msb, lsb) & mask;
+        while(most[slot] != msb || least[slot] != lsb) {
+            if(this.isEmpty(slot)) return;
+            slot = (slot + 1) & mask;
+        }
+        size--;
+
+        for(int next = (slot + 1) & mask; !this.isEmpty(next); next = (next + 1) & mask) {
+            int home = mix(most[next], least[next]) & mask;
+            if(((next - home) & mask) >= ((next - slot) & mask)) {
+                most[slot] = most[next];
+                least[slot] = least[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        most[slot] = 0L;
+        least[slot] = 0L;
+    }
+    void clear() {
+        Arrays.fill(most, 0L);
+        Arrays.fill(least, 0L);
+        hasZero = false;
+        size = 0;
+    }
+    int size() {
+        return size;
+    }
+
+    private boolean isEmpty(int slot) {
+        return most[slot] == 0L && least[slot] == 0L;
+    }
+    private void resize(int length) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        int[] oldValues = values;
+        most = new long[length];
+        least = new long[length];
+        values = new int[length];
+
+        int mask = length - 1;
+        for(int i = 0; i < oldMost.length; i++) {
+            if(oldMost[i] == 0L && oldLeast[i] == 0L) continue;
+            int slot = mix(oldMost[i], oldLeast[i]) & mask;
+            while(!this.isEmpty(slot))
+                slot = (slot + 1) & mask;
+            most[slot] = oldMost[i];
+            least[slot] = oldLeast[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long msb, long lsb) {
+        return LongIntMap.mix(msb ^ Long.rotateLeft(lsb, 32));
+    }
+}
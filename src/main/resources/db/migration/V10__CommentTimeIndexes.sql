@@ -0,0 +1,6 @@
+-- Comment feeds page newest first by posting time, the id only breaks ties.
+-- Pooled ids are handed out in blocks per instance, so they do not follow time.
+drop index comments_task_id_id_idx;
+drop index comments_owner_id_id_idx;
+create index comments_task_id_posted_at_id_idx on comments (task_id, posted_at desc, id desc);
+create index comments_owner_id_posted_at_id_idx on comments (owner_id, posted_at desc, id desc);
@@ -0,0 +1,19 @@
+-- One row of counters per project, kept by the writes of the same transaction
+create table project_summaries (
+    project_id integer primary key references projects (id) on delete cascade on update cascade,
+    tasks bigint not null default 0,
+    comments bigint not null default 0,
+    teams bigint not null default 0,
+    members bigint not null default 0
+);
+
+insert into project_summaries (project_id, tasks, comments, teams, members)
+select p.id,
+       (select count(*) from tasks t where t.project_id = p.id),
+       (select count(*) from comments c join tasks t on t.id = c.task_id where t.project_id = p.id),
+       (select count(*) from teams m where m.project_id = p.id),
+       (select count(*) from employees e join teams m on m.id = e.team_id where m.project_id = p.id)
+from projects p;
+
+-- Expiry moves with the clock, so expired tasks are counted from this index on read
+create index tasks_project_id_deadline_idx on tasks (project_id, deadline);
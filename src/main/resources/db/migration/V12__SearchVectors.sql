@@ -0,0 +1,9 @@
+-- The simple configuration neither stems nor drops stop words, so any language matches as typed
+alter table tasks add column search tsvector generated always as (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')) stored;
+alter table comments add column search tsvector generated always as (
+    to_tsvector('simple', coalesce(content, ''))) stored;
+
+create index tasks_search_idx on tasks using gin (search);
+create index comments_search_idx on comments using gin (search);
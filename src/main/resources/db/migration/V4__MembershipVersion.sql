@@ -0,0 +1 @@
+alter table employees add column membership_version bigint not null default 0;
@@ -0,0 +1,14 @@
+create table refresh_tokens (
+    id uuid primary key,
+    token_hash varchar(64) unique not null,
+    subject uuid not null,
+    realm smallint not null,
+    session uuid not null,
+    expires_at timestamp not null,
+    used_at timestamp,
+    revoked_at timestamp
+);
+
+create index refresh_tokens_subject_idx on refresh_tokens (subject);
+create index refresh_tokens_session_idx on refresh_tokens (session);
+create index refresh_tokens_revoked_at_idx on refresh_tokens (revoked_at);
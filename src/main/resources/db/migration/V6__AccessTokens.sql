@@ -0,0 +1,7 @@
+create table access_tokens (
+    token_hash varchar(64) primary key,
+    claims text not null,
+    expires_at timestamp not null
+);
+
+create index access_tokens_expires_at_idx on access_tokens (expires_at);
@@ -0,0 +1,8 @@
+create index employees_company_id_username_idx on employees (company_id, username);
+create index employees_team_id_idx on employees (team_id);
+create index projects_company_id_id_idx on projects (company_id, id);
+create index teams_company_id_id_idx on teams (company_id, id);
+create index teams_project_id_id_idx on teams (project_id, id);
+create index tasks_project_id_id_idx on tasks (project_id, id);
+create index comments_task_id_id_idx on comments (task_id, id);
+create index comments_owner_id_id_idx on comments (owner_id, id);
@@ -0,0 +1,7 @@
+drop trigger update_project_expired_trigger on projects;
+drop function update_project_expired();
+drop trigger update_task_expired_trigger on tasks;
+drop function update_task_expired();
+
+alter table projects drop column expired;
+alter table tasks drop column expired;
@@ -0,0 +1,6 @@
+-- Hibernate reserves 50 ids per nextval, the sequence step must match its allocation size
+alter sequence adresses_id_seq increment by 50;
+alter sequence projects_id_seq increment by 50;
+alter sequence teams_id_seq increment by 50;
+alter sequence tasks_id_seq increment by 50;
+alter sequence comments_id_seq increment by 50;
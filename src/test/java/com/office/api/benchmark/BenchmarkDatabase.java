@@ -0,0 +1,63 @@
+package com.office.api.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * An embedded Postgres for the database benchmarks, migrated by the Flyway scripts up to
+ * the given version. Connections rewrite batched inserts as the application's pool does.
+ * Postgres refuses to start as root, so these benchmarks have to run as another user.
+ */
+final class BenchmarkDatabase implements Closeable {
+    static final String COMPANY = "00000000-0000-0000-0000-000000000001";
+
+    private final EmbeddedPostgres postgres;
+    private final DataSource dataSource;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres, DataSource dataSource) {
+        this.postgres = postgres;
+        this.dataSource = dataSource;
+    }
+
+    static BenchmarkDatabase migrated(String version) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        DataSource dataSource = postgres.getPostgresDatabase(Map.of("reWriteBatchedInserts", "true"));
+        Flyway.configure().dataSource(dataSource).target(version).load().migrate();
+        return new BenchmarkDatabase(postgres, dataSource);
+    }
+
+    DataSource dataSource() {
+        return dataSource;
+    }
+    void execute(String... statements) throws SQLException {
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for(String sql : statements) statement.execute(sql);
+        }
+    }
+    // One company with employees named employee-0 onwards, employee(i) is the uuid of employee-i
+    void seedCompany(int employees) throws SQLException {
+        this.execute("""
+                insert into companies (id, name, cnpj, password, role)
+                values ('%s', 'company', '00000000000100', 'password', 0)""".formatted(COMPANY), """
+                insert into employees (id, name, username, cpf, email, password, role, company_id)
+                select %s, 'Employee ' || i, 'employee-' || i, lpad(i::text, 11, '0'),
+                       'employee-' || i || '@office.com', 'password', 2, '%s'
+                from generate_series(0, %d) i""".formatted(employee("i"), COMPANY, employees - 1));
+    }
+    static String employee(String number) {
+        return "cast('00000000-0000-0000-0001-' || lpad((" + number + ")::text, 12, '0') as uuid)";
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
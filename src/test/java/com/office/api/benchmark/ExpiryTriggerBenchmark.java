@@ -0,0 +1,66 @@
+package com.office.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of inserting one task into a table of {@code rows} tasks, half of them past their
+ * deadline. Schema 3 still has the statement triggers of V3, which marked every expired
+ * row on each insert, and schema 8 is after V8 dropped them and derives expiry on read.
+ * Runs on an embedded Postgres migrated to each version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExpiryTriggerBenchmark {
+    @Param({"3", "8"})
+    private String schema;
+    @Param({"1000000"})
+    private int rows;
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private long next;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.migrated(schema);
+        database.seedCompany(1);
+        // Schema 3 still stores the expired flag, the triggers keep it up to date
+        String expired = schema.equals("3") ? ", expired" : "";
+        String notExpired = schema.equals("3") ? ", false" : "";
+        database.execute("""
+                insert into projects (id, name, description, deadline, company_id, manager_id%s)
+                values (1, 'project', 'description', current_date + 30, '%s', %s%s)"""
+                        .formatted(expired, BenchmarkDatabase.COMPANY, BenchmarkDatabase.employee("0"), notExpired), """
+                insert into tasks (title, description, deadline, project_id%s)
+                select 'task-' || i, 'description', now() + (case when i %% 2 = 0 then -7 else 7 end) * interval '1 day', 1%s
+                from generate_series(1, %d) i""".formatted(expired, notExpired, rows),
+                "vacuum analyze tasks");
+
+        connection = database.dataSource().getConnection();
+        insert = connection.prepareStatement("""
+                insert into tasks (title, description, deadline, project_id%s)
+                values (?, 'description', now() + interval '7 days', 1%s)""".formatted(expired, notExpired));
+        next = rows;
+    }
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        insert.setString(1, "task-" + ++next);
+        return insert.executeUpdate();
+    }
+}
@@ -0,0 +1,98 @@
+package com.office.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of flushing {@code rows} new comments the way Hibernate issues them with each id
+ * generator: IDENTITY sends every insert on its own and reads the key it returns, while
+ * the pooled sequence reserves fifty ids per nextval and sends the inserts in batches of
+ * fifty, rewritten by the driver as multi-row inserts. Runs on an embedded Postgres
+ * migrated to V9, whose sequences step by fifty. The database is on the same host, so the
+ * round trip a statement saves here is far shorter than over a network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdGenerationBenchmark {
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "pooled"})
+    private String generator;
+    @Param({"10000"})
+    private int rows;
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement nextval;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.migrated("9");
+        database.seedCompany(1);
+        database.execute("""
+                insert into projects (id, name, description, deadline, company_id, manager_id)
+                values (1, 'project', 'description', current_date + 30, '%s', %s)"""
+                        .formatted(BenchmarkDatabase.COMPANY, BenchmarkDatabase.employee("0")), """
+                insert into tasks (id, title, description, deadline, project_id)
+                values (1, 'task', 'description', now() + interval '7 days', 1)""");
+
+        connection = database.dataSource().getConnection();
+        connection.setAutoCommit(false);
+        insert = generator.equals("identity")
+                ? connection.prepareStatement("insert into comments (content, owner_id, task_id, posted_at) values (?, ?, 1, ?)", new String[]{"id"})
+                : connection.prepareStatement("insert into comments (content, owner_id, task_id, posted_at, id) values (?, ?, 1, ?, ?)");
+        nextval = connection.prepareStatement("select nextval('comments_id_seq')");
+    }
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("truncate comments");
+        }
+        connection.commit();
+    }
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    public long flush() throws SQLException {
+        UUID owner = UUID.fromString("00000000-0000-0000-0001-000000000000");
+        Timestamp postedAt = new Timestamp(System.currentTimeMillis());
+        long last = 0;
+        for(int i = 0; i < rows; i++) {
+            insert.setString(1, "comment " + i);
+            insert.setObject(2, owner);
+            insert.setTimestamp(3, postedAt);
+            if(generator.equals("identity")) {
+                insert.executeUpdate();
+                try(ResultSet key = insert.getGeneratedKeys()) {
+                    key.next();
+                    last = key.getLong(1);
+                }
+                continue;
+            }
+            if(i % BATCH_SIZE == 0) {
+                try(ResultSet value = nextval.executeQuery()) {
+                    value.next();
+                    last = value.getLong(1);
+                }
+            }
+            insert.setLong(4, last + i % BATCH_SIZE);
+            insert.addBatch();
+            if(i % BATCH_SIZE == BATCH_SIZE - 1 || i == rows - 1)
+                insert.executeBatch();
+        }
+        connection.commit();
+        return last;
+    }
+}
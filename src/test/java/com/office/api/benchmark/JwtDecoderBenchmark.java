@@ -0,0 +1,106 @@
+package com.office.api.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.office.api.configuration.CachingJwtDecoder;
+import com.office.api.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of turning a bearer token into a {@link Jwt}: a full Nimbus
+ * verification, as every request paid before the verified token cache, against a hit in
+ * the {@link CachingJwtDecoder}. Decoders are set up the way {@code SecurityConfiguration}
+ * builds them and the token carries the claims an employee token does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecoderBenchmark {
+    @Param({"RS256", "ES256"})
+    private String algorithm;
+
+    private JwtDecoder verifying;
+    private JwtDecoder caching;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        JWK jwk = signingKey(SignatureAlgorithm.from(algorithm));
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+        token = encoder.encode(JwtEncoderParameters.from(
+                JwsHeader.with(SignatureAlgorithm.from(algorithm)).build(), employeeClaims())).getTokenValue();
+
+        var processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.parse(algorithm),
+                new ImmutableJWKSet<>(new JWKSet(jwk.toPublicJWK()))));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+        verifying = new NimbusJwtDecoder(processor);
+        caching = new CachingJwtDecoder(verifying, jwt -> OAuth2TokenValidatorResult.success(),
+                10_000, new SimpleMeterRegistry());
+        caching.decode(token);
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return verifying.decode(token);
+    }
+    @Benchmark
+    public Jwt cached() {
+        return caching.decode(token);
+    }
+
+    static JwtClaimsSet employeeClaims() {
+        Instant now = Instant.now();
+        return JwtClaimsSet.builder()
+                .issuer("office.api")
+                .subject(UUID.randomUUID().toString())
+                .expiresAt(now.plusSeconds(3600))
+                .claim("scope", Set.of("MANAGER", "EMPLOYEE"))
+                .claim(TokenService.COMPANY_CLAIM, UUID.randomUUID().toString())
+                .claim(TokenService.VERSION_CLAIM, 3L)
+                .claim(TokenService.SESSION_CLAIM, UUID.randomUUID().toString())
+                .claim(TokenService.PROJECT_CLAIM, 42L)
+                .claim(TokenService.TEAM_CLAIM, 7L)
+                .issuedAt(now)
+                .build();
+    }
+    static JWK signingKey(SignatureAlgorithm algorithm) throws Exception {
+        if(algorithm == SignatureAlgorithm.ES256) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            var pair = generator.generateKeyPair();
+            return new ECKey.Builder(Curve.P_256, (ECPublicKey) pair.getPublic())
+                    .privateKey((ECPrivateKey) pair.getPrivate()).build();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var pair = generator.generateKeyPair();
+        return new RSAKey.Builder((RSAPublicKey) pair.getPublic())
+                .privateKey((RSAPrivateKey) pair.getPrivate()).build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.office.api.benchmark;
+
+import com.office.api.model.Task;
+import com.office.api.model.Team;
+import com.office.api.model.dto.task.TaskDTO;
+import com.office.api.model.dto.team.TeamDTO;
+import com.office.api.repository.TaskRepository;
+import com.office.api.repository.TeamRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading every team of a company and every task of a project, with their members
+ * and comments, through the JPQL projections of TeamRepository and TaskRepository and
+ * through fetch-joined entities mapped by TeamDTO.toDTO and TaskDTO.toDTO. Both paths run
+ * in a read-only transaction on an embedded Postgres migrated to the latest version, with
+ * 500 teams of two members, 500 tasks and 1000 comments. The second-level cache is off,
+ * so the entity path hydrates every row it reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProjectionBenchmark {
+    private static final UUID COMPANY = UUID.fromString(BenchmarkDatabase.COMPANY);
+    private static final PageRequest PAGE = PageRequest.ofSize(500);
+
+    private BenchmarkDatabase database;
+    private LocalContainerEntityManagerFactoryBean factory;
+    private EntityManager entityManager;
+    private TeamRepository teamRepository;
+    private TaskRepository taskRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.migrated("latest");
+        database.seedCompany(1001);
+        database.execute("""
+                insert into projects (id, name, description, deadline, company_id, manager_id)
+                values (1, 'project', 'description', current_date + 30, '%s', %s)"""
+                        .formatted(BenchmarkDatabase.COMPANY, BenchmarkDatabase.employee("0")), """
+                insert into teams (id, name, company_id, project_id)
+                select i, 'team-' || i, '%s', 1 from generate_series(1, 500) i""".formatted(BenchmarkDatabase.COMPANY),
+                // employee-1 and employee-2 join team 1, employee-3 and employee-4 team 2 and so on
+                "update employees set team_id = (substring(username from 10)::int + 1) / 2 where username <> 'employee-0'", """
+                insert into tasks (id, title, description, deadline, project_id)
+                select i, 'task-' || i, 'description', now() + interval '7 days', 1 from generate_series(1, 500) i""", """
+                insert into comments (content, owner_id, task_id, posted_at)
+                select 'comment ' || i, %s, (i + 1) / 2, now() - i * interval '1 minute'
+                from generate_series(1, 1000) i""".formatted(BenchmarkDatabase.employee("i")),
+                "vacuum analyze");
+
+        factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(database.dataSource());
+        factory.setPackagesToScan("com.office.api.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // The naming strategies Spring Boot configures for the application
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.implicit_naming_strategy", "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy",
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.hbm2ddl.auto", "none"));
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        teamRepository = repositoryFactory.getRepository(TeamRepository.class);
+        taskRepository = repositoryFactory.getRepository(TaskRepository.class);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        transactionTemplate.setReadOnly(true);
+    }
+    @TearDown
+    public void tearDown() throws Exception {
+        factory.destroy();
+        database.close();
+    }
+
+    @Benchmark
+    public List<TeamDTO> teamsProjection() {
+        return transactionTemplate.execute(status -> {
+            List<TeamDTO> teams = teamRepository.findAllDTOByCompanyId(COMPANY, 0L, PAGE);
+            return TeamDTO.withMembers(teams, teamRepository.findAllMemberDTOByTeamIdIn(teams.stream().map(TeamDTO::id).toList()));
+        });
+    }
+    @Benchmark
+    public List<TeamDTO> teamsEntity() {
+        return transactionTemplate.execute(status -> entityManager.createQuery("""
+                        select distinct t from Team t join fetch t.project p left join fetch p.manager
+                        left join fetch t.members e left join fetch e.company where t.company.id = :companyId""", Team.class)
+                .setParameter("companyId", COMPANY)
+                .getResultStream().map(TeamDTO::toDTO).toList());
+    }
+    @Benchmark
+    public List<TaskDTO> tasksProjection() {
+        return transactionTemplate.execute(status -> {
+            List<TaskDTO> tasks = taskRepository.findAllDTOByProjectId(1L, 0L, PAGE);
+            return TaskDTO.withComments(tasks, taskRepository.findAllCommentDTOByTaskIdIn(tasks.stream().map(TaskDTO::id).toList()));
+        });
+    }
+    @Benchmark
+    public List<TaskDTO> tasksEntity() {
+        return transactionTemplate.execute(status -> entityManager.createQuery("""
+                        select distinct t from Task t left join fetch t.comments c left join fetch c.owner
+                        where t.project.id = :projectId""", Task.class)
+                .setParameter("projectId", 1L)
+                .getResultStream().map(TaskDTO::toDTO).toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.office.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost of each signing key type the tokens could use: RSA 2048 (RS256),
+ * EC P-256 (ES256) and Ed25519 (EdDSA). All three go through the JDK providers, which
+ * the Nimbus RSA and EC signers wrap as well, over the signing input of an employee token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningBenchmark {
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private Signature signer;
+    private Signature verifier;
+    private byte[] input;
+    private byte[] signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair pair = switch(algorithm) {
+            case "RS256" -> generate("RSA", generator -> generator.initialize(2048));
+            case "ES256" -> generate("EC", generator -> generator.initialize(new ECGenParameterSpec("secp256r1")));
+            default -> generate("Ed25519", generator -> {});
+        };
+        String name = switch(algorithm) {
+            case "RS256" -> "SHA256withRSA";
+            case "ES256" -> "SHA256withECDSAinP1363Format";
+            default -> "Ed25519";
+        };
+        signer = Signature.getInstance(name);
+        signer.initSign(pair.getPrivate());
+        verifier = Signature.getInstance(name);
+        verifier.initVerify(pair.getPublic());
+
+        String claims = JwtDecoderBenchmark.employeeClaims().getClaims().toString();
+        input = ("eyJhbGciOiJ" + algorithm + "In0." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(claims.getBytes(StandardCharsets.UTF_8))).getBytes(StandardCharsets.US_ASCII);
+        signature = this.sign();
+    }
+
+    @Benchmark
+    public byte[] sign() throws Exception {
+        signer.update(input);
+        return signer.sign();
+    }
+    @Benchmark
+    public boolean verify() throws Exception {
+        verifier.update(input);
+        return verifier.verify(signature);
+    }
+
+    private static KeyPair generate(String type, Initializer initializer) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(type);
+        initializer.initialize(generator);
+        return generator.generateKeyPair();
+    }
+
+    private interface Initializer {
+        void initialize(KeyPairGenerator generator) throws Exception;
+    }
+}
@@ -0,0 +1,63 @@
+package com.office.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.office.api.configuration.OpaqueTokenDecoder;
+import com.office.api.repository.AccessTokenRepository;
+import com.office.api.service.AccessTokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost of each {@code office.token.mode}: resolving an opaque
+ * token through the {@link AccessTokenStore} cache, and rejecting an unknown one from the
+ * absent entries, next to the JWT numbers of {@link JwtDecoderBenchmark}. The repository
+ * answers from memory, so a store miss would add one primary-key read on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenModeBenchmark {
+    private JwtDecoder opaque;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var repository = (AccessTokenRepository) Proxy.newProxyInstance(
+                AccessTokenRepository.class.getClassLoader(), new Class<?>[]{AccessTokenRepository.class},
+                (proxy, method, args) -> switch(method.getName()) {
+                    case "findById" -> Optional.empty();
+                    case "save" -> args[0];
+                    case "deleteExpired" -> 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        var tokenStore = new AccessTokenStore(repository, new ObjectMapper(), new SimpleMeterRegistry(),
+                10_000, Duration.ofSeconds(30));
+        opaque = new OpaqueTokenDecoder(tokenStore, jwt -> OAuth2TokenValidatorResult.success());
+        token = tokenStore.issue(JwtDecoderBenchmark.employeeClaims()).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt opaqueCached() {
+        return opaque.decode(token);
+    }
+    @Benchmark
+    public Object opaqueUnknown() {
+        try {
+            return opaque.decode("unknown");
+        } catch(BadJwtException exception) {
+            return exception;
+        }
+    }
+}
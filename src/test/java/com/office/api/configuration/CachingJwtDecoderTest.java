@@ -0,0 +1,119 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+    private final Instant now = Instant.parse("2030-01-01T12:00:00Z");
+    private JwtDecoder delegate;
+    private OAuth2TokenValidator<Jwt> validator;
+    private MutableClock clock;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(JwtDecoder.class);
+        clock = new MutableClock(now);
+        validator = mock(OAuth2TokenValidator.class);
+        when(validator.validate(any())).thenReturn(OAuth2TokenValidatorResult.success());
+        decoder = new CachingJwtDecoder(delegate, validator, 100, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    @DisplayName("Decodes Token Once")
+    void decode_cached() {
+        Jwt jwt = jwt(now.plusSeconds(3600));
+        when(delegate.decode("Test Token")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("Test Token"));
+        assertSame(jwt, decoder.decode("Test Token"));
+
+        verify(delegate, times(1)).decode("Test Token");
+        verify(validator, times(2)).validate(jwt);
+        assertEquals(0.5, decoder.hitRatio());
+    }
+    @Test
+    @DisplayName("Decodes Token Unsuccessfully - Cached Token Fails Validation")
+    void decode_invalidated() {
+        Jwt jwt = jwt(now.plusSeconds(3600));
+        when(delegate.decode("Test Token")).thenReturn(jwt);
+
+        decoder.decode("Test Token");
+        when(validator.validate(jwt)).thenReturn(OAuth2TokenValidatorResult.failure(
+                new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token membership is outdated", null)));
+
+        assertThrows(JwtValidationException.class, () -> decoder.decode("Test Token"));
+        verify(delegate, times(1)).decode("Test Token");
+    }
+    @Test
+    @DisplayName("Decodes Token Again - Expired Entry")
+    void decode_expired() {
+        Jwt expiring = jwt(now.plusSeconds(60));
+        when(delegate.decode("Test Token")).thenReturn(expiring);
+
+        decoder.decode("Test Token");
+        clock.instant = now.plusSeconds(61);
+
+        assertThrows(JwtException.class, () -> {
+            when(delegate.decode("Test Token")).thenThrow(new JwtException("Jwt expired"));
+            decoder.decode("Test Token");
+        });
+        verify(delegate, times(2)).decode("Test Token");
+    }
+    @Test
+    @DisplayName("Decodes Token Unsuccessfully - Invalid Token")
+    void decode_unsuccessful() {
+        when(delegate.decode("Test Token")).thenThrow(new JwtException("Invalid signature"));
+
+        assertThrows(JwtException.class, () -> decoder.decode("Test Token"));
+        assertThrows(JwtException.class, () -> decoder.decode("Test Token"));
+
+        verify(delegate, times(2)).decode("Test Token");
+    }
+
+    private Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("Test Token")
+                .header("alg", "RS256")
+                .subject("Test Subject")
+                .issuedAt(now)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.office.api.configuration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate write;
+    private TransactionTemplate read;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                database("primary"), database("replica"), Duration.ofSeconds(5), 100, nanos::get));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        write = new TransactionTemplate(transactionManager);
+        read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+    }
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Routes Read-Only Transactions to the Replica")
+    void read_replica() {
+        this.authenticate("subject");
+
+        assertEquals("replica", this.read());
+    }
+    @Test
+    @DisplayName("Routes Read-Write Transactions to the Primary")
+    void write_primary() {
+        this.authenticate("subject");
+
+        assertEquals("primary", write.execute(status -> this.database()));
+    }
+    @Test
+    @DisplayName("Routes Statements Outside Transactions to the Primary")
+    void noTransaction_primary() {
+        assertEquals("primary", this.database());
+    }
+    @Test
+    @DisplayName("Pins a Subject that Wrote to the Primary")
+    void read_pinned() {
+        this.authenticate("subject");
+        write.executeWithoutResult(status -> this.database());
+
+        assertEquals("primary", this.read());
+
+        this.authenticate("other");
+        assertEquals("replica", this.read());
+    }
+    @Test
+    @DisplayName("Releases the Pin after the Window")
+    void read_pinExpired() {
+        this.authenticate("subject");
+        write.executeWithoutResult(status -> this.database());
+
+        nanos.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals("primary", this.read());
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("replica", this.read());
+    }
+
+    private String read() {
+        return read.execute(status -> this.database());
+    }
+    private String database() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+    private void authenticate(String subject) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(subject, null));
+    }
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(16))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package com.office.api.configuration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigurationTest {
+    @Test
+    @DisplayName("Accepts the Algorithms the Signing Keys Are Read For")
+    void supportedAlgorithm_successful() {
+        assertEquals(SignatureAlgorithm.RS256, SecurityConfiguration.supportedAlgorithm("RS256"));
+        assertEquals(SignatureAlgorithm.ES256, SecurityConfiguration.supportedAlgorithm("ES256"));
+    }
+    @Test
+    @DisplayName("Start Unsuccessfully - Unknown Algorithm")
+    void supportedAlgorithm_unsuccessful_case01() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new SecurityConfiguration("EdDSA"));
+
+        assertEquals("Unsupported JWT algorithm EdDSA, office.jwt.algorithm (JWT_ALGORITHM) must be one of RS256, ES256",
+                exception.getMessage());
+    }
+    @Test
+    @DisplayName("Start Unsuccessfully - Algorithm Without a Key Reader")
+    void supportedAlgorithm_unsuccessful_case02() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new SecurityConfiguration("RS384"));
+
+        assertEquals("Unsupported JWT algorithm RS384, office.jwt.algorithm (JWT_ALGORITHM) must be one of RS256, ES256",
+                exception.getMessage());
+    }
+}
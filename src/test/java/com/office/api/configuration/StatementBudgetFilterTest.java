@@ -0,0 +1,65 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementBudgetFilterTest {
+    private SimpleMeterRegistry registry;
+    private JdbcTemplate jdbcTemplate;
+    private StatementBudgetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:budget;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(new StatementMetricsDataSource(target, registry, Duration.ofHours(1)));
+        filter = new StatementBudgetFilter(registry, 2);
+    }
+
+    @Test
+    @DisplayName("Counts Statements of a Request within the Budget")
+    void doFilter_withinBudget() throws Exception {
+        this.request(2);
+
+        assertEquals(2, registry.get("office.jdbc.request.statements").tag("uri", "/teams/{id}").summary().totalAmount());
+        assertNull(registry.find("office.jdbc.request.over.budget").counter());
+    }
+    @Test
+    @DisplayName("Counts Requests over the Budget")
+    void doFilter_overBudget() throws Exception {
+        this.request(3);
+        this.request(1);
+
+        assertEquals(4, registry.get("office.jdbc.request.statements").summary().totalAmount());
+        assertEquals(1, registry.get("office.jdbc.request.over.budget").tags("method", "GET", "uri", "/teams/{id}").counter().count());
+    }
+    @Test
+    @DisplayName("Leaves Statements outside Requests Uncounted")
+    void count_outsideRequest() throws Exception {
+        jdbcTemplate.queryForObject("select 1", Integer.class);
+        this.request(0);
+
+        assertEquals(0, registry.get("office.jdbc.request.statements").summary().totalAmount());
+    }
+
+    private void request(int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/teams/1");
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/teams/{id}");
+            for(int i = 0; i < statements; i++)
+                jdbcTemplate.queryForObject("select 1", Integer.class);
+        });
+    }
+}
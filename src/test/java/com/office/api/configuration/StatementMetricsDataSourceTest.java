@@ -0,0 +1,63 @@
+package com.office.api.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementMetricsDataSourceTest {
+    private SimpleMeterRegistry registry;
+    private JdbcDataSource target;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:statements;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(target).execute("create table if not exists notes (id int, text varchar(32))");
+    }
+
+    @Test
+    @DisplayName("Times Statements by Type")
+    void execute_timed() {
+        JdbcTemplate jdbcTemplate = this.jdbcTemplate(Duration.ofHours(1));
+
+        jdbcTemplate.update("insert into notes (id, text) values (?, ?)", 1, "first");
+        jdbcTemplate.batchUpdate("insert into notes (id, text) values (?, ?)", List.of(new Object[]{2, "second"}, new Object[]{3, "third"}));
+        jdbcTemplate.queryForList("select text from notes where id = ?", String.class, 1);
+        jdbcTemplate.execute("delete from notes");
+
+        assertEquals(2, registry.get("office.jdbc.statements").tag("type", "insert").timer().count());
+        assertEquals(1, registry.get("office.jdbc.statements").tag("type", "select").timer().count());
+        assertEquals(1, registry.get("office.jdbc.statements").tag("type", "delete").timer().count());
+        assertEquals(0, registry.get("office.jdbc.statements.slow").counter().count());
+    }
+    @Test
+    @DisplayName("Counts Statements over the Threshold as Slow")
+    void execute_slow() {
+        JdbcTemplate jdbcTemplate = this.jdbcTemplate(Duration.ZERO);
+
+        jdbcTemplate.queryForList("select text from notes", String.class);
+
+        assertEquals(1, registry.get("office.jdbc.statements.slow").counter().count());
+    }
+    @Test
+    @DisplayName("Redacts Literals from Logged Statements")
+    void redact() {
+        assertEquals("select t1_0.id from teams t1_0 where t1_0.name = ? and t1_0.id > ? limit ?",
+                StatementMetricsDataSource.redact("select t1_0.id from teams t1_0 where t1_0.name = 'o''brien' and t1_0.id > -12 limit 50"));
+        assertEquals("update employees set team_id = ? where id = ?",
+                StatementMetricsDataSource.redact("update employees set team_id = ? where id = ?"));
+    }
+
+    private JdbcTemplate jdbcTemplate(Duration slowThreshold) {
+        return new JdbcTemplate(new StatementMetricsDataSource(target, registry, slowThreshold));
+    }
+}
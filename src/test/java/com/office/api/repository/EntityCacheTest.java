@@ -0,0 +1,203 @@
+package com.office.api.repository;
+
+import com.office.api.configuration.CacheConfiguration;
+import com.office.api.model.Company;
+import com.office.api.model.Employee;
+import com.office.api.model.Project;
+import com.office.api.model.Team;
+import com.office.api.service.EntityCacheService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.jakarta.persistence.validation.mode=none"})
+@Import({CacheConfiguration.class, EntityCacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CompanyRepository companyRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private EntityCacheService entityCacheService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private UUID companyId;
+    private UUID managerId;
+    private UUID memberId;
+    private Long projectId;
+    private Long teamId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transaction.executeWithoutResult(status -> {
+            Company company = companyRepository.save(new Company("company", "cnpj", "password"));
+            Employee manager = employeeRepository.save(this.employee("manager", company));
+            Project project = projectRepository.save(new Project("project", "description", LocalDate.now().plusDays(30), company, manager));
+            Team team = teamRepository.save(new Team("team", company, project));
+            Employee member = this.employee("member", company);
+            member.setTeam(team);
+            employeeRepository.save(member);
+
+            companyId = company.getId();
+            managerId = manager.getId();
+            memberId = member.getId();
+            projectId = project.getId();
+            teamId = team.getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> {
+            employeeRepository.findAll().forEach(employee -> employee.setTeam(null));
+            teamRepository.deleteAll();
+            projectRepository.deleteAll();
+            employeeRepository.deleteAll();
+            companyRepository.deleteAll();
+        });
+    }
+
+    @Test
+    @DisplayName("Loads Entities by Id from the Cache")
+    void findById_cached() {
+        this.load();
+        assertEquals(4, statistics.getSecondLevelCachePutCount());
+
+        statistics.clear();
+        this.load();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        for(String region : Set.of("companies", "employees", "projects", "teams"))
+            assertEquals(1, statistics.getDomainDataRegionStatistics(region).getHitCount(), region);
+    }
+    @Test
+    @DisplayName("Refreshes the Cache on Entity Updates")
+    void save_refreshesCache() {
+        this.load();
+        transaction.executeWithoutResult(status -> {
+            Employee member = employeeRepository.findById(memberId).orElseThrow();
+            member.setName("renamed");
+            employeeRepository.save(member);
+        });
+
+        statistics.clear();
+        Employee member = transaction.execute(status -> employeeRepository.findById(memberId).orElseThrow());
+
+        assertEquals("renamed", member.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    @Test
+    @DisplayName("Invalidates Employees and Team Members on Bulk Updates")
+    void leaveTeamByUsernameIn_invalidatesCache() {
+        assertEquals(1, this.members());
+
+        transaction.executeWithoutResult(status -> employeeRepository.leaveTeamByUsernameIn(teamId, Set.of("member")));
+
+        assertEquals(0, this.members());
+        transaction.executeWithoutResult(status -> assertNull(employeeRepository.findById(memberId).orElseThrow().getTeam()));
+    }
+    @Test
+    @DisplayName("Evicts Team Members on Entity Updates of the Owning Side")
+    void save_evictsMembers() {
+        assertEquals(1, this.members());
+
+        transaction.executeWithoutResult(status -> {
+            Employee manager = employeeRepository.findById(managerId).orElseThrow();
+            manager.setTeam(teamRepository.getReferenceById(teamId));
+            employeeRepository.save(manager);
+        });
+
+        assertEquals(2, this.members());
+    }
+    @Test
+    @DisplayName("Evicts Rows Changed by Foreign Keys on Bulk Deletes")
+    void deleteByIdAndCompanyId_evictsCascades() {
+        this.load();
+        transaction.executeWithoutResult(status -> {
+            // What "on delete set null" does in Postgres, out of Hibernate's sight
+            jdbcTemplate.update("update employees set team_id = null where team_id = ?", teamId);
+            teamRepository.deleteByIdAndCompanyId(teamId, companyId);
+            entityCacheService.evict(Employee.class);
+        });
+
+        statistics.clear();
+        transaction.executeWithoutResult(status -> assertNull(employeeRepository.findById(memberId).orElseThrow().getTeam()));
+        assertEquals(1, statistics.getDomainDataRegionStatistics("employees").getMissCount());
+    }
+    @Test
+    @DisplayName("Loads Entities Read-Only without Flushing in Read-Only Transactions")
+    void findById_readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Team team = teamRepository.findById(teamId).orElseThrow();
+            team.setName("renamed");
+
+            assertTrue(session.isReadOnly(team));
+            assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+        });
+
+        assertEquals("team", jdbcTemplate.queryForObject("select name from teams where id = ?", String.class, teamId));
+    }
+
+    private void load() {
+        transaction.executeWithoutResult(status -> {
+            companyRepository.findById(companyId).orElseThrow();
+            employeeRepository.findById(memberId).orElseThrow();
+            projectRepository.findById(projectId).orElseThrow();
+            teamRepository.findById(teamId).orElseThrow();
+        });
+    }
+    private int members() {
+        return transaction.execute(status -> teamRepository.findById(teamId).orElseThrow().getMembers().size());
+    }
+    private Employee employee(String username, Company company) {
+        String cpf = String.format("%011d", Math.abs(username.hashCode()) % 100_000_000_000L);
+        return new Employee(username, username, cpf, username + "@office.com", "password", company);
+    }
+}
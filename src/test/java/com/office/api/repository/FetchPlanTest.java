@@ -0,0 +1,371 @@
+package com.office.api.repository;
+
+import com.office.api.model.*;
+import com.office.api.model.dto.comment.CommentDTO;
+import com.office.api.model.dto.employee.EmployeeDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.task.TaskDTO;
+import com.office.api.model.dto.team.TeamDTO;
+import com.office.api.service.PageCursors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.jakarta.persistence.validation.mode=none"})
+class FetchPlanTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private static final PageRequestDTO FIRST = new PageRequestDTO(null, 10, false);
+    private final PageCursors pageCursors = new PageCursors(10, 200);
+    private final PageCursors.TimeKey START = pageCursors.beforeTime(FIRST);
+
+    private Statistics statistics;
+    private Fixture small;
+    private Fixture large;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        small = this.seed("small", 2);
+        large = this.seed("large", 25);
+    }
+
+    @Test
+    @DisplayName("Lists Teams of a Company in Two Statements")
+    void findAllTeamsByCompanyId() {
+        assertStatements(2, fixture -> this.withMembers(teamRepository.findAllDTOByCompanyId(
+                fixture.company.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST))));
+    }
+    @Test
+    @DisplayName("Lists Teams of a Project in Two Statements")
+    void findAllTeamsByProjectId() {
+        assertStatements(2, fixture -> this.withMembers(teamRepository.findAllDTOByProjectId(
+                fixture.project.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST))));
+    }
+    @Test
+    @DisplayName("Lists Tasks of a Project in Two Statements")
+    void findAllTasksByProjectId() {
+        assertStatements(2, fixture -> {
+            List<TaskDTO> tasks = taskRepository.findAllDTOByProjectId(
+                    fixture.project.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST));
+            return TaskDTO.withComments(tasks, taskRepository.findAllCommentDTOByTaskIdIn(tasks.stream().map(TaskDTO::id).toList()));
+        });
+    }
+    @Test
+    @DisplayName("Gets a Task in Two Statements")
+    void findTaskByIdAndProjectId() {
+        assertStatements(2, fixture -> TaskDTO.withComments(
+                List.of(taskRepository.findDTOByIdAndProjectId(fixture.task.getId(), fixture.project.getId()).orElseThrow()),
+                taskRepository.findAllCommentDTOByTaskIdIn(List.of(fixture.task.getId()))));
+    }
+    @Test
+    @DisplayName("Lists Projects of a Company in One Statement")
+    void findAllProjectsByCompanyId() {
+        assertStatements(1, fixture -> projectRepository.findAllDTOByCompanyId(
+                fixture.company.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST)));
+    }
+    @Test
+    @DisplayName("Lists Employees of a Company in One Statement")
+    void findAllEmployeesByCompanyId() {
+        assertStatements(1, fixture -> employeeRepository.findAllDTOByCompanyId(
+                fixture.company.getId(), pageCursors.afterKey(FIRST), pageCursors.pageable(FIRST)));
+    }
+    @Test
+    @DisplayName("Lists Comments of a Task in One Statement")
+    void findAllCommentsByTaskId() {
+        assertStatements(1, fixture -> commentRepository.findAllDTOByTaskId(
+                fixture.task.getId(), START.time(), START.id(), pageCursors.pageable(FIRST)));
+    }
+    @Test
+    @DisplayName("Lists Comments of an Employee in One Statement")
+    void findAllCommentsByOwnerId() {
+        assertStatements(1, fixture -> commentRepository.findAllDTOByOwnerId(
+                fixture.manager.getId(), START.time(), START.id(), pageCursors.pageable(FIRST)));
+    }
+
+    @Test
+    @DisplayName("Removes an Employee with One Statement per Step")
+    void removeEmployee() {
+        assertChecks(fixture -> employeeRepository.findIdByUsernameAndCompanyId(
+                fixture.manager.getUsername(), fixture.company.getId()).orElseThrow());
+
+        Employee spare = entityManager.persist(this.employee("spare", large.company));
+        assertEquals(1L, this.statements(large, fixture -> employeeRepository.deleteByIdAndCompanyId(spare.getId(), fixture.company.getId())));
+    }
+    @Test
+    @DisplayName("Updates a Project with One Statement per Check")
+    void updateProject() {
+        assertChecks(fixture -> projectRepository.findByIdAndCompanyId(fixture.project.getId(), fixture.company.getId()).orElseThrow());
+    }
+    @Test
+    @DisplayName("Deletes a Project with One Statement per Step")
+    void deleteProject() {
+        assertChecks(fixture -> projectRepository.findCompanyIdById(fixture.project.getId()).orElseThrow());
+
+        Employee manager = entityManager.persist(this.employee("spare-manager", large.company));
+        Project spare = entityManager.persist(new Project("spare", "description", LocalDate.now(), large.company, manager));
+        assertEquals(1L, this.statements(large, fixture -> projectRepository.deleteByIdAndCompanyId(spare.getId(), fixture.company.getId())));
+    }
+    @Test
+    @DisplayName("Gets a Project with One Statement")
+    void getProject() {
+        assertChecks(fixture -> projectRepository.findDTOByIdAndCompanyId(fixture.project.getId(), fixture.company.getId()).orElseThrow());
+    }
+    @Test
+    @DisplayName("Updates a Task with One Statement per Check")
+    void updateTask() {
+        assertChecks(fixture -> taskRepository.findByIdAndProjectId(fixture.task.getId(), fixture.project.getId()).orElseThrow());
+    }
+    @Test
+    @DisplayName("Deletes a Task with One Statement")
+    void deleteTask() {
+        Task spare = entityManager.persist(new Task("spare", "description", LocalDateTime.now(), large.project));
+        assertEquals(1L, this.statements(large, fixture -> taskRepository.deleteByIdAndProjectId(spare.getId(), fixture.project.getId())));
+    }
+    @Test
+    @DisplayName("Gets a Task with One Statement per Check")
+    void getTask() {
+        assertChecks(fixture -> taskRepository.findDTOByIdAndProjectId(fixture.task.getId(), fixture.project.getId()).orElseThrow());
+    }
+    @Test
+    @DisplayName("Updates a Comment with One Statement per Check")
+    void updateComment() {
+        assertChecks(fixture -> commentRepository.findByIdAndOwnerId(fixture.comment.getId(), fixture.manager.getId()).orElseThrow());
+    }
+    @Test
+    @DisplayName("Deletes a Comment with One Statement")
+    void deleteComment() {
+        assertChecks(fixture -> {
+            assertEquals(1, commentRepository.deleteByIdAndOwnerId(fixture.comment.getId(), fixture.manager.getId()));
+            return fixture.comment;
+        });
+    }
+
+    @Test
+    @DisplayName("Projects Teams with Their Members")
+    void findAllTeamsByCompanyId_members() {
+        PageRequestDTO unpaged = new PageRequestDTO(null, null, true);
+        List<TeamDTO> teams = this.withMembers(teamRepository.findAllDTOByCompanyId(
+                large.company.getId(), pageCursors.afterId(unpaged), pageCursors.pageable(unpaged)));
+
+        assertEquals(25, teams.size());
+        for(TeamDTO team : teams) {
+            assertEquals("large-manager", team.project().manager_username());
+            assertEquals(1, team.members().size());
+            assertEquals(team.name(), team.members().iterator().next().username());
+        }
+    }
+    @Test
+    @DisplayName("Walks Teams Page by Page")
+    void findAllTeamsByCompanyId_pages() {
+        List<Long> seen = new ArrayList<>();
+        PageRequestDTO page = FIRST;
+        int pages = 0;
+        do {
+            PageDTO<TeamDTO> result = pageCursors.page(teamRepository.findAllDTOByCompanyId(
+                    large.company.getId(), pageCursors.afterId(page), pageCursors.pageable(page)), page, TeamDTO::id);
+            result.items().forEach(team -> seen.add(team.id()));
+            page = new PageRequestDTO(result.next_cursor(), FIRST.limit(), false);
+            pages++;
+        } while(page.cursor() != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+    @Test
+    @DisplayName("Walks Employees Page by Page")
+    void findAllEmployeesByCompanyId_pages() {
+        List<String> seen = new ArrayList<>();
+        PageRequestDTO page = FIRST;
+        do {
+            PageDTO<EmployeeDTO> result = pageCursors.page(employeeRepository.findAllDTOByCompanyId(
+                    large.company.getId(), pageCursors.afterKey(page), pageCursors.pageable(page)), page, EmployeeDTO::username);
+            result.items().forEach(employee -> seen.add(employee.username()));
+            page = new PageRequestDTO(result.next_cursor(), FIRST.limit(), false);
+        } while(page.cursor() != null);
+
+        assertEquals(26, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+    @Test
+    @DisplayName("Walks Comments Page by Page Newest First")
+    void findAllCommentsByTaskId_pages() {
+        // Posting times run against the ids and tie in pairs, across page boundaries too
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0, 0, 123_456_000);
+        List<Long> ids = commentRepository.findAll().stream()
+                .filter(comment -> comment.getTask().getId().equals(large.task.getId()))
+                .map(Comment::getId).sorted().toList();
+        for(int i = 0; i < ids.size(); i++)
+            entityManager.find(Comment.class, ids.get(i)).setPostedAt(base.minusSeconds(i / 2));
+        entityManager.flush();
+
+        List<Long> seen = new ArrayList<>();
+        PageRequestDTO page = FIRST;
+        do {
+            PageCursors.TimeKey before = pageCursors.beforeTime(page);
+            PageDTO<CommentDTO> result = pageCursors.page(commentRepository.findAllDTOByTaskId(
+                    large.task.getId(), before.time(), before.id(), pageCursors.pageable(page)), page,
+                    comment -> new PageCursors.TimeKey(comment.postedAt(), comment.id()));
+            result.items().forEach(comment -> seen.add(comment.id()));
+            page = new PageRequestDTO(result.next_cursor(), FIRST.limit(), false);
+        } while(page.cursor() != null);
+
+        List<Long> expected = new ArrayList<>();
+        for(int i = 0; i < ids.size(); i += 2) {
+            if(i + 1 < ids.size()) expected.add(ids.get(i + 1));
+            expected.add(ids.get(i));
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Derives Expiry from the Deadline")
+    void findDTOById_expired() {
+        Employee manager = entityManager.persist(this.employee("due-manager", small.company));
+        Project due = entityManager.persist(new Project("due", "description", LocalDate.now(), small.company, manager));
+        Task overdue = entityManager.persist(new Task("overdue", "description", LocalDateTime.now().minusMinutes(1), small.project));
+        entityManager.flush();
+
+        assertTrue(projectRepository.findDTOByIdAndCompanyId(due.getId(), small.company.getId()).orElseThrow().is_expired());
+        assertFalse(projectRepository.findDTOByIdAndCompanyId(small.project.getId(), small.company.getId()).orElseThrow().is_expired());
+        assertTrue(taskRepository.findDTOByIdAndProjectId(overdue.getId(), small.project.getId()).orElseThrow().is_expired());
+        assertFalse(taskRepository.findDTOByIdAndProjectId(small.task.getId(), small.project.getId()).orElseThrow().is_expired());
+    }
+
+    @Test
+    @DisplayName("Inserts Comments in Batches")
+    void persistComments_batched() {
+        entityManager.flush();
+        statistics.clear();
+        for(int i = 0; i < 500; i++)
+            entityManager.persist(new Comment("burst", large.manager, large.task));
+        entityManager.flush();
+
+        // Ten pooled sequence calls and ten batches of fifty rows, instead of a statement per row
+        assertTrue(statistics.getPrepareStatementCount() <= 20, statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    @DisplayName("Changes Team Membership Only from the Expected State")
+    void joinTeamByUsernameIn() {
+        Team first = entityManager.persist(new Team("first", large.company, large.project));
+        Team second = entityManager.persist(new Team("second", large.company, large.project));
+        Employee free = entityManager.persist(this.employee("free", large.company));
+        entityManager.flush();
+        statistics.clear();
+
+        assertEquals(1, employeeRepository.joinTeamByUsernameIn(first.getId(), List.of("free", "large-0"), large.company.getId()));
+        assertEquals(1, employeeRepository.moveTeamByUsernameIn(first.getId(), second.getId(), List.of("free", "large-1")));
+        assertEquals(0, employeeRepository.leaveTeamByUsernameIn(first.getId(), List.of("free")));
+        assertEquals(1, employeeRepository.leaveTeamByUsernameIn(second.getId(), List.of("free")));
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Employee left = entityManager.find(Employee.class, free.getId());
+        assertNull(left.getTeam());
+        assertEquals(3, left.getMembershipVersion());
+    }
+    @Test
+    @DisplayName("Lists Projects and Teams Whose Manager Was Deleted")
+    void findAllWithoutManager() {
+        Employee manager = entityManager.persist(this.employee("former", small.company));
+        Project project = entityManager.persist(new Project("former", "description", LocalDate.now().plusDays(30), small.company, manager));
+        Team team = entityManager.persist(new Team("former", small.company, project));
+        entityManager.flush();
+        assertEquals(1, employeeRepository.deleteByIdAndCompanyId(manager.getId(), small.company.getId()));
+        entityManager.clear();
+
+        assertNull(projectRepository.findDTOByIdAndCompanyId(project.getId(), small.company.getId()).orElseThrow().manager_username());
+        assertTrue(projectRepository.findAllDTOByCompanyId(small.company.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST))
+                .stream().anyMatch(dto -> dto.id().equals(project.getId())));
+        assertTrue(teamRepository.findAllDTOByCompanyId(small.company.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST))
+                .stream().anyMatch(dto -> dto.id().equals(team.getId()) && dto.project().manager_username() == null));
+        assertEquals(List.of(team.getId()), teamRepository.findAllDTOByProjectId(project.getId(), pageCursors.afterId(FIRST), pageCursors.pageable(FIRST))
+                .stream().map(TeamDTO::id).toList());
+    }
+
+    // Projections never hydrate entities, so the persistence context stays empty
+    private void assertStatements(long expected, Function<Fixture, ?> request) {
+        assertEquals(expected, this.statements(small, request));
+        assertEquals(expected, this.statements(large, request));
+        assertEquals(0L, statistics.getEntityLoadCount());
+    }
+    // Ownership checks may load the row they check, but never a collection of its owner
+    private void assertChecks(Function<Fixture, ?> request) {
+        assertEquals(1L, this.statements(small, request));
+        assertEquals(1L, this.statements(large, request));
+        assertEquals(0L, statistics.getCollectionFetchCount());
+    }
+    private List<TeamDTO> withMembers(List<TeamDTO> teams) {
+        return TeamDTO.withMembers(teams, teamRepository.findAllMemberDTOByTeamIdIn(teams.stream().map(TeamDTO::id).toList()));
+    }
+    private long statements(Fixture fixture, Function<Fixture, ?> request) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        assertNotNull(request.apply(fixture));
+        return statistics.getPrepareStatementCount();
+    }
+
+    // One company whose employees each manage a project, sit in their own team of the
+    // main project and comment on their own task and on the main task, and whose
+    // manager comments on every task, so every list and collection grows with the size.
+    private Fixture seed(String name, int size) {
+        Company company = entityManager.persist(new Company(name, name + "-cnpj", "password"));
+        Employee manager = entityManager.persist(this.employee(name + "-manager", company));
+        Project project = entityManager.persist(new Project(name, "description", LocalDate.now().plusDays(30), company, manager));
+        Task task = entityManager.persist(new Task(name, "description", LocalDateTime.now().plusDays(7), project));
+        Comment comment = entityManager.persist(new Comment("comment", manager, task));
+
+        for(int i = 0; i < size; i++) {
+            Team team = entityManager.persist(new Team(name + "-" + i, company, project));
+            Employee employee = this.employee(name + "-" + i, company);
+            employee.setTeam(team);
+            entityManager.persist(employee);
+            entityManager.persist(new Project(name + "-" + i, "description", LocalDate.now().plusDays(30), company, employee));
+
+            Task own = entityManager.persist(new Task(name + "-" + i, "description", LocalDateTime.now().plusDays(7), project));
+            entityManager.persist(new Comment("comment", employee, own));
+            entityManager.persist(new Comment("comment", manager, own));
+            entityManager.persist(new Comment("comment", employee, task));
+        }
+        return new Fixture(company, manager, project, task, comment);
+    }
+    private Employee employee(String username, Company company) {
+        String cpf = String.format("%011d", Math.abs(username.hashCode()) % 100_000_000_000L);
+        return new Employee(username, username, cpf, username + "@office.com", "password", company);
+    }
+
+    private record Fixture(Company company, Employee manager, Project project, Task task, Comment comment) {}
+}
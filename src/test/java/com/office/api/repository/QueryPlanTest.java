@@ -0,0 +1,297 @@
+package com.office.api.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.office.api.model.*;
+import com.office.api.model.dto.address.NewAddressDTO;
+import com.office.api.model.enums.Realm;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plans run on an embedded Postgres migrated by Flyway, which refuses to start as root
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.jakarta.persistence.validation.mode=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.office.api.repository.QueryPlanTest$Recorder"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY, type = POSTGRES)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "Postgres does not run as root")
+class QueryPlanTest {
+    private static final int TENANTS = 20;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ApplicationContext applicationContext;
+    @Autowired
+    private AccessTokenRepository accessTokenRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private CompanyRepository companyRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private ProjectSummaryRepository projectSummaryRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+
+    private Fixture fixture;
+    private Fixture other;
+
+    @BeforeEach
+    void setUp() {
+        List<Fixture> seeded = new ArrayList<>();
+        for(int i = 0; i < TENANTS; i++)
+            seeded.add(this.seed("tenant-" + i));
+        fixture = seeded.get(0);
+        other = seeded.get(1);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Plans Every Repository Query Without Sequential Scans")
+    void explain() {
+        List<String> scans = new ArrayList<>();
+        this.queries().forEach((name, query) -> {
+            entityManager.flush();
+            entityManager.clear();
+            Recorder.STATEMENTS.clear();
+            query.run();
+            assertFalse(Recorder.STATEMENTS.isEmpty(), name + " issued no statement");
+            for(String sql : List.copyOf(Recorder.STATEMENTS))
+                for(String table : this.scannedTables(sql))
+                    scans.add(name + " scans " + table + ":\n" + sql);
+        });
+        assertTrue(scans.isEmpty(), String.join("\n\n", scans));
+    }
+    @Test
+    @DisplayName("Covers Every Repository Query")
+    void explain_coverage() {
+        Repositories repositories = new Repositories(applicationContext);
+        Set<String> declared = new TreeSet<>();
+        for(Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            information.getQueryMethods().forEach(method ->
+                    declared.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName()));
+        }
+        assertEquals(declared, new TreeSet<>(this.queries().keySet()));
+    }
+
+    @Test
+    @DisplayName("Finds Taken Unique Values on Either Side of the Union")
+    void findAllByUsernameOrEmail() {
+        assertTrue(companyRepository.existsByNameOrCnpj("tenant-1", "unused"));
+        assertTrue(companyRepository.existsByNameOrCnpj("unused", "cnpj-2"));
+        assertFalse(companyRepository.existsByNameOrCnpj("unused", "unused"));
+        assertEquals(2, companyRepository.findAllByNameOrCnpj("tenant-1", "cnpj-2").size());
+
+        assertTrue(employeeRepository.existsByUsernameOrCpfOrEmail("unused", fixture.manager.getCpf(), "unused"));
+        assertFalse(employeeRepository.existsByUsernameOrCpfOrEmail("unused", "unused", "unused"));
+        assertEquals(2, employeeRepository.findAllByUsernameOrEmail("tenant-1-manager", "tenant-2-manager@office.com").size());
+    }
+
+    // One call per query method, keyed like the coverage check so a new method without a plan check fails
+    private Map<String, Runnable> queries() {
+        UUID companyId = fixture.company.getId();
+        UUID managerId = fixture.manager.getId();
+        Long projectId = fixture.project.getId();
+        Long teamId = fixture.team.getId();
+        Long otherTeamId = other.team.getId();
+        Long taskId = fixture.task.getId();
+        Long commentId = fixture.comment.getId();
+        PageRequest page = PageRequest.ofSize(11);
+        Instant now = Instant.now();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("AccessTokenRepository.deleteExpired", () -> accessTokenRepository.deleteExpired(now));
+
+        queries.put("AddressRepository.findByCompanyId", () -> addressRepository.findByCompanyId(companyId));
+
+        queries.put("CommentRepository.findByIdAndOwnerId", () -> commentRepository.findByIdAndOwnerId(commentId, managerId));
+        queries.put("CommentRepository.findAllDTOByOwnerId", () -> commentRepository.findAllDTOByOwnerId(managerId, LocalDateTime.now(), Long.MAX_VALUE, page));
+        queries.put("CommentRepository.findAllDTOByTaskId", () -> commentRepository.findAllDTOByTaskId(taskId, LocalDateTime.now(), Long.MAX_VALUE, page));
+        queries.put("CommentRepository.findOwnerIdById", () -> commentRepository.findOwnerIdById(commentId));
+        queries.put("CommentRepository.findProjectIdByIdAndOwnerId", () -> commentRepository.findProjectIdByIdAndOwnerId(commentId, managerId));
+        queries.put("CommentRepository.deleteByIdAndOwnerId", () -> commentRepository.deleteByIdAndOwnerId(commentId, managerId));
+
+        queries.put("CompanyRepository.findByName", () -> companyRepository.findByName("tenant-0"));
+        queries.put("CompanyRepository.existsByNameOrCnpj", () -> companyRepository.existsByNameOrCnpj("tenant-0", "cnpj-0"));
+        queries.put("CompanyRepository.findAllByNameOrCnpj", () -> companyRepository.findAllByNameOrCnpj("tenant-0", "cnpj-0"));
+
+        queries.put("EmployeeRepository.findByUsername", () -> employeeRepository.findByUsername("tenant-0-manager"));
+        queries.put("EmployeeRepository.findWithTeamById", () -> employeeRepository.findWithTeamById(managerId));
+        queries.put("EmployeeRepository.findByUsernameAndCompanyId", () -> employeeRepository.findByUsernameAndCompanyId("tenant-0-manager", companyId));
+        queries.put("EmployeeRepository.findAllByUsernameInAndCompanyId", () -> employeeRepository.findAllByUsernameInAndCompanyId(List.of("tenant-0-manager", "tenant-1-manager"), companyId));
+        queries.put("EmployeeRepository.existsByUsernameOrCpfOrEmail", () -> employeeRepository.existsByUsernameOrCpfOrEmail("tenant-0-manager", "00000000000", "tenant-0-manager@office.com"));
+        queries.put("EmployeeRepository.findAllByUsernameOrEmail", () -> employeeRepository.findAllByUsernameOrEmail("tenant-0-manager", "tenant-0-manager@office.com"));
+        queries.put("EmployeeRepository.findAllDTOByCompanyId", () -> employeeRepository.findAllDTOByCompanyId(companyId, "", page));
+        queries.put("EmployeeRepository.findAllMatchDTOByCompanyId", () -> employeeRepository.findAllMatchDTOByCompanyId(companyId));
+        queries.put("EmployeeRepository.findDTOById", () -> employeeRepository.findDTOById(managerId));
+        queries.put("EmployeeRepository.findUsernamesByUsernameIn", () -> employeeRepository.findUsernamesByUsernameIn(List.of("tenant-0-manager", "tenant-1-manager")));
+        queries.put("EmployeeRepository.findCpfsByCpfIn", () -> employeeRepository.findCpfsByCpfIn(List.of("00000000000", "11111111111")));
+        queries.put("EmployeeRepository.findEmailsByEmailIn", () -> employeeRepository.findEmailsByEmailIn(List.of("tenant-0-manager@office.com", "tenant-1-manager@office.com")));
+        queries.put("EmployeeRepository.findMembershipVersionById", () -> employeeRepository.findMembershipVersionById(managerId));
+        queries.put("EmployeeRepository.findIdByUsernameAndCompanyId", () -> employeeRepository.findIdByUsernameAndCompanyId("tenant-0-manager", companyId));
+        queries.put("EmployeeRepository.countByTeamId", () -> employeeRepository.countByTeamId(teamId));
+        queries.put("EmployeeRepository.joinTeamByUsernameIn", () -> employeeRepository.joinTeamByUsernameIn(teamId, List.of("tenant-0-manager", "tenant-1-manager"), companyId));
+        queries.put("EmployeeRepository.leaveTeamByUsernameIn", () -> employeeRepository.leaveTeamByUsernameIn(teamId, List.of("tenant-0-manager", "tenant-1-manager")));
+        queries.put("EmployeeRepository.moveTeamByUsernameIn", () -> employeeRepository.moveTeamByUsernameIn(teamId, otherTeamId, List.of("tenant-0-manager", "tenant-1-manager")));
+        queries.put("EmployeeRepository.deleteByIdAndCompanyId", () -> employeeRepository.deleteByIdAndCompanyId(UUID.randomUUID(), companyId));
+        queries.put("EmployeeRepository.incrementMembershipVersionByTeamId", () -> employeeRepository.incrementMembershipVersionByTeamId(teamId));
+        queries.put("EmployeeRepository.incrementMembershipVersionByProjectId", () -> employeeRepository.incrementMembershipVersionByProjectId(projectId));
+
+        queries.put("ProjectRepository.existsByName", () -> projectRepository.existsByName("tenant-0"));
+        queries.put("ProjectRepository.findByName", () -> projectRepository.findByName("tenant-0"));
+        queries.put("ProjectRepository.findByIdAndCompanyId", () -> projectRepository.findByIdAndCompanyId(projectId, companyId));
+        queries.put("ProjectRepository.findAllDTOByCompanyId", () -> projectRepository.findAllDTOByCompanyId(companyId, 0L, page));
+        queries.put("ProjectRepository.findDTOByIdAndCompanyId", () -> projectRepository.findDTOByIdAndCompanyId(projectId, companyId));
+        queries.put("ProjectRepository.findCompanyIdById", () -> projectRepository.findCompanyIdById(projectId));
+        queries.put("ProjectRepository.existsByManagerId", () -> projectRepository.existsByManagerId(managerId));
+        queries.put("ProjectRepository.findIdByManagerId", () -> projectRepository.findIdByManagerId(managerId));
+        queries.put("ProjectRepository.deleteByIdAndCompanyId", () -> projectRepository.deleteByIdAndCompanyId(-1L, companyId));
+
+        queries.put("ProjectSummaryRepository.findDTOByProjectId", () -> projectSummaryRepository.findDTOByProjectId(projectId));
+        queries.put("ProjectSummaryRepository.incrementTasks", () -> projectSummaryRepository.incrementTasks(projectId));
+        queries.put("ProjectSummaryRepository.decrementTasks", () -> projectSummaryRepository.decrementTasks(projectId, 1));
+        queries.put("ProjectSummaryRepository.incrementComments", () -> projectSummaryRepository.incrementComments(projectId));
+        queries.put("ProjectSummaryRepository.decrementComments", () -> projectSummaryRepository.decrementComments(projectId));
+        queries.put("ProjectSummaryRepository.decrementCommentsByOwnerId", () -> projectSummaryRepository.decrementCommentsByOwnerId(managerId));
+        queries.put("ProjectSummaryRepository.incrementTeams", () -> projectSummaryRepository.incrementTeams(projectId));
+        queries.put("ProjectSummaryRepository.decrementTeams", () -> projectSummaryRepository.decrementTeams(projectId, 1));
+        queries.put("ProjectSummaryRepository.addMembersByTeamId", () -> projectSummaryRepository.addMembersByTeamId(teamId, 1));
+        queries.put("ProjectSummaryRepository.decrementMembersByEmployeeId", () -> projectSummaryRepository.decrementMembersByEmployeeId(managerId));
+
+        queries.put("RefreshTokenRepository.findByTokenHash", () -> refreshTokenRepository.findByTokenHash("tenant-0-hash"));
+        queries.put("RefreshTokenRepository.findSessionsRevokedSince", () -> refreshTokenRepository.findSessionsRevokedSince(now));
+        queries.put("RefreshTokenRepository.findActiveSessionsBySubject", () -> refreshTokenRepository.findActiveSessionsBySubject(managerId));
+        queries.put("RefreshTokenRepository.markUsed", () -> refreshTokenRepository.markUsed(UUID.randomUUID(), now));
+        queries.put("RefreshTokenRepository.revokeSession", () -> refreshTokenRepository.revokeSession(UUID.randomUUID(), now));
+        queries.put("RefreshTokenRepository.revokeSubject", () -> refreshTokenRepository.revokeSubject(UUID.randomUUID(), now));
+
+        queries.put("TaskRepository.existsByTitle", () -> taskRepository.existsByTitle("tenant-0"));
+        queries.put("TaskRepository.findByTitle", () -> taskRepository.findByTitle("tenant-0"));
+        queries.put("TaskRepository.findByIdAndProjectId", () -> taskRepository.findByIdAndProjectId(taskId, projectId));
+        queries.put("TaskRepository.findAllDTOByProjectId", () -> taskRepository.findAllDTOByProjectId(projectId, 0L, page));
+        queries.put("TaskRepository.findDTOByIdAndProjectId", () -> taskRepository.findDTOByIdAndProjectId(taskId, projectId));
+        queries.put("TaskRepository.findAllCommentDTOByTaskIdIn", () -> taskRepository.findAllCommentDTOByTaskIdIn(List.of(taskId)));
+        queries.put("TaskRepository.findProjectIdById", () -> taskRepository.findProjectIdById(taskId));
+        queries.put("TaskRepository.countCommentsByIdAndProjectId", () -> taskRepository.countCommentsByIdAndProjectId(taskId, projectId));
+        queries.put("TaskRepository.deleteByIdAndProjectId", () -> taskRepository.deleteByIdAndProjectId(-1L, projectId));
+
+        queries.put("TeamRepository.existsByName", () -> teamRepository.existsByName("tenant-0"));
+        queries.put("TeamRepository.findByName", () -> teamRepository.findByName("tenant-0"));
+        queries.put("TeamRepository.findByIdAndCompanyId", () -> teamRepository.findByIdAndCompanyId(teamId, companyId));
+        queries.put("TeamRepository.findAllDTOByCompanyId", () -> teamRepository.findAllDTOByCompanyId(companyId, 0L, page));
+        queries.put("TeamRepository.findAllDTOByProjectId", () -> teamRepository.findAllDTOByProjectId(projectId, 0L, page));
+        queries.put("TeamRepository.findAllMemberDTOByTeamIdIn", () -> teamRepository.findAllMemberDTOByTeamIdIn(List.of(teamId)));
+        queries.put("TeamRepository.findCompanyIdById", () -> teamRepository.findCompanyIdById(teamId));
+        queries.put("TeamRepository.findProjectIdById", () -> teamRepository.findProjectIdById(teamId));
+        queries.put("TeamRepository.deleteByIdAndCompanyId", () -> teamRepository.deleteByIdAndCompanyId(-1L, companyId));
+        return queries;
+    }
+
+    // The generic plan of the prepared statement, with sequential scans priced out, so one
+    // shows up only where no index can serve the statement whatever the parameters and row counts
+    private Set<String> scannedTables(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for(char character : sql.toCharArray()) {
+            if(character == '?') numbered.append('$').append(++parameters);
+            else numbered.append(character);
+        }
+        String execute = parameters == 0 ? "execute planned"
+                : "execute planned(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try(Statement statement = connection.createStatement()) {
+                statement.execute("set local enable_seqscan = off");
+                statement.execute("set local plan_cache_mode = force_generic_plan");
+                statement.execute("prepare planned as " + numbered);
+                try(ResultSet plan = statement.executeQuery("explain (format json) " + execute)) {
+                    plan.next();
+                    Set<String> tables = new TreeSet<>();
+                    this.collectScans(JSON.readTree(plan.getString(1)).get(0).get("Plan"), tables);
+                    return tables;
+                } catch(JsonProcessingException exception) {
+                    throw new IllegalStateException(exception);
+                } finally {
+                    statement.execute("deallocate planned");
+                }
+            }
+        });
+    }
+    private void collectScans(JsonNode node, Set<String> tables) {
+        if("Seq Scan".equals(node.path("Node Type").asText()))
+            tables.add(node.path("Relation Name").asText());
+        for(JsonNode child : node.path("Plans"))
+            this.collectScans(child, tables);
+    }
+
+    // Every tenant owns a row in each table
+    private Fixture seed(String name) {
+        Company company = new Company(name, "cnpj-" + name.substring(7), "password");
+        entityManager.persist(company);
+        entityManager.persist(new Address(new NewAddressDTO("08500000", "1", "street", "neighborhood", "city", "state"), company));
+        Employee manager = entityManager.persist(this.employee(name + "-manager", company));
+        Project project = entityManager.persist(new Project(name, "description", LocalDate.now().plusDays(30), company, manager));
+        entityManager.persist(new ProjectSummary(project.getId()));
+        Team team = entityManager.persist(new Team(name, company, project));
+        manager.setTeam(team);
+        Task task = entityManager.persist(new Task(name, "description", LocalDateTime.now().plusDays(7), project));
+        Comment comment = entityManager.persist(new Comment("comment", manager, task));
+        entityManager.persist(new AccessToken(name + "-hash", "{}", Instant.now().plusSeconds(60)));
+        entityManager.persist(new RefreshToken(name + "-hash", manager.getId(), Realm.EMPLOYEE, UUID.randomUUID(), Instant.now().plusSeconds(60)));
+        return new Fixture(company, manager, project, team, task, comment);
+    }
+    private Employee employee(String username, Company company) {
+        String cpf = String.format("%011d", Math.abs(username.hashCode()) % 100_000_000_000L);
+        return new Employee(username, username, cpf, username + "@office.com", "password", company);
+    }
+
+    private record Fixture(Company company, Employee manager, Project project, Team team, Task task, Comment comment) {}
+
+    public static class Recorder implements StatementInspector {
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if(!sql.startsWith("insert")) STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.office.api.repository;
+
+import com.office.api.model.*;
+import com.office.api.model.dto.search.SearchHitDTO;
+import com.office.api.service.PageCursors;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the search statements on an embedded Postgres migrated by Flyway, which refuses to start as root
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.jakarta.persistence.validation.mode=none"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY, type = POSTGRES)
+@Import(SearchRepository.class)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "Postgres does not run as root")
+class SearchRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private SearchRepository searchRepository;
+
+    private static final PageCursors.RankKey FIRST = new PageCursors.RankKey(Float.MAX_VALUE, "", Long.MAX_VALUE);
+
+    private Company company;
+    private Project project;
+    private Task titled;
+    private Task described;
+    private Comment commented;
+    private Task otherProject;
+
+    @BeforeEach
+    void setUp() {
+        company = entityManager.persist(new Company("office", "00000000000100", "password"));
+        Employee manager = entityManager.persist(this.employee("manager", "00000000001", company));
+        Employee other = entityManager.persist(this.employee("other", "00000000002", company));
+        project = entityManager.persist(new Project("project", "description", LocalDate.now().plusDays(30), company, manager));
+        Project second = entityManager.persist(new Project("second", "description", LocalDate.now().plusDays(30), company, other));
+
+        titled = entityManager.persist(new Task("Deploy pipeline", "Set up the build", LocalDateTime.now().plusDays(7), project));
+        described = entityManager.persist(new Task("Write docs", "Explain how to deploy the scripts", LocalDateTime.now().plusDays(7), project));
+        entityManager.persist(new Task("Lunch", "Book a table", LocalDateTime.now().plusDays(7), project));
+        commented = entityManager.persist(new Comment("The deploy went fine", manager, described));
+        otherProject = entityManager.persist(new Task("Deploy staging", "Staging servers", LocalDateTime.now().plusDays(7), second));
+
+        Company stranger = entityManager.persist(new Company("stranger", "00000000000200", "password"));
+        Employee strangerManager = entityManager.persist(this.employee("stranger", "00000000003", stranger));
+        Project strangerProject = entityManager.persist(new Project("stranger", "description", LocalDate.now().plusDays(30), stranger, strangerManager));
+        entityManager.persist(new Task("Deploy production", "Production servers", LocalDateTime.now().plusDays(7), strangerProject));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Ranks Title Matches Above Description and Comment Matches")
+    void searchByProjectId_successful() {
+        List<SearchHitDTO> hits = searchRepository.searchByProjectId(project.getId(), "deploy", FIRST, PageRequest.ofSize(10));
+
+        assertEquals(List.of("task:" + titled.getId(), "task:" + described.getId(), "comment:" + commented.getId()),
+                hits.stream().map(hit -> hit.kind() + ":" + hit.id()).toList());
+        assertTrue(hits.get(0).rank() > hits.get(1).rank());
+        assertTrue(hits.get(1).rank() > hits.get(2).rank());
+        assertEquals(described.getId(), hits.get(2).task_id());
+        assertEquals("Write docs", hits.get(2).task_title());
+        hits.forEach(hit -> assertTrue(hit.snippet().contains("<b>"), hit.snippet()));
+    }
+    @Test
+    @DisplayName("Pages Hits by Rank, Kind and Id")
+    void searchByProjectId_paged() {
+        List<SearchHitDTO> all = searchRepository.searchByProjectId(project.getId(), "deploy", FIRST, PageRequest.ofSize(10));
+
+        List<SearchHitDTO> paged = new ArrayList<>();
+        PageCursors.RankKey before = FIRST;
+        List<SearchHitDTO> page;
+        while(!(page = searchRepository.searchByProjectId(project.getId(), "deploy", before, PageRequest.ofSize(1))).isEmpty()) {
+            assertEquals(1, page.size());
+            paged.addAll(page);
+            SearchHitDTO last = page.get(page.size() - 1);
+            before = new PageCursors.RankKey(last.rank(), last.kind(), last.id());
+        }
+        assertEquals(all, paged);
+    }
+    @Test
+    @DisplayName("Searches Every Project of the Company Only")
+    void searchByCompanyId_successful() {
+        List<SearchHitDTO> hits = searchRepository.searchByCompanyId(company.getId(), "deploy", FIRST, PageRequest.ofSize(10));
+
+        assertEquals(4, hits.size());
+        assertTrue(hits.stream().anyMatch(hit -> hit.id().equals(otherProject.getId())));
+        assertTrue(hits.stream().noneMatch(hit -> hit.task_title().equals("Deploy production")));
+        for(int i = 1; i < hits.size(); i++)
+            assertTrue(hits.get(i - 1).rank() >= hits.get(i).rank());
+    }
+    @Test
+    @DisplayName("Search Unsuccessfully - Excluded Words or No Match")
+    void search_unsuccessful() {
+        assertEquals(List.of(described.getId(), commented.getId()), searchRepository
+                .searchByProjectId(project.getId(), "deploy -pipeline", FIRST, PageRequest.ofSize(10))
+                .stream().map(SearchHitDTO::id).toList());
+        assertEquals(List.of(), searchRepository.searchByProjectId(project.getId(), "production", FIRST, PageRequest.ofSize(10)));
+    }
+
+    private Employee employee(String username, String cpf, Company company) {
+        return new Employee(username, username, cpf, username + "@office.com", "password", company);
+    }
+}
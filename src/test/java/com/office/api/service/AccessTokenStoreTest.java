@@ -0,0 +1,118 @@
+package com.office.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.office.api.model.AccessToken;
+import com.office.api.model.enums.Role;
+import com.office.api.repository.AccessTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccessTokenStoreTest {
+    @Mock
+    private AccessTokenRepository accessTokenRepository;
+    private AccessTokenStore tokenStore;
+
+    private final Instant now = Instant.parse("2030-01-01T12:00:00Z");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenStore = new AccessTokenStore(accessTokenRepository, objectMapper, new SimpleMeterRegistry(),
+                100, Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Issues Token and Resolves It from the Cache")
+    void issue_successful() {
+        Jwt issued = tokenStore.issue(this.claims());
+
+        Jwt resolved = tokenStore.find(issued.getTokenValue()).orElseThrow();
+
+        assertSame(issued, resolved);
+        assertTrue(issued.getTokenValue().length() < 64);
+        assertEquals(now.plusSeconds(900), resolved.getExpiresAt());
+        verify(accessTokenRepository, times(1)).save(any());
+        verify(accessTokenRepository, never()).findById(any());
+    }
+    @Test
+    @DisplayName("Resolves Token from the Database")
+    void find_successful() {
+        var captor = ArgumentCaptor.forClass(AccessToken.class);
+        Jwt issued = tokenStore.issue(this.claims());
+        verify(accessTokenRepository).save(captor.capture());
+        AccessToken stored = captor.getValue();
+
+        tokenStore = new AccessTokenStore(accessTokenRepository, objectMapper, new SimpleMeterRegistry(),
+                100, Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC));
+        when(accessTokenRepository.findById(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        Jwt resolved = tokenStore.find(issued.getTokenValue()).orElseThrow();
+
+        assertNotEquals(issued.getTokenValue(), stored.getTokenHash());
+        assertEquals("Test Subject", resolved.getSubject());
+        assertEquals(now.plusSeconds(900), resolved.getExpiresAt());
+        assertEquals(List.of("MANAGER"), resolved.getClaimAsStringList("scope"));
+        assertEquals(7L, ((Number) resolved.getClaim(TokenService.PROJECT_CLAIM)).longValue());
+    }
+    @Test
+    @DisplayName("Resolves Token Unsuccessfully - Unknown or Expired Token")
+    void find_unsuccessful() {
+        when(accessTokenRepository.findById(any())).thenReturn(Optional.empty());
+        JwtClaimsSet expired = JwtClaimsSet.builder()
+                .subject("Test Subject")
+                .issuedAt(now.minusSeconds(900))
+                .expiresAt(now)
+                .build();
+
+        Jwt issued = tokenStore.issue(expired);
+
+        assertTrue(tokenStore.find("Test Token").isEmpty());
+        assertTrue(tokenStore.find(issued.getTokenValue()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Resolves Unknown Token from the Database Once")
+    void find_absentCached() {
+        when(accessTokenRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertTrue(tokenStore.find("Test Token").isEmpty());
+        assertTrue(tokenStore.find("Test Token").isEmpty());
+        verify(accessTokenRepository, times(1)).findById(any());
+
+        tokenStore = new AccessTokenStore(accessTokenRepository, objectMapper, new SimpleMeterRegistry(),
+                100, Duration.ZERO, Clock.fixed(now, ZoneOffset.UTC));
+        tokenStore.find("Test Token");
+        tokenStore.find("Test Token");
+        verify(accessTokenRepository, times(3)).findById(any());
+    }
+
+    private JwtClaimsSet claims() {
+        return JwtClaimsSet.builder()
+                .issuer("office.api")
+                .subject("Test Subject")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(900))
+                .claim("scope", Set.of(Role.MANAGER))
+                .claim(TokenService.PROJECT_CLAIM, 7L)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.office.api.service;
 
+import com.office.api.exception.NullCompanyException;
 import com.office.api.model.Address;
 import com.office.api.model.Company;
 import com.office.api.model.dto.address.AddressDTO;
@@ -14,12 +15,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
+import java.util.Optional;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class AddressServiceTest {
-    @Mock
-    private CompanyService companyService;
     @Mock
     private AddressRepository addressRepository;
     @InjectMocks
@@ -33,9 +36,9 @@ class AddressServiceTest {
     @Test
     @DisplayName("Update Successfully")
     void updateAddress() {
-        String companyName = "testCompany";
+        UUID companyId = UUID.randomUUID();
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        when(token.getName()).thenReturn(companyName);
+        when(token.getName()).thenReturn(companyId.toString());
 
         UpdateAddressDTO data = mock(UpdateAddressDTO.class);
         when(data.zipCode()).thenReturn("08500000");
@@ -46,15 +49,13 @@ class AddressServiceTest {
         when(data.state()).thenReturn("Test State");
 
         Address address = new Address();
-        Company company = mock(Company.class);
-        when(company.getAddress()).thenReturn(address);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(addressRepository.findByCompanyId(companyId)).thenReturn(Optional.of(address));
 
         // When
         addressService.updateAddress(data, token);
 
         // Then
-        verify(companyService).getCompany(companyName);
+        verify(addressRepository).findByCompanyId(companyId);
         verify(data).zipCode();
         verify(data).number();
         verify(data).street();
@@ -67,6 +68,7 @@ class AddressServiceTest {
     @Test
     @DisplayName("Get Address Successfully")
     void getAddress() {
+        UUID companyId = UUID.randomUUID();
         Company company = mock(Company.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
         Address address = new Address(new NewAddressDTO(
@@ -74,13 +76,12 @@ class AddressServiceTest {
                         "Test Neighborhood", "Test City",
                         "Test State"), company);
 
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(company.getAddress()).thenReturn(address);
+        when(token.getName()).thenReturn(companyId.toString());
+        when(addressRepository.findByCompanyId(companyId)).thenReturn(Optional.of(address));
 
         AddressDTO addressDTO = addressService.getAddress(token);
 
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(company, times(1)).getAddress();
+        verify(addressRepository, times(1)).findByCompanyId(companyId);
 
         assertEquals(address.getZipCode(),addressDTO.zipCode());
         assertEquals(address.getNumber(), addressDTO.number());
@@ -90,4 +91,14 @@ class AddressServiceTest {
         assertEquals(address.getState(), addressDTO.state());
 
     }
+    @Test
+    @DisplayName("Get Address Unsuccessfully - Non existent Company")
+    void getAddress_unsuccessful() {
+        JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+
+        when(token.getName()).thenReturn(UUID.randomUUID().toString());
+        when(addressRepository.findByCompanyId(any())).thenReturn(Optional.empty());
+
+        assertThrows(NullCompanyException.class, () -> addressService.getAddress(token));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.office.api.service;
+
+import com.office.api.repository.CommentRepository;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.TaskRepository;
+import com.office.api.repository.TeamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthorizationGraphTest {
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private TeamRepository teamRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private ProjectRepository projectRepository;
+    private AuthorizationGraph authorizationGraph;
+
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        authorizationGraph = new AuthorizationGraph(taskRepository, teamRepository, commentRepository, projectRepository, 100_000);
+    }
+
+    @Test
+    @DisplayName("Checks Project Successfully - Read Through Once")
+    void isProjectOfCompany_successful() {
+        when(projectRepository.findCompanyIdById(1L)).thenReturn(Optional.of(companyId));
+
+        assertTrue(authorizationGraph.isProjectOfCompany(1L, companyId));
+        assertTrue(authorizationGraph.isProjectOfCompany(1L, companyId));
+        assertFalse(authorizationGraph.isProjectOfCompany(1L, UUID.randomUUID()));
+
+        verify(projectRepository, times(1)).findCompanyIdById(1L);
+    }
+    @Test
+    @DisplayName("Checks Project Unsuccessfully - Non existent Project")
+    void isProjectOfCompany_unsuccessful() {
+        when(projectRepository.findCompanyIdById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(authorizationGraph.isProjectOfCompany(1L, companyId));
+        assertFalse(authorizationGraph.isProjectOfCompany(null, companyId));
+    }
+
+    @Test
+    @DisplayName("Checks Task Successfully - Written by the Service")
+    void isTaskOfProject_successful() {
+        authorizationGraph.addTask(10L, 1L);
+
+        assertTrue(authorizationGraph.isTaskOfProject(10L, 1L));
+        assertFalse(authorizationGraph.isTaskOfProject(10L, 2L));
+
+        verify(taskRepository, never()).findProjectIdById(any());
+    }
+    @Test
+    @DisplayName("Checks Task Unsuccessfully - Removed Task")
+    void isTaskOfProject_unsuccessful() {
+        authorizationGraph.addTask(10L, 1L);
+        authorizationGraph.removeTask(10L);
+        when(taskRepository.findProjectIdById(10L)).thenReturn(Optional.empty());
+
+        assertFalse(authorizationGraph.isTaskOfProject(10L, 1L));
+
+        verify(taskRepository, times(1)).findProjectIdById(10L);
+    }
+
+    @Test
+    @DisplayName("Checks Team Unsuccessfully - Removed Company")
+    void isTeamOfCompany_unsuccessful() {
+        authorizationGraph.addTeam(5L, companyId);
+        authorizationGraph.clear();
+        when(teamRepository.findCompanyIdById(5L)).thenReturn(Optional.empty());
+
+        assertFalse(authorizationGraph.isTeamOfCompany(5L, companyId));
+
+        verify(teamRepository, times(1)).findCompanyIdById(5L);
+    }
+
+    @Test
+    @DisplayName("Checks Team Project Successfully - Written and Read Through")
+    void isTeamOfProject_successful() {
+        authorizationGraph.addTeam(5L, companyId, 1L);
+        when(teamRepository.findProjectIdById(6L)).thenReturn(Optional.of(2L));
+
+        assertTrue(authorizationGraph.isTeamOfProject(5L, 1L));
+        assertFalse(authorizationGraph.isTeamOfProject(5L, 2L));
+        assertTrue(authorizationGraph.isTeamOfProject(6L, 2L));
+        assertFalse(authorizationGraph.isTeamOfProject(6L, 1L));
+        assertTrue(authorizationGraph.isTeamOfCompany(5L, companyId));
+
+        verify(teamRepository, never()).findProjectIdById(5L);
+        verify(teamRepository, times(1)).findProjectIdById(6L);
+    }
+    @Test
+    @DisplayName("Checks Team Project Unsuccessfully - Removed Team or Missing Project")
+    void isTeamOfProject_unsuccessful() {
+        authorizationGraph.addTeam(5L, companyId, 1L);
+        authorizationGraph.removeTeam(5L);
+        when(teamRepository.findProjectIdById(5L)).thenReturn(Optional.empty());
+
+        assertFalse(authorizationGraph.isTeamOfProject(5L, 1L));
+        assertFalse(authorizationGraph.isTeamOfProject(5L, null));
+
+        verify(teamRepository, times(1)).findProjectIdById(5L);
+    }
+
+    @Test
+    @DisplayName("Checks Comments Successfully - Many Entries")
+    void isCommentOfEmployee_successful() {
+        UUID[] employees = new UUID[64];
+        for(int i = 0; i < employees.length; i++)
+            employees[i] = UUID.randomUUID();
+        for(long id = 1; id <= 10_000; id++)
+            authorizationGraph.addComment(id, employees[(int) (id % employees.length)]);
+        for(long id = 1; id <= 10_000; id += 2)
+            authorizationGraph.removeComment(id);
+        when(commentRepository.findOwnerIdById(any())).thenReturn(Optional.empty());
+
+        for(long id = 2; id <= 10_000; id += 2)
+            assertTrue(authorizationGraph.isCommentOfEmployee(id, employees[(int) (id % employees.length)]));
+        assertFalse(authorizationGraph.isCommentOfEmployee(3L, employees[3]));
+        assertFalse(authorizationGraph.isCommentOfEmployee(2L, employees[3]));
+
+        verify(commentRepository, times(1)).findOwnerIdById(3L);
+    }
+    @Test
+    @DisplayName("Checks Comments Successfully - Full Map Reads Through Again")
+    void isCommentOfEmployee_bounded() {
+        authorizationGraph = new AuthorizationGraph(taskRepository, teamRepository, commentRepository, projectRepository, 100);
+        UUID employeeId = UUID.randomUUID();
+        for(long id = 1; id <= 150; id++)
+            authorizationGraph.addComment(id, employeeId);
+        when(commentRepository.findOwnerIdById(1L)).thenReturn(Optional.of(employeeId));
+
+        assertTrue(authorizationGraph.isCommentOfEmployee(150L, employeeId));
+        assertTrue(authorizationGraph.isCommentOfEmployee(1L, employeeId));
+
+        verify(commentRepository, times(1)).findOwnerIdById(1L);
+        verify(commentRepository, never()).findOwnerIdById(150L);
+    }
+    @Test
+    @DisplayName("Checks Tasks Successfully - Reused Project Slots")
+    void isTaskOfProject_reused() {
+        authorizationGraph = new AuthorizationGraph(taskRepository, teamRepository, commentRepository, projectRepository, 100);
+        for(long project = 1; project <= 300; project++) {
+            authorizationGraph.addTask(project * 10, project);
+            if(project < 300) authorizationGraph.removeProject(project);
+        }
+        authorizationGraph.addTask(3001L, 301L);
+        when(taskRepository.findProjectIdById(2990L)).thenReturn(Optional.empty());
+
+        assertTrue(authorizationGraph.isTaskOfProject(3000L, 300L));
+        assertTrue(authorizationGraph.isTaskOfProject(3001L, 301L));
+        assertFalse(authorizationGraph.isTaskOfProject(3000L, 301L));
+        assertFalse(authorizationGraph.isTaskOfProject(2990L, 300L));
+
+        verify(taskRepository, never()).findProjectIdById(3000L);
+    }
+}
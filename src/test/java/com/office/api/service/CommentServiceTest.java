@@ -6,7 +6,11 @@ import com.office.api.model.*;
 import com.office.api.model.dto.comment.CommentDTO;
 import com.office.api.model.dto.comment.NewCommentDTO;
 import com.office.api.model.dto.comment.UpdateCommentDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.repository.CommentRepository;
+import com.office.api.repository.EmployeeRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,15 +18,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -30,12 +36,23 @@ class CommentServiceTest {
     @Mock
     private TaskRepository taskRepository;
     @Mock
-    private EmployeeService employeeService;
+    private TokenService tokenService;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @Mock
+    private ProjectSummaryRepository projectSummaryRepository;
     @InjectMocks
     private CommentService commentService;
 
+    private final Long projectId = 1L;
+    private final UUID employeeId = UUID.randomUUID();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -46,23 +63,23 @@ class CommentServiceTest {
     void newComment_successful() {
         Long id = 1L;
         Task task = mock(Task.class);
-        Team team = mock(Team.class);
         var data = mock(NewCommentDTO.class);
-        Project project = mock(Project.class);
         Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getTeam()).thenReturn(team);
-        when(team.getProject()).thenReturn(project);
-        when(task.getProject()).thenReturn(project);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(authorizationGraph.isTaskOfProject(id, projectId)).thenReturn(true);
+        when(taskRepository.getReferenceById(id)).thenReturn(task);
+        when(employeeRepository.getReferenceById(employeeId)).thenReturn(employee);
 
         commentService.newComment(id, data, token);
 
         verify(commentRepository, times(1)).save(any());
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+        verify(authorizationGraph, times(1)).isTaskOfProject(id, projectId);
+        verify(authorizationGraph, times(1)).addComment(any(), eq(employeeId));
+        verify(projectSummaryRepository, times(1)).incrementComments(projectId);
+        verify(taskRepository, never()).findById(id);
     }
     @Test
     @DisplayName("Create Unsuccessfully - Non existent Task")
@@ -71,34 +88,28 @@ class CommentServiceTest {
         var data = mock(NewCommentDTO.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(authorizationGraph.isTaskOfProject(id, projectId)).thenReturn(false);
 
         assertThrows(NullTaskException.class, () -> commentService.newComment(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+        verify(tokenService, times(1)).projectId(token);
+        verify(authorizationGraph, times(1)).isTaskOfProject(id, projectId);
+        verify(commentRepository, never()).save(any());
     }
     @Test
     @DisplayName("Create Unsuccessfully - Isn't its Project")
     void newComment_unsuccessful_case02() {
         Long id = 1L;
-        Task task = mock(Task.class);
-        Team team = mock(Team.class);
         var data = mock(NewCommentDTO.class);
-        Project projectOne = mock(Project.class);
-        Project projectTwo = mock(Project.class);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getTeam()).thenReturn(team);
-        when(team.getProject()).thenReturn(projectOne);
-        when(task.getProject()).thenReturn(projectTwo);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.projectId(token)).thenReturn(null);
 
         assertThrows(NullTaskException.class, () -> commentService.newComment(id, data, token));
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+
+        verify(tokenService, times(1)).projectId(token);
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
@@ -106,190 +117,161 @@ class CommentServiceTest {
     void updateComment_successful() {
         Long id = 1L;
         Comment comment = mock(Comment.class);
-        Set<Comment> comments = Set.of(comment);
         var data = mock(UpdateCommentDTO.class);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getComments()).thenReturn(comments);
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findByIdAndOwnerId(id, employeeId)).thenReturn(Optional.of(comment));
 
         commentService.updateComment(id, data, token);
 
         verify(comment, times(1)).setContent(any());
         verify(commentRepository, times(1)).save(any());
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, times(1)).findByIdAndOwnerId(id, employeeId);
+        verify(tokenService, times(1)).subject(token);
+        verifyNoMoreInteractions(commentRepository);
+        verifyNoInteractions(authorizationGraph);
     }
     @Test
     @DisplayName("Update Unsuccessfully - Non existent Comment")
     void updateComment_unsuccessful_case01() {
         Long id = 1L;
         var data = mock(UpdateCommentDTO.class);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
-        when(commentRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findByIdAndOwnerId(id, employeeId)).thenReturn(Optional.empty());
 
         assertThrows(NullCommentException.class, () -> commentService.updateComment(id, data, token));
 
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, times(1)).findByIdAndOwnerId(id, employeeId);
+        verify(tokenService, times(1)).subject(token);
     }
     @Test
     @DisplayName("Update Unsuccessfully - Isn't its Comment")
     void updateComment_unsuccessful_case02() {
         Long id = 1L;
-        Comment comment = mock(Comment.class);
-        Set<Comment> comments = new HashSet<>();
         var data = mock(UpdateCommentDTO.class);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getComments()).thenReturn(comments);
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findByIdAndOwnerId(id, employeeId)).thenReturn(Optional.empty());
+        when(commentRepository.findById(id)).thenReturn(Optional.of(mock(Comment.class)));
 
         assertThrows(NullCommentException.class, () -> commentService.updateComment(id, data, token));
 
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, never()).findById(any());
+        verify(commentRepository, never()).save(any());
+        verify(tokenService, times(1)).subject(token);
     }
 
     @Test
     @DisplayName("Delete Successfully")
     void deleteComment_successful() {
         Long id = 1L;
-        Comment comment = mock(Comment.class);
-        Set<Comment> comments = Set.of(comment);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getComments()).thenReturn(comments);
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findProjectIdByIdAndOwnerId(id, employeeId)).thenReturn(Optional.of(projectId));
+        when(commentRepository.deleteByIdAndOwnerId(id, employeeId)).thenReturn(1);
 
         commentService.deleteComment(id, token);
 
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(commentRepository, times(1)).delete(any());
+        verify(tokenService, times(1)).subject(token);
+        verify(commentRepository, times(1)).findProjectIdByIdAndOwnerId(id, employeeId);
+        verify(commentRepository, times(1)).deleteByIdAndOwnerId(id, employeeId);
+        verify(authorizationGraph, times(1)).removeComment(id);
+        verify(projectSummaryRepository, times(1)).decrementComments(projectId);
+        verifyNoMoreInteractions(commentRepository);
     }
     @Test
-    @DisplayName("Delete Unsuccessfully - Non existent Comment")
-    void deleteComment_unsuccessful_case01() {
+    @DisplayName("Delete Unsuccessfully - Isn't its Comment")
+    void deleteComment_unsuccessful() {
         Long id = 1L;
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
-        when(commentRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findProjectIdByIdAndOwnerId(id, employeeId)).thenReturn(Optional.empty());
 
         assertThrows(NullCommentException.class, () -> commentService.deleteComment(id, token));
 
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, never()).deleteByIdAndOwnerId(any(), any());
+        verify(authorizationGraph, never()).removeComment(id);
+        verify(tokenService, times(1)).subject(token);
+        verifyNoInteractions(projectSummaryRepository);
     }
     @Test
-    @DisplayName("Delete Unsuccessfully - Isn't its Comment")
+    @DisplayName("Delete Unsuccessfully - Concurrently Deleted Comment")
     void deleteComment_unsuccessful_case02() {
         Long id = 1L;
-        Comment comment = mock(Comment.class);
-        Set<Comment> comments = new HashSet<>();
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(employee.getComments()).thenReturn(comments);
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findProjectIdByIdAndOwnerId(id, employeeId)).thenReturn(Optional.of(projectId));
+        when(commentRepository.deleteByIdAndOwnerId(id, employeeId)).thenReturn(0);
 
         assertThrows(NullCommentException.class, () -> commentService.deleteComment(id, token));
 
-        verify(commentRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(authorizationGraph, never()).removeComment(id);
+        verifyNoInteractions(projectSummaryRepository);
     }
 
     @Test
     @DisplayName("Get All Comments Successfully")
     void getAllComments_successful() {
         Long id = 1L;
-        Task task = mock(Task.class);
-        Comment comment = mock(Comment.class);
-        Project project = mock(Project.class);
-        Set<Comment> comments = Set.of(comment);
-        Employee manager = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+        PageRequestDTO page = new PageRequestDTO(null, null, false);
+        CommentDTO comment = new CommentDTO(10L, "Test Content", LocalDateTime.now(), "Test Username");
 
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(authorizationGraph.isTaskOfProject(id, projectId)).thenReturn(true);
+        PageCursors.TimeKey start = pageCursors.beforeTime(page);
 
-        when(task.getComments()).thenReturn(comments);
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(Set.of(task));
-        when(comment.getOwner()).thenReturn(mock(Employee.class));
-        when(comment.getPostedAt()).thenReturn(LocalDateTime.now());
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(commentRepository.findAllDTOByTaskId(id, start.time(), Long.MAX_VALUE, PageRequest.ofSize(3))).thenReturn(List.of(comment));
 
-        List<CommentDTO> allComments = commentService.getAllComments(id, token);
+        PageDTO<CommentDTO> allComments = commentService.getAllComments(id, page, token);
 
-        assertEquals(1, allComments.size());
+        assertEquals(List.of(comment), allComments.items());
+        assertNull(allComments.next_cursor());
 
-        verify(taskRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
-    }
-    @Test
-    @DisplayName("Get All Comments Unsuccessfully - Non existent Task")
-    void getAllComments_unsuccessful_case01() {
-        Long id = 1L;
-        Employee manager = mock(Employee.class);
-        JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-
-        assertThrows(NullTaskException.class, () -> commentService.getAllComments(id, token));
-
-        verify(taskRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, times(1)).findAllDTOByTaskId(id, start.time(), Long.MAX_VALUE, PageRequest.ofSize(3));
+        verify(taskRepository, never()).findById(id);
     }
     @Test
     @DisplayName("Get All Comments Unsuccessfully - Isn't its Project's Task")
-    void getAllComments_unsuccessful_case02() {
+    void getAllComments_unsuccessful() {
         Long id = 1L;
-        Task task = mock(Task.class);
-        Project project = mock(Project.class);
-        Employee manager = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>());
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(authorizationGraph.isTaskOfProject(id, projectId)).thenReturn(false);
 
-        assertThrows(NullTaskException.class, () -> commentService.getAllComments(id, token));
+        assertThrows(NullTaskException.class, () -> commentService.getAllComments(id, new PageRequestDTO(null, null, false), token));
 
-        verify(taskRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(authorizationGraph, times(1)).isTaskOfProject(id, projectId);
+        verify(commentRepository, never()).findAllDTOByTaskId(any(), any(), any(), any());
     }
 
     @Test
     @DisplayName("Get Comments Successfully")
     void getComments() {
-        Comment comment = mock(Comment.class);
-        Employee employee = mock(Employee.class);
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+        PageRequestDTO page = new PageRequestDTO(null, 1, false);
+        LocalDateTime postedAt = LocalDateTime.of(2030, 1, 1, 12, 0, 0, 123_456_000);
+        CommentDTO first = new CommentDTO(11L, "Test Content", postedAt, "Test Username");
+        CommentDTO second = new CommentDTO(10L, "Test Content", postedAt.minusNanos(1000), "Test Username");
+        PageCursors.TimeKey start = pageCursors.beforeTime(page);
 
-        when(employee.getComments()).thenReturn(Set.of(comment));
-        when(comment.getOwner()).thenReturn(mock(Employee.class));
-        when(comment.getPostedAt()).thenReturn(LocalDateTime.now());
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
+        when(tokenService.subject(token)).thenReturn(employeeId);
+        when(commentRepository.findAllDTOByOwnerId(employeeId, start.time(), start.id(), PageRequest.ofSize(2))).thenReturn(List.of(first, second));
 
-        List<CommentDTO> comments = commentService.getComments(token);
+        PageDTO<CommentDTO> comments = commentService.getComments(page, token);
 
-        assertEquals(1, comments.size());
+        assertEquals(List.of(first), comments.items());
+        assertEquals(new PageCursors.TimeKey(postedAt, 11L), pageCursors.beforeTime(new PageRequestDTO(comments.next_cursor(), 1, false)));
 
-        verify(employee, times(1)).getComments();
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(commentRepository, times(1)).findAllDTOByOwnerId(employeeId, start.time(), start.id(), PageRequest.ofSize(2));
+        verify(tokenService, times(1)).subject(token);
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,26 @@
 package com.office.api.service;
 
 import com.office.api.exception.LoginFailedException;
+import com.office.api.exception.LoginThrottledException;
 import com.office.api.exception.NullCompanyException;
 import com.office.api.exception.UsedDataException;
 import com.office.api.model.Address;
 import com.office.api.model.Company;
 import com.office.api.model.dto.address.NewAddressDTO;
 import com.office.api.model.dto.company.*;
-import com.office.api.model.enums.Role;
+import com.office.api.model.enums.Realm;
+import com.office.api.repository.AddressRepository;
 import com.office.api.repository.CompanyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -30,11 +32,25 @@ import static org.mockito.Mockito.*;
 
 class CompanyServiceTest {
     @Mock
-    private JwtEncoder jwtEncoder;
+    private TokenService tokenService;
     @Mock
-    private PasswordEncoder encoder;
+    private HashingService encoder;
+    @Mock
+    private MembershipService membershipService;
     @Mock
     private CompanyRepository companyRepository;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Mock
+    private LoginThrottle loginThrottle;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private CompanyService companyService;
 
@@ -49,20 +65,21 @@ class CompanyServiceTest {
         Jwt accessToken = mock(Jwt.class);
         Company company = mock(Company.class);
         LoginRequestDTO data = mock(LoginRequestDTO.class);
+        var grant = new RefreshTokenService.Grant(null, UUID.randomUUID(), "Test Refresh Token");
 
-        when(company.getRole()).thenReturn(Role.COMPANY);
-        when(company.getId()).thenReturn(UUID.randomUUID());
-        when(jwtEncoder.encode(any())).thenReturn(accessToken);
+        when(refreshTokenService.create(any(), eq(Realm.COMPANY))).thenReturn(grant);
+        when(tokenService.issue(company, grant.session())).thenReturn(accessToken);
         when(encoder.matches(any(), any())).thenReturn(true);
         when(companyRepository.findByName(any())).thenReturn(Optional.of(company));
 
-        LoginResponseDTO response = companyService.login(data);
+        LoginResponseDTO response = companyService.login(data, "Test Address");
 
-        verify(jwtEncoder, times(1)).encode(any());
+        verify(tokenService, times(1)).issue(company, grant.session());
         verify(encoder, times(1)).matches(any(), any());
         verify(companyRepository, times(1)).findByName(any());
 
         assertNotNull(response);
+        assertEquals("Test Refresh Token", response.refresh_token());
     }
     @Test
     @DisplayName("Login Unsuccessfully - Non existent Company")
@@ -71,7 +88,7 @@ class CompanyServiceTest {
 
         when(companyRepository.findByName(any())).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> companyService.login(data));
+        assertThrows(RuntimeException.class, () -> companyService.login(data, "Test Address"));
 
         verify(companyRepository, times(1)).findByName(any());
     }
@@ -84,11 +101,54 @@ class CompanyServiceTest {
         when(encoder.matches(any(), any())).thenReturn(false);
         when(companyRepository.findByName(any())).thenReturn(Optional.of(company));
 
-        assertThrows(LoginFailedException.class, () -> companyService.login(data));
+        assertThrows(LoginFailedException.class, () -> companyService.login(data, "Test Address"));
 
         verify(encoder, times(1)).matches(any(), any());
         verify(companyRepository, times(1)).findByName(any());
     }
+    @Test
+    @DisplayName("Login Unsuccessfully - Too Many Attempts")
+    void login_unsuccessful_case03() {
+        LoginRequestDTO data = mock(LoginRequestDTO.class);
+
+        when(data.name()).thenReturn("Test Name");
+        doThrow(new LoginThrottledException(60L)).when(loginThrottle)
+                .acquire("company", "Test Name", "Test Address");
+
+        assertThrows(LoginThrottledException.class, () -> companyService.login(data, "Test Address"));
+
+        verify(companyRepository, never()).findByName(any());
+        verify(encoder, never()).matches(any(), any());
+    }
+
+    @Test
+    @DisplayName("Refresh Token Successfully")
+    void refresh_successful() {
+        Company company = mock(Company.class);
+        var grant = new RefreshTokenService.Grant(UUID.randomUUID(), UUID.randomUUID(), "Test Refresh Token");
+        var data = new RefreshRequestDTO("Test Old Refresh Token");
+
+        when(refreshTokenService.rotate("Test Old Refresh Token", Realm.COMPANY)).thenReturn(grant);
+        when(companyRepository.findById(grant.subject())).thenReturn(Optional.of(company));
+        when(tokenService.issue(company, grant.session())).thenReturn(mock(Jwt.class));
+
+        LoginResponseDTO response = assertDoesNotThrow(() -> companyService.refresh(data));
+
+        assertEquals("Test Refresh Token", response.refresh_token());
+        verify(tokenService, times(1)).issue(company, grant.session());
+    }
+    @Test
+    @DisplayName("Refresh Token Unsuccessfully - Invalid Token")
+    void refresh_unsuccessful() {
+        var data = new RefreshRequestDTO("Test Refresh Token");
+
+        when(refreshTokenService.rotate(any(), any())).thenThrow(new LoginFailedException("Refresh token not found"));
+
+        assertThrows(LoginFailedException.class, () -> companyService.refresh(data));
+
+        verify(companyRepository, never()).findById(any());
+        verify(tokenService, never()).issue(any(Company.class), any());
+    }
 
     @Test
     @DisplayName("Register Company Successfully")
@@ -108,7 +168,14 @@ class CompanyServiceTest {
         verify(data, times(2)).cnpj();
         verify(encoder, times(1)).encode(any());
         verify(companyRepository, times(1)).save(any());
+        verify(addressRepository, times(1)).save(any(Address.class));
         verify(companyRepository, times(1)).existsByNameOrCnpj(any(), any());
+
+        // Hashed before the transaction opens
+        InOrder inOrder = inOrder(encoder, transactionManager);
+        inOrder.verify(encoder).encode(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
     }
     @Test
     @DisplayName("Register Company Unsuccessfully")
@@ -120,6 +187,7 @@ class CompanyServiceTest {
         assertThrows(UsedDataException.class, () -> companyService.newCompany(data));
 
         verify(companyRepository, times(1)).existsByNameOrCnpj(any(), any());
+        verify(transactionManager, times(1)).rollback(any());
     }
 
     @Test
@@ -176,6 +244,10 @@ class CompanyServiceTest {
 
         verify(companyRepository, times(1)).delete(any());
         verify(companyRepository, times(1)).findById(any());
+        verify(membershipService, times(1)).evictAll();
+        verify(authorizationGraph, times(1)).clear();
+        verify(refreshTokenService, times(1)).revokeSubject(company.getId());
+        verify(employeeDirectory, times(1)).evict(company.getId());
     }
 
     @Test
@@ -183,18 +255,21 @@ class CompanyServiceTest {
     void getCompany_successful_case01() {
         var token = mock(JwtAuthenticationToken.class);
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        company.setAddress(new Address(new NewAddressDTO("08500000", "123", "Test Street",
-                "Test Neighborhood", "Test City", "Test State"), company));
+        company.setId(UUID.randomUUID());
+        Address address = new Address(new NewAddressDTO("08500000", "123", "Test Street",
+                "Test Neighborhood", "Test City", "Test State"), company);
 
-        when(token.getName()).thenReturn(UUID.randomUUID().toString());
-        when(companyRepository.findById(any())).thenReturn(Optional.of(company));
+        when(token.getName()).thenReturn(company.getId().toString());
+        when(companyRepository.findById(company.getId())).thenReturn(Optional.of(company));
+        when(addressRepository.findByCompanyId(company.getId())).thenReturn(Optional.of(address));
 
         CompanyDTO data = assertDoesNotThrow(() -> companyService.getCompany(token));
         assertEquals(data.name(), company.getName());
         assertEquals(data.cnpj(), company.getCnpj());
-        assertNotNull(data);
+        assertEquals("08500000", data.address().zipCode());
 
         verify(companyRepository, times(1)).findById(any());
+        verify(addressRepository, times(1)).findByCompanyId(company.getId());
     }
 
     @Test
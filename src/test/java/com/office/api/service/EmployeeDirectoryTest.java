@@ -0,0 +1,137 @@
+package com.office.api.service;
+
+import com.office.api.exception.InvalidPageException;
+import com.office.api.exception.InvalidSearchException;
+import com.office.api.model.dto.employee.EmployeeMatchDTO;
+import com.office.api.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeDirectoryTest {
+    @Mock
+    private EmployeeRepository employeeRepository;
+    private EmployeeDirectory employeeDirectory;
+
+    private final UUID companyId = UUID.randomUUID();
+    private final EmployeeMatchDTO ana = new EmployeeMatchDTO("ana.souza", "Ana Maria Souza");
+    private final EmployeeMatchDTO joao = new EmployeeMatchDTO("jsilva", "João Alves Silva");
+    private final EmployeeMatchDTO maria = new EmployeeMatchDTO("maria", "Maria Antônia");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        employeeDirectory = new EmployeeDirectory(employeeRepository, 2, 3, 10, Duration.ofMinutes(5));
+
+        when(employeeRepository.findAllMatchDTOByCompanyId(companyId)).thenReturn(List.of(maria, joao, ana));
+    }
+
+    @Test
+    @DisplayName("Completes Usernames and Name Words Successfully")
+    void complete_successful() {
+        assertEquals(List.of(joao), employeeDirectory.complete(companyId, "JOA", null));
+        assertEquals(List.of(joao), employeeDirectory.complete(companyId, "sil", null));
+        assertEquals(List.of(ana), employeeDirectory.complete(companyId, "maria s", null));
+        assertEquals(List.of(maria, ana), employeeDirectory.complete(companyId, "ma", 10));
+        assertEquals(List.of(maria), employeeDirectory.complete(companyId, "anto", null));
+        assertEquals(List.of(), employeeDirectory.complete(companyId, "zz", null));
+
+        verify(employeeRepository, times(1)).findAllMatchDTOByCompanyId(companyId);
+    }
+    @Test
+    @DisplayName("Limits Completions to the Requested and Maximum Results")
+    void complete_limited() {
+        assertEquals(1, employeeDirectory.complete(companyId, "a", 1).size());
+        assertEquals(2, employeeDirectory.complete(companyId, "a", null).size());
+        assertEquals(3, employeeDirectory.complete(companyId, "a", 50).size());
+        assertEquals(List.of(joao), employeeDirectory.complete(companyId, "alves", 50));
+    }
+    @Test
+    @DisplayName("Keeps the Loaded Index in Sync with Writes")
+    void write_successful() {
+        employeeDirectory.complete(companyId, "a", null);
+
+        employeeDirectory.add(companyId, "bruno", "Bruno Lima");
+        employeeDirectory.update(companyId, "jsilva", "joao.silva", "João Pedro Silva");
+        employeeDirectory.remove(companyId, "maria");
+
+        assertEquals(List.of(new EmployeeMatchDTO("bruno", "Bruno Lima")), employeeDirectory.complete(companyId, "lim", null));
+        assertEquals(List.of(new EmployeeMatchDTO("joao.silva", "João Pedro Silva")), employeeDirectory.complete(companyId, "pedro", null));
+        assertEquals(List.of(), employeeDirectory.complete(companyId, "jsil", null));
+        assertEquals(List.of(ana), employeeDirectory.complete(companyId, "maria", null));
+        verify(employeeRepository, times(1)).findAllMatchDTOByCompanyId(companyId);
+
+        employeeDirectory.evict(companyId);
+        employeeDirectory.complete(companyId, "a", null);
+        verify(employeeRepository, times(2)).findAllMatchDTOByCompanyId(companyId);
+    }
+    @Test
+    @DisplayName("Applies Writes Only After the Transaction Commits")
+    void write_afterCommit() {
+        employeeDirectory.complete(companyId, "a", null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            employeeDirectory.add(companyId, "bruno", "Bruno Lima");
+            assertEquals(List.of(), employeeDirectory.complete(companyId, "bru", null));
+
+            this.commit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, employeeDirectory.complete(companyId, "bru", null).size());
+    }
+    @Test
+    @DisplayName("Merges the Writes of a Transaction as a Full Reload Would")
+    void write_batched() {
+        employeeDirectory.complete(companyId, "a", null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            employeeDirectory.add(companyId, "bruno", "Bruno Lima");
+            employeeDirectory.update(companyId, "bruno", "bruno.lima", "Bruno Alves Lima");
+            employeeDirectory.add(companyId, "zeca", "José Souza");
+            employeeDirectory.remove(companyId, "ana.souza");
+            employeeDirectory.update(companyId, "maria", "maria", "Maria Antônia Alves");
+            assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+            this.commit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        EmployeeRepository reloaded = mock(EmployeeRepository.class);
+        when(reloaded.findAllMatchDTOByCompanyId(companyId)).thenReturn(List.of(
+                joao, new EmployeeMatchDTO("maria", "Maria Antônia Alves"),
+                new EmployeeMatchDTO("bruno.lima", "Bruno Alves Lima"), new EmployeeMatchDTO("zeca", "José Souza")));
+        EmployeeDirectory expected = new EmployeeDirectory(reloaded, 3, 3, 10, Duration.ofMinutes(5));
+        for(String prefix : List.of("a", "alves", "b", "bruno", "j", "jose", "lima", "m", "souza", "s", "z", "ana"))
+            assertEquals(expected.complete(companyId, prefix, null), employeeDirectory.complete(companyId, prefix, 3), prefix);
+        verify(employeeRepository, times(1)).findAllMatchDTOByCompanyId(companyId);
+    }
+    @Test
+    @DisplayName("Complete Unsuccessfully - Invalid Prefix or Limit")
+    void complete_unsuccessful() {
+        assertThrows(InvalidSearchException.class, () -> employeeDirectory.complete(companyId, " ", null));
+        assertThrows(InvalidSearchException.class, () -> employeeDirectory.complete(companyId, null, null));
+        assertThrows(InvalidPageException.class, () -> employeeDirectory.complete(companyId, "a", 0));
+
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
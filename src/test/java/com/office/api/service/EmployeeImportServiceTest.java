@@ -0,0 +1,228 @@
+package com.office.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.office.api.exception.HashingUnavailableException;
+import com.office.api.exception.InvalidEmployeeException;
+import com.office.api.model.Company;
+import com.office.api.model.Employee;
+import com.office.api.model.dto.employee.EmployeeImportDTO;
+import com.office.api.model.dto.employee.EmployeeImportRowDTO;
+import com.office.api.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeImportServiceTest {
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Mock
+    private TokenService tokenService;
+    @Mock
+    private HashingService encoder;
+    @Mock
+    private CompanyService companyService;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private EmployeeImportService employeeImportService;
+
+    private final UUID companyId = UUID.randomUUID();
+    private final JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        employeeImportService = new EmployeeImportService(tokenService, encoder, companyService, employeeRepository,
+                entityManager, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), employeeDirectory, transactionManager, 2);
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(companyService.getReference(companyId)).thenReturn(mock(Company.class));
+        when(encoder.encodeAll(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                .map(password -> "Encoded " + password).toList());
+    }
+
+    @Test
+    @DisplayName("Import Employees Successfully - CSV in Chunks")
+    @SuppressWarnings("unchecked")
+    void importEmployees_successful() {
+        String body = """
+                username,name,cpf,email,password
+                first,"Last, First",%s,first@office.com,First Password
+
+                second,Second,%s,second@office.com,Second Password
+                third,"Third \"\"3rd\"\"",%s,third@office.com,Third Password
+                """.formatted(cpf(1), cpf(2), cpf(3));
+
+        Report report = assertDoesNotThrow(() -> this.report(employeeImportService.importEmployees(this.stream(body), CSV, token)));
+
+        assertEquals(new EmployeeImportDTO(3, 0), report.totals());
+        assertEquals(List.of(
+                new EmployeeImportRowDTO(2, "first", true, null),
+                new EmployeeImportRowDTO(4, "second", true, null),
+                new EmployeeImportRowDTO(5, "third", true, null)), report.rows());
+
+        ArgumentCaptor<List<Employee>> saved = ArgumentCaptor.forClass(List.class);
+        verify(employeeRepository, times(2)).saveAll(saved.capture());
+        assertEquals(2, saved.getAllValues().get(0).size());
+        assertEquals("Last, First", saved.getAllValues().get(0).get(0).getName());
+        assertEquals("Encoded First Password", saved.getAllValues().get(0).get(0).getPassword());
+        assertEquals("Third \"3rd\"", saved.getAllValues().get(1).get(0).getName());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager, times(4)).commit(any());
+        verify(employeeDirectory, times(1)).evict(companyId);
+    }
+    @Test
+    @DisplayName("Import Employees Unsuccessfully - Rejected NDJSON Rows")
+    void importEmployees_unsuccessful_case01() {
+        String body = """
+                {"name":"Free","username":"free","cpf":"%s","email":"free@office.com","password":"Password"}
+                {"name":"Again","username":"free","cpf":"%s","email":"again@office.com","password":"Password"}
+                {"name":"Taken","username":"taken","cpf":"%s","email":"taken@office.com","password":"Password"}
+                {"name":"Invalid","username":"invalid","cpf":"%s","email":"not an email","password":"Password"}
+                {"name":
+                """.formatted(cpf(1), cpf(2), cpf(3), cpf(4));
+
+        when(employeeRepository.findUsernamesByUsernameIn(Set.of("taken"))).thenReturn(Set.of("taken"));
+
+        Report report = assertDoesNotThrow(() -> this.report(employeeImportService.importEmployees(
+                this.stream(body), MediaType.APPLICATION_NDJSON, token)));
+
+        assertEquals(new EmployeeImportDTO(1, 4), report.totals());
+        assertEquals(List.of(
+                new EmployeeImportRowDTO(1, "free", true, null),
+                new EmployeeImportRowDTO(2, "free", false, "Repeated in the import"),
+                new EmployeeImportRowDTO(3, "taken", false, "Data already in use"),
+                new EmployeeImportRowDTO(4, "invalid", false, "email must be a well-formed email address"),
+                new EmployeeImportRowDTO(5, null, false, "Malformed JSON")), report.rows());
+        verify(encoder, times(1)).encodeAll(List.of("Password"));
+        verify(employeeRepository, times(1)).saveAll(any());
+        verify(employeeRepository, never()).findUsernamesByUsernameIn(Set.of());
+    }
+    @Test
+    @DisplayName("Import Employees Unsuccessfully - Missing CSV Column")
+    void importEmployees_unsuccessful_case02() {
+        String body = """
+                username,name,email,password
+                first,First,first@office.com,Password
+                """;
+
+        assertThrows(InvalidEmployeeException.class, () -> employeeImportService.importEmployees(this.stream(body), CSV, token));
+
+        verifyNoInteractions(employeeRepository, encoder, employeeDirectory, transactionManager);
+    }
+    @Test
+    @DisplayName("Import Employees Unsuccessfully - Chunk Rolled Back at Flush")
+    void importEmployees_unsuccessful_case03() {
+        String body = """
+                username,name,cpf,email,password
+                first,First,%s,first@office.com,Password
+                second,Second,%s,second@office.com,Password
+                third,Third,%s,third@office.com,Password
+                """.formatted(cpf(1), cpf(2), cpf(3));
+
+        doThrow(new PersistenceException("Unique index or primary key violation")).doNothing().when(entityManager).flush();
+
+        Report report = assertDoesNotThrow(() -> this.report(employeeImportService.importEmployees(this.stream(body), CSV, token)));
+
+        assertEquals(new EmployeeImportDTO(1, 2), report.totals());
+        assertEquals(List.of(
+                new EmployeeImportRowDTO(2, "first", false, "Not saved, its chunk was rolled back"),
+                new EmployeeImportRowDTO(3, "second", false, "Not saved, its chunk was rolled back"),
+                new EmployeeImportRowDTO(4, "third", true, null)), report.rows());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(employeeDirectory, times(1)).evict(companyId);
+    }
+    @Test
+    @DisplayName("Import Employees Unsuccessfully - Hashing Pool Busy")
+    void importEmployees_unsuccessful_case04() {
+        String body = """
+                username,name,cpf,email,password
+                first,First,%s,first@office.com,Password
+                second,Second,%s,second@office.com,Password
+                third,Third,%s,third@office.com,Password
+                """.formatted(cpf(1), cpf(2), cpf(3));
+
+        doThrow(new HashingUnavailableException()).doReturn(List.of("Encoded Password")).when(encoder).encodeAll(any());
+
+        Report report = assertDoesNotThrow(() -> this.report(employeeImportService.importEmployees(this.stream(body), CSV, token)));
+
+        assertEquals(new EmployeeImportDTO(1, 2), report.totals());
+        assertEquals(List.of(
+                new EmployeeImportRowDTO(2, "first", false, "Not saved, the password hashing is busy, try again later"),
+                new EmployeeImportRowDTO(3, "second", false, "Not saved, the password hashing is busy, try again later"),
+                new EmployeeImportRowDTO(4, "third", true, null)), report.rows());
+        verify(employeeRepository, times(1)).saveAll(any());
+
+        // Each chunk is checked in one transaction and saved in another, hashing in between
+        InOrder inOrder = inOrder(transactionManager, encoder);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(encoder).encodeAll(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(encoder).encodeAll(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        verify(employeeDirectory, times(1)).evict(companyId);
+    }
+
+    // Every line but the last is a row, the last one holds the totals
+    private Report report(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        List<EmployeeImportRowDTO> rows = new ArrayList<>();
+        for(String line : lines.subList(0, lines.size() - 1))
+            rows.add(objectMapper.readValue(line, EmployeeImportRowDTO.class));
+        return new Report(rows, objectMapper.readValue(lines.get(lines.size() - 1), EmployeeImportDTO.class));
+    }
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    // Nine digits followed by their two CPF check digits
+    private static String cpf(int seed) {
+        String digits = String.format("%09d", seed * 7919);
+        for(int length = 9; length < 11; length++) {
+            int sum = 0;
+            for(int i = 0; i < length; i++)
+                sum += (digits.charAt(i) - '0') * (length + 1 - i);
+            digits += (sum * 10 % 11) % 10;
+        }
+        return digits;
+    }
+
+    private record Report(List<EmployeeImportRowDTO> rows, EmployeeImportDTO totals) {}
+}
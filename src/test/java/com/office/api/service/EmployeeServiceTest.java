@@ -1,25 +1,34 @@
 package com.office.api.service;
 
 import com.office.api.exception.LoginFailedException;
+import com.office.api.exception.LoginThrottledException;
 import com.office.api.exception.NullEmployeeException;
 import com.office.api.exception.UsedDataException;
 import com.office.api.model.Company;
 import com.office.api.model.Employee;
+import com.office.api.model.Project;
 import com.office.api.model.dto.employee.*;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.enums.Realm;
 import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -29,13 +38,31 @@ import static org.mockito.Mockito.*;
 
 class EmployeeServiceTest {
     @Mock
-    private JwtEncoder jwtEncoder;
+    private TokenService tokenService;
     @Mock
-    private PasswordEncoder encoder;
+    private HashingService encoder;
     @Mock
     private CompanyService companyService;
     @Mock
+    private MembershipService membershipService;
+    @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Mock
+    private LoginThrottle loginThrottle;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @Mock
+    private EntityCacheService entityCacheService;
+    @Mock
+    private ProjectSummaryRepository projectSummaryRepository;
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -49,17 +76,19 @@ class EmployeeServiceTest {
     void login_successful() {
         Employee employee = mock(Employee.class);
         LoginRequestDTO data = mock(LoginRequestDTO.class);
+        var grant = new RefreshTokenService.Grant(null, UUID.randomUUID(), "Test Refresh Token");
 
         when(employeeRepository.findByUsername(data.username())).thenReturn(Optional.of(employee));
         when(encoder.matches(data.password(), employee.getPassword())).thenReturn(true);
-        when(employee.getId()).thenReturn(UUID.randomUUID());
-        when(employee.getRole()).thenReturn(Role.EMPLOYEE);
-        when(jwtEncoder.encode(any())).thenReturn(mock(Jwt.class));
+        when(refreshTokenService.create(any(), eq(Realm.EMPLOYEE))).thenReturn(grant);
+        when(tokenService.issue(employee, grant.session())).thenReturn(mock(Jwt.class));
 
-        LoginResponseDTO response = assertDoesNotThrow(() -> employeeService.login(data));
+        LoginResponseDTO response = assertDoesNotThrow(() -> employeeService.login(data, "Test Address"));
 
         assertNotNull(response);
+        assertEquals("Test Refresh Token", response.refresh_token());
         verify(employeeRepository, times(1)).findByUsername(data.username());
+        verify(tokenService, times(1)).issue(employee, grant.session());
     }
     @Test
     @DisplayName("Login Unsuccessfully - Non existent Employee")
@@ -68,7 +97,7 @@ class EmployeeServiceTest {
 
         when(employeeRepository.findByUsername(data.username())).thenReturn(Optional.empty());
 
-        assertThrows(LoginFailedException.class, () -> employeeService.login(data));
+        assertThrows(LoginFailedException.class, () -> employeeService.login(data, "Test Address"));
 
         verify(employeeRepository, times(1)).findByUsername(data.username());
     }
@@ -81,10 +110,54 @@ class EmployeeServiceTest {
         when(employeeRepository.findByUsername(data.username())).thenReturn(Optional.of(employee));
         when(encoder.matches(data.password(), employee.getPassword())).thenReturn(false);
 
-        assertThrows(LoginFailedException.class, () -> employeeService.login(data));
+        assertThrows(LoginFailedException.class, () -> employeeService.login(data, "Test Address"));
 
         verify(employeeRepository, times(1)).findByUsername(data.username());
     }
+    @Test
+    @DisplayName("Login Unsuccessfully - Too Many Attempts")
+    void login_unsuccessful_case03() {
+        LoginRequestDTO data = mock(LoginRequestDTO.class);
+
+        when(data.username()).thenReturn("Test Username");
+        doThrow(new LoginThrottledException(60L)).when(loginThrottle)
+                .acquire("employee", "Test Username", "Test Address");
+
+        assertThrows(LoginThrottledException.class, () -> employeeService.login(data, "Test Address"));
+
+        verify(employeeRepository, never()).findByUsername(any());
+        verify(encoder, never()).matches(any(), any());
+    }
+
+    @Test
+    @DisplayName("Refresh Token Successfully")
+    void refresh_successful() {
+        Employee employee = mock(Employee.class);
+        var grant = new RefreshTokenService.Grant(UUID.randomUUID(), UUID.randomUUID(), "Test Refresh Token");
+        var data = new RefreshRequestDTO("Test Old Refresh Token");
+
+        when(refreshTokenService.rotate("Test Old Refresh Token", Realm.EMPLOYEE)).thenReturn(grant);
+        when(employeeRepository.findWithTeamById(grant.subject())).thenReturn(Optional.of(employee));
+        when(tokenService.issue(employee, grant.session())).thenReturn(mock(Jwt.class));
+
+        LoginResponseDTO response = assertDoesNotThrow(() -> employeeService.refresh(data));
+
+        assertEquals("Test Refresh Token", response.refresh_token());
+        verify(tokenService, times(1)).issue(employee, grant.session());
+    }
+    @Test
+    @DisplayName("Refresh Token Unsuccessfully - Removed Employee")
+    void refresh_unsuccessful() {
+        var grant = new RefreshTokenService.Grant(UUID.randomUUID(), UUID.randomUUID(), "Test Refresh Token");
+        var data = new RefreshRequestDTO("Test Old Refresh Token");
+
+        when(refreshTokenService.rotate(any(), any())).thenReturn(grant);
+        when(employeeRepository.findWithTeamById(grant.subject())).thenReturn(Optional.empty());
+
+        assertThrows(LoginFailedException.class, () -> employeeService.refresh(data));
+
+        verify(tokenService, never()).issue(any(Employee.class), any());
+    }
 
     @Test
     @DisplayName("Registers Employee Successfully")
@@ -93,7 +166,7 @@ class EmployeeServiceTest {
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
         Company company = mock(Company.class);
 
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(companyService.getReference(tokenService.companyId(token))).thenReturn(company);
         when(employeeRepository.existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email()))
                 .thenReturn(false);
 
@@ -102,7 +175,14 @@ class EmployeeServiceTest {
         verify(employeeRepository, times(1)).save(any(Employee.class));
         verify(employeeRepository, times(1))
                 .existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email());
-        verify(companyService, times(1)).getCompany(token.getName());
+        verify(companyService, times(1)).getReference(tokenService.companyId(token));
+        verify(employeeDirectory, times(1)).add(tokenService.companyId(token), data.username(), data.name());
+
+        // Hashed before the transaction opens
+        InOrder inOrder = inOrder(encoder, transactionManager);
+        inOrder.verify(encoder).encode(data.password());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
     }
     @Test
     @DisplayName("Registers Employee Unsuccessfully")
@@ -111,7 +191,7 @@ class EmployeeServiceTest {
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
         Company company = mock(Company.class);
 
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(companyService.getReference(tokenService.companyId(token))).thenReturn(company);
         when(employeeRepository.existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email()))
                 .thenReturn(true);
 
@@ -120,7 +200,6 @@ class EmployeeServiceTest {
         verify(employeeRepository, never()).save(any(Employee.class));
         verify(employeeRepository, times(1))
                 .existsByUsernameOrCpfOrEmail(data.username(), data.cpf(), data.email());
-        verify(companyService, times(1)).getCompany(token.getName());
     }
 
     @Test
@@ -140,6 +219,7 @@ class EmployeeServiceTest {
         verify(employeeRepository, times(1)).findById(any(UUID.class));
         verify(employeeRepository, times(1)).findAllByUsernameOrEmail(data.username(), data.email());
         verify(employeeRepository, times(1)).save(employee);
+        verify(employeeDirectory, times(1)).update(tokenService.companyId(token), employee.getUsername(), data.username(), data.name());
     }
     @Test
     @DisplayName("Update Employee Unsuccessfully - Non existent Employee")
@@ -184,21 +264,27 @@ class EmployeeServiceTest {
     @DisplayName("Remove Employee Successfully")
     void removeEmployee_successful() {
         String username = "Test Username";
+        UUID companyId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
         var token = mock(JwtAuthenticationToken.class);
-        Company company = mock(Company.class);
-        Employee employee = mock(Employee.class);
-        Set<Employee> employees = new HashSet<>() {{add(employee);}};
 
-        when(company.getEmployees()).thenReturn(employees);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(employee));
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(employeeRepository.findIdByUsernameAndCompanyId(username, companyId)).thenReturn(Optional.of(employeeId));
+        when(employeeRepository.deleteByIdAndCompanyId(employeeId, companyId)).thenReturn(1);
 
         assertDoesNotThrow(() -> employeeService.removeEmployee(username, token));
 
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(employeeRepository, times(1)).delete(employee);
-
+        verify(tokenService, times(1)).companyId(token);
+        verify(employeeRepository, times(1)).findIdByUsernameAndCompanyId(username, companyId);
+        verify(employeeRepository, times(1)).deleteByIdAndCompanyId(employeeId, companyId);
+        verifyNoMoreInteractions(employeeRepository);
+        verify(membershipService, times(1)).evict(employeeId);
+        verify(authorizationGraph, times(1)).removeEmployee(employeeId);
+        verify(projectSummaryRepository, times(1)).decrementCommentsByOwnerId(employeeId);
+        verify(projectSummaryRepository, times(1)).decrementMembersByEmployeeId(employeeId);
+        verify(refreshTokenService, times(1)).revokeSubject(employeeId);
+        verify(entityCacheService, times(1)).evict(Project.class);
+        verify(employeeDirectory, times(1)).remove(companyId, username);
     }
     @Test
     @DisplayName("Remove Employee Unsuccessfully - Non existent Employee")
@@ -206,52 +292,51 @@ class EmployeeServiceTest {
         String username = "Test Username";
         var token = mock(JwtAuthenticationToken.class);
 
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(employeeRepository.findIdByUsernameAndCompanyId(eq(username), any())).thenReturn(Optional.empty());
 
         assertThrows(NullEmployeeException.class, () -> employeeService.removeEmployee(username, token));
 
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(employeeRepository, never()).delete(any(Employee.class));
+        verify(tokenService, times(1)).companyId(token);
+        verify(employeeRepository, times(1)).findIdByUsernameAndCompanyId(eq(username), any());
+        verify(employeeRepository, never()).deleteByIdAndCompanyId(any(), any());
+        verifyNoInteractions(employeeDirectory);
     }
     @Test
     @DisplayName("Remove Employee Unsuccessfully - Isn't its Employee")
     void removeEmployee_unsuccessful_case02() {
         String username = "Test Username";
+        UUID companyId = UUID.randomUUID();
         var token = mock(JwtAuthenticationToken.class);
-        Company company = mock(Company.class);
-        Employee employee = mock(Employee.class);
-        Set<Employee> employees = new HashSet<>();
 
-        when(company.getEmployees()).thenReturn(employees);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(employee));
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(employeeRepository.findIdByUsernameAndCompanyId(username, companyId)).thenReturn(Optional.empty());
+        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(mock(Employee.class)));
 
         assertThrows(NullEmployeeException.class, () -> employeeService.removeEmployee(username, token));
 
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(employeeRepository, never()).delete(employee);
+        verify(tokenService, times(1)).companyId(token);
+        verify(employeeRepository, never()).findByUsername(username);
+        verify(employeeRepository, never()).deleteByIdAndCompanyId(any(), any());
+        verify(refreshTokenService, never()).revokeSubject(any());
     }
 
     @Test
     @DisplayName("Get All Employees Successfully")
     void getAllEmployees() {
-        Company company = mock(Company.class);
+        UUID companyId = UUID.randomUUID();
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        Employee employee = mock(Employee.class);
-        Set<Employee> employees = new HashSet<>(){{add(employee);}};
+        PageRequestDTO page = new PageRequestDTO(null, null, true);
+        EmployeeDTO employee = new EmployeeDTO("Test Name", "Test Username", "Test CPF", "Test Email", Role.EMPLOYEE, "Test Company");
 
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(employeeRepository.findAllDTOByCompanyId(companyId, "", Pageable.unpaged())).thenReturn(List.of(employee));
 
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(company.getEmployees()).thenReturn(employees);
-        when(employee.getCompany()).thenReturn(company);
-        when(company.getName()).thenReturn("Test Name");
+        PageDTO<EmployeeDTO> employeeDTOs = assertDoesNotThrow(() -> employeeService.getAllEmployees(page, token));
 
-        Set<EmployeeDTO> employeeDTOs = assertDoesNotThrow(() -> employeeService.getAllEmployees(token));
-
-        assertEquals(1, employeeDTOs.size());
-        verify(companyService, times(1)).getCompany(token.getName());
+        assertEquals(List.of(employee), employeeDTOs.items());
+        assertNull(employeeDTOs.next_cursor());
+        verify(employeeRepository, times(1)).findAllDTOByCompanyId(companyId, "", Pageable.unpaged());
+        verifyNoMoreInteractions(employeeRepository);
     }
 
     @Test
@@ -259,20 +344,16 @@ class EmployeeServiceTest {
     void getEmployee_employee_successful() {
         UUID id = UUID.randomUUID();
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        Company company = mock(Company.class);
-        Employee employee = mock(Employee.class);
-        Set<Employee> employees = new HashSet<>(){{add(employee);}};
+        EmployeeDTO employee = new EmployeeDTO("Test Name", "Test Username", "Test CPF", "Test Email", Role.EMPLOYEE, "Test Company");
 
-        when(employee.getCompany()).thenReturn(company);
-        when(company.getName()).thenReturn("Test Name");
-        when(company.getEmployees()).thenReturn(employees);
         when(token.getName()).thenReturn(id.toString());
-        when(employeeRepository.findById(id)).thenReturn(Optional.of(employee));
+        when(employeeRepository.findDTOById(id)).thenReturn(Optional.of(employee));
 
         EmployeeDTO employeeDTO = assertDoesNotThrow(() -> employeeService.getEmployee(token));
 
-        assertNotNull(employeeDTO);
-        verify(employeeRepository, times(1)).findById(id);
+        assertEquals(employee, employeeDTO);
+        verify(employeeRepository, times(1)).findDTOById(id);
+        verifyNoMoreInteractions(employeeRepository);
     }
     @Test
     @DisplayName("Employee Gets Employee Successfully")
@@ -281,11 +362,27 @@ class EmployeeServiceTest {
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
         when(token.getName()).thenReturn(id.toString());
-        when(employeeRepository.findById(id)).thenReturn(Optional.empty());
+        when(employeeRepository.findDTOById(id)).thenReturn(Optional.empty());
 
         assertThrows(NullEmployeeException.class, () -> employeeService.getEmployee(token));
 
-        verify(employeeRepository, times(1)).findById(id);
+        verify(employeeRepository, times(1)).findDTOById(id);
+    }
+
+    @Test
+    @DisplayName("Complete Employees Successfully")
+    void completeEmployees_successful() {
+        UUID companyId = UUID.randomUUID();
+        var token = mock(JwtAuthenticationToken.class);
+        List<EmployeeMatchDTO> matches = List.of(new EmployeeMatchDTO("Test Username", "Test Name"));
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(employeeDirectory.complete(companyId, "tes", 5)).thenReturn(matches);
+
+        assertEquals(matches, assertDoesNotThrow(() -> employeeService.completeEmployees("tes", 5, token)));
+
+        verify(employeeDirectory, times(1)).complete(companyId, "tes", 5);
+        verifyNoInteractions(employeeRepository);
     }
 
     @Test
@@ -0,0 +1,91 @@
+package com.office.api.service;
+
+import com.office.api.exception.HashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HashingServiceTest {
+    private PasswordEncoder encoder;
+    private SimpleMeterRegistry registry;
+    private HashingService hashingService;
+
+    @BeforeEach
+    void setUp() {
+        encoder = mock(PasswordEncoder.class);
+        registry = new SimpleMeterRegistry();
+        hashingService = new HashingService(encoder, registry, 1, 1, Duration.ofSeconds(5));
+    }
+    @AfterEach
+    void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Encodes Password Successfully")
+    void encode_successful() {
+        when(encoder.encode("Test Password")).thenReturn("Test Encoded Password");
+
+        String encoded = assertDoesNotThrow(() -> hashingService.encode("Test Password"));
+
+        assertEquals("Test Encoded Password", encoded);
+        verify(encoder, times(1)).encode("Test Password");
+        assertEquals(1, registry.get("office.hashing.duration").tag("operation", "encode").timer().count());
+    }
+    @Test
+    @DisplayName("Matches Password Successfully")
+    void matches_successful() {
+        when(encoder.matches("Test Password", "Test Encoded Password")).thenReturn(true);
+
+        boolean matches = assertDoesNotThrow(() -> hashingService.matches("Test Password", "Test Encoded Password"));
+
+        assertTrue(matches);
+        verify(encoder, times(1)).matches("Test Password", "Test Encoded Password");
+        assertEquals(1, registry.get("office.hashing.queue").timer().count());
+    }
+    @Test
+    @DisplayName("Encodes Passwords in Bulk Successfully")
+    void encodeAll_successful() {
+        when(encoder.encode(any())).thenAnswer(invocation -> "Encoded " + invocation.getArgument(0));
+
+        List<String> encoded = assertDoesNotThrow(() -> hashingService.encodeAll(List.of("First", "Second", "Third")));
+
+        assertEquals(List.of("Encoded First", "Encoded Second", "Encoded Third"), encoded);
+        assertEquals(0, registry.get("executor.queued").tag("name", "office.hashing").gauge().value());
+        assertEquals(3, registry.get("office.hashing.duration").tag("operation", "encode").timer().count());
+    }
+    @Test
+    @DisplayName("Hashes Unsuccessfully - Full Queue")
+    void encode_unsuccessful() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode(any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return "Test Encoded Password";
+        });
+
+        var first = CompletableFuture.supplyAsync(() -> hashingService.encode("First Password"));
+        running.await();
+        var second = CompletableFuture.supplyAsync(() -> hashingService.encode("Second Password"));
+        while (registry.get("executor.queued").tag("name", "office.hashing").gauge().value() < 1)
+            Thread.onSpinWait();
+
+        assertThrows(HashingUnavailableException.class, () -> hashingService.encode("Third Password"));
+
+        release.countDown();
+        assertEquals("Test Encoded Password", first.get());
+        assertEquals("Test Encoded Password", second.get());
+    }
+}
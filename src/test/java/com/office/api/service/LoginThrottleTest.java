@@ -0,0 +1,113 @@
+package com.office.api.service;
+
+import com.office.api.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private final Instant now = Instant.parse("2030-01-01T12:00:00Z");
+    private SimpleMeterRegistry registry;
+    private MutableClock clock;
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = new MutableClock(now);
+        loginThrottle = new LoginThrottle(registry, Duration.ofMinutes(1), 3, 5, 1024, clock);
+    }
+
+    @Test
+    @DisplayName("Throttles Principal Over the Limit")
+    void acquire_principal() {
+        for(int i = 0; i < 3; i++)
+            assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.acquire("employee", "Test Username", "Other Address"));
+
+        assertEquals(60L, exception.getRetryAfter());
+        assertDoesNotThrow(() -> loginThrottle.acquire("company", "Test Username", "Test Address"));
+        assertEquals(1.0, registry.get("office.login.throttled").tag("key", "principal").counter().count());
+    }
+    @Test
+    @DisplayName("Throttles Address Over the Limit")
+    void acquire_address() {
+        for(int i = 0; i < 5; i++) {
+            String username = "Test Username " + i;
+            assertDoesNotThrow(() -> loginThrottle.acquire("employee", username, "Test Address"));
+        }
+
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.acquire("employee", "Other Username", "Test Address"));
+        assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Other Username", "Other Address"));
+        assertEquals(1.0, registry.get("office.login.throttled").tag("key", "address").counter().count());
+    }
+    @Test
+    @DisplayName("Slides the Window")
+    void acquire_sliding() {
+        for(int i = 0; i < 3; i++)
+            loginThrottle.acquire("employee", "Test Username", "Test Address");
+
+        clock.instant = now.plusSeconds(70);
+        assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+
+        clock.instant = now.plusSeconds(100);
+        assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+
+        clock.instant = now.plusSeconds(240);
+        for(int i = 0; i < 3; i++)
+            assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+    }
+    @Test
+    @DisplayName("Evicts the Least Recently Attempted Key from a Full Stripe")
+    void acquire_full() {
+        // Two keys per stripe, filled with live keys of the current window
+        loginThrottle = new LoginThrottle(registry, Duration.ofMinutes(1), 3, 5, 128, clock);
+        for(int i = 0; i < 2000; i++)
+            loginThrottle.acquire("employee", "Filler Username " + i, "Filler Address " + i);
+
+        clock.instant = now.plusSeconds(1);
+        for(int i = 0; i < 3; i++)
+            assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+
+        clock.instant = now.plusSeconds(2);
+        for(int i = 0; i < 2000; i++)
+            loginThrottle.acquire("employee", "Filler Username " + i, "Filler Address " + i);
+        assertDoesNotThrow(() -> loginThrottle.acquire("employee", "Test Username", "Test Address"));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -4,38 +4,62 @@ import com.office.api.exception.*;
 import com.office.api.model.Company;
 import com.office.api.model.Employee;
 import com.office.api.model.Project;
+import com.office.api.model.ProjectSummary;
+import com.office.api.model.Team;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.project.NewProjectDTO;
 import com.office.api.model.dto.project.ProjectDTO;
+import com.office.api.model.dto.project.ProjectSummaryDTO;
 import com.office.api.model.dto.project.UpdateProjectDTO;
 import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
 import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class ProjectServiceTest {
+    @Mock
+    private TokenService tokenService;
     @Mock
     private CompanyService companyService;
     @Mock
+    private MembershipService membershipService;
+    @Mock
     private ProjectRepository projectRepository;
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @Mock
+    private EntityCacheService entityCacheService;
+    @Mock
+    private ProjectSummaryRepository projectSummaryRepository;
     @InjectMocks
     private ProjectService projectService;
 
+    private final UUID companyId = UUID.randomUUID();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -47,23 +71,54 @@ class ProjectServiceTest {
         var token = mock(JwtAuthenticationToken.class);
         NewProjectDTO data = mock(NewProjectDTO.class);
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
         Employee manager = new Employee("Test Name", "Test Username", "Test CPF",
                 "Test Email", "Test Password", company);
-        company.setEmployees(new HashSet<>(){{add(manager);}});
         Optional<Employee> optional = Optional.of(manager);
         manager.setRole(Role.EMPLOYEE);
 
         when(projectRepository.existsByName(data.name())).thenReturn(false);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(companyService.getReference(companyId)).thenReturn(company);
         when(data.deadline()).thenReturn("01/12/2030");
-        when(employeeRepository.findByUsername(any())).thenReturn(optional);
+        when(employeeRepository.findByUsernameAndCompanyId(any(), eq(companyId))).thenReturn(optional);
 
         assertDoesNotThrow(() -> projectService.newProject(data, token));
 
+        assertEquals(Role.MANAGER, manager.getRole());
+        verify(membershipService, times(1)).touch(manager);
         verify(projectRepository, times(1)).save(any());
+        verify(authorizationGraph, times(1)).addProject(any(), eq(companyId));
+        verify(projectSummaryRepository, times(1)).save(any(ProjectSummary.class));
+        verify(projectSummaryRepository, never()).decrementMembersByEmployeeId(any());
         verify(projectRepository, times(1)).existsByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(tokenService, times(1)).companyId(token);
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
+    }
+    @Test
+    @DisplayName("Create Project Successfully - Manager Taken off Their Team")
+    void newProject_successful_fromTeam() {
+        var token = mock(JwtAuthenticationToken.class);
+        NewProjectDTO data = mock(NewProjectDTO.class);
+        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
+        Employee manager = new Employee("Test Name", "Test Username", "Test CPF",
+                "Test Email", "Test Password", company);
+        manager.setId(UUID.randomUUID());
+        manager.setRole(Role.EMPLOYEE);
+        manager.setTeam(mock(Team.class));
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(companyService.getReference(companyId)).thenReturn(company);
+        when(data.deadline()).thenReturn("01/12/2030");
+        when(employeeRepository.findByUsernameAndCompanyId(any(), eq(companyId))).thenReturn(Optional.of(manager));
+
+        assertDoesNotThrow(() -> projectService.newProject(data, token));
+
+        assertEquals(Role.MANAGER, manager.getRole());
+        assertNull(manager.getTeam());
+        verify(projectSummaryRepository, times(1)).decrementMembersByEmployeeId(manager.getId());
+        verify(projectSummaryRepository, times(1)).save(any(ProjectSummary.class));
     }
     @Test
     @DisplayName("Create Project Unsuccessfully - Used Data")
@@ -82,35 +137,33 @@ class ProjectServiceTest {
     void newProject_unsuccessful_case02() {
         var token = mock(JwtAuthenticationToken.class);
         NewProjectDTO data = mock(NewProjectDTO.class);
-        Company company = mock(Company.class);
 
         when(projectRepository.existsByName(data.name())).thenReturn(false);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(data.deadline()).thenReturn("01/12/2022");
 
         assertThrows(InvalidDeadlineException.class, () -> projectService.newProject(data, token));
 
         verify(projectRepository, times(1)).existsByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
+        verify(projectRepository, never()).save(any());
     }
     @Test
     @DisplayName("Create Project Unsuccessfully - Non existent Manager")
     void newProject_unsuccessful_case03() {
         var token = mock(JwtAuthenticationToken.class);
         NewProjectDTO data = mock(NewProjectDTO.class);
-        Company company = mock(Company.class);
         Optional<Employee> optional = Optional.empty();
 
         when(projectRepository.existsByName(data.name())).thenReturn(false);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(data.deadline()).thenReturn("01/12/2030");
-        when(employeeRepository.findByUsername(any())).thenReturn(optional);
+        when(employeeRepository.findByUsernameAndCompanyId(any(), eq(companyId))).thenReturn(optional);
 
         assertThrows(NullEmployeeException.class, () -> projectService.newProject(data, token));
 
         verify(projectRepository, times(1)).existsByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
+        verify(projectRepository, never()).save(any());
     }
     @Test
     @DisplayName("Create Project Unsuccessfully - Manager Invalid")
@@ -118,22 +171,24 @@ class ProjectServiceTest {
         var token = mock(JwtAuthenticationToken.class);
         NewProjectDTO data = mock(NewProjectDTO.class);
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
         Employee manager = new Employee("Test Name", "Test Username", "Test CPF",
                 "Test Email", "Test Password", company);
-        company.setEmployees(new HashSet<>(){{add(manager);}});
+        manager.setId(UUID.randomUUID());
         Optional<Employee> optional = Optional.of(manager);
-        manager.setProject(mock(Project.class));
 
         when(projectRepository.existsByName(data.name())).thenReturn(false);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(projectRepository.existsByManagerId(manager.getId())).thenReturn(true);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(data.deadline()).thenReturn("01/12/2030");
-        when(employeeRepository.findByUsername(any())).thenReturn(optional);
+        when(employeeRepository.findByUsernameAndCompanyId(any(), eq(companyId))).thenReturn(optional);
 
         assertThrows(InvalidEmployeeException.class, () -> projectService.newProject(data, token));
 
         verify(projectRepository, times(1)).existsByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
+        verify(projectRepository, times(1)).existsByManagerId(manager.getId());
+        verify(membershipService, never()).touch(any());
     }
 
     @Test
@@ -144,26 +199,30 @@ class ProjectServiceTest {
         var token = mock(JwtAuthenticationToken.class);
         Set<Project> usedData = new HashSet<>();
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
         Project project = mock(Project.class);
-        company.setProjects(new HashSet<>(){{add(project);}});
         Optional<Project> optionalProject = Optional.of(project);
         Employee manager = mock(Employee.class);
+        Employee formerManager = mock(Employee.class);
         Optional<Employee> optionalManager = Optional.of(manager);
-        company.setEmployees(new HashSet<>(){{add(manager);}});
 
         when(projectRepository.findByName(data.name())).thenReturn(usedData);
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(projectRepository.findById(id)).thenReturn(optionalProject);
-        when(employeeRepository.findByUsername(data.manager_username())).thenReturn(optionalManager);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findByIdAndCompanyId(id, companyId)).thenReturn(optionalProject);
+        when(project.getCompany()).thenReturn(company);
+        when(project.getManager()).thenReturn(formerManager);
+        when(employeeRepository.findByUsernameAndCompanyId(data.manager_username(), companyId)).thenReturn(optionalManager);
+        when(manager.getCompany()).thenReturn(company);
         when(manager.getRole()).thenReturn(Role.EMPLOYEE);
         when(data.deadline()).thenReturn("01/12/2030");
 
         assertDoesNotThrow(() -> projectService.updateProject(id, data, token));
 
         verify(projectRepository, times(1)).findByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(projectRepository, times(1)).findByIdAndCompanyId(id, companyId);
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
+        verify(membershipService, times(1)).touch(manager);
+        verify(membershipService, times(1)).touch(formerManager);
         verify(projectRepository, times(1)).save(any());
     }
     @Test
@@ -194,14 +253,14 @@ class ProjectServiceTest {
         var token = mock(JwtAuthenticationToken.class);
 
         when(projectRepository.findByName(data.name())).thenReturn(new HashSet<>());
-        when(companyService.getCompany(token.getName())).thenReturn(mock(Company.class));
-        when(projectRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.empty());
 
         assertThrows(NullProjectException.class, () -> projectService.updateProject(id, data, token));
 
         verify(projectRepository, times(1)).findByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
+        verify(projectRepository, times(1)).findByIdAndCompanyId(id, companyId);
+        verify(employeeRepository, never()).findByUsernameAndCompanyId(any(), any());
     }
     @Test
     @DisplayName("Update Project Unsuccessfully - Non existent Manager")
@@ -211,21 +270,19 @@ class ProjectServiceTest {
         var token = mock(JwtAuthenticationToken.class);
         Project project = mock(Project.class);
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        company.setProjects(new HashSet<>(){{
-            add(project);
-        }});
+        company.setId(companyId);
 
         when(projectRepository.findByName(data.name())).thenReturn(new HashSet<>());
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(employeeRepository.findByUsername(data.manager_username())).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(project));
+        when(project.getCompany()).thenReturn(company);
+        when(employeeRepository.findByUsernameAndCompanyId(data.manager_username(), companyId)).thenReturn(Optional.empty());
 
         assertThrows(NullEmployeeException.class, () -> projectService.updateProject(id, data, token));
 
         verify(projectRepository, times(1)).findByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(projectRepository, times(1)).findByIdAndCompanyId(id, companyId);
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
     }
     @Test
     @DisplayName("Update Project Unsuccessfully - Invalid Deadline")
@@ -236,22 +293,22 @@ class ProjectServiceTest {
         Project project = mock(Project.class);
         Employee manager = mock(Employee.class);
         Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        company.setProjects(new HashSet<>(){{add(project);}});
-        company.setEmployees(new HashSet<>(){{add(manager);}});
+        company.setId(companyId);
 
         when(projectRepository.findByName(data.name())).thenReturn(new HashSet<>());
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(employeeRepository.findByUsername(data.manager_username())).thenReturn(Optional.of(manager));
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(project));
+        when(project.getCompany()).thenReturn(company);
+        when(employeeRepository.findByUsernameAndCompanyId(data.manager_username(), companyId)).thenReturn(Optional.of(manager));
+        when(manager.getCompany()).thenReturn(company);
         when(data.deadline()).thenReturn("01/12/2020");
         when(manager.getRole()).thenReturn(Role.EMPLOYEE);
 
         assertThrows(InvalidDeadlineException.class, () -> projectService.updateProject(id, data, token));
 
         verify(projectRepository, times(1)).findByName(data.name());
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
-        verify(employeeRepository, times(1)).findByUsername(data.manager_username());
+        verify(projectRepository, times(1)).findByIdAndCompanyId(id, companyId);
+        verify(employeeRepository, times(1)).findByUsernameAndCompanyId(data.manager_username(), companyId);
         verify(data, times(1)).deadline();
     }
 
@@ -260,16 +317,17 @@ class ProjectServiceTest {
     void deleteProject_successful() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Project project = mock(Project.class);
-        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        company.setProjects(new HashSet<>(){{add(project);}});
 
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isProjectOfCompany(id, companyId)).thenReturn(true);
 
         assertDoesNotThrow(() -> projectService.deleteProject(id, token));
 
-        verify(projectRepository, times(1)).deleteById(id);
+        verify(membershipService, times(1)).touchProject(id);
+        verify(projectRepository, times(1)).deleteByIdAndCompanyId(id, companyId);
+        verify(entityCacheService, times(1)).evict(Team.class, Employee.class);
+        verify(authorizationGraph, times(1)).removeProject(id);
+        verifyNoMoreInteractions(projectRepository);
     }
     @Test
     @DisplayName("Delete Project Unsuccessfully - Non existent Project")
@@ -277,52 +335,49 @@ class ProjectServiceTest {
         Long id = 1L;
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(projectRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isProjectOfCompany(id, companyId)).thenReturn(false);
 
         assertThrows(NullProjectException.class, () -> projectService.deleteProject(id, token));
 
-        verify(projectRepository, times(1)).findById(id);
-        verify(companyService, never()).getCompany(token.getName());
+        verify(authorizationGraph, times(1)).isProjectOfCompany(id, companyId);
+        verify(projectRepository, never()).deleteByIdAndCompanyId(id, companyId);
     }
     @Test
     @DisplayName("Delete Project Unsuccessfully - Isn't its Project")
     void deleteProject_unsuccessful_case02() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Project project = mock(Project.class);
-        Company company = mock(Company.class);
 
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(company.getProjects()).thenReturn(new HashSet<>());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isProjectOfCompany(id, companyId)).thenReturn(false);
 
         assertThrows(NullProjectException.class, () -> projectService.deleteProject(id, token));
 
-        verify(projectRepository, times(1)).findById(id);
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, never()).deleteById(id);
+        verify(authorizationGraph, times(1)).isProjectOfCompany(id, companyId);
+        verify(membershipService, never()).touchProject(id);
+        verify(projectRepository, never()).deleteByIdAndCompanyId(id, companyId);
     }
 
     @Test
     @DisplayName("Get Project List Successfully")
     void getAllProjects() {
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        company.setProjects(new HashSet<>(){{
-            add(project);
-        }});
+        PageRequestDTO page = new PageRequestDTO(null, null, false);
+        ProjectDTO first = new ProjectDTO(1L, "Test Name", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
+        ProjectDTO second = new ProjectDTO(2L, "Test Name", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
+        ProjectDTO third = new ProjectDTO(3L, "Test Name", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
 
-        when(project.getManager()).thenReturn(manager);
-        when(manager.getUsername()).thenReturn("Test Username");
-        when(project.getDeadline()).thenReturn(LocalDate.now().plusDays(1L));
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findAllDTOByCompanyId(eq(companyId), eq(0L), any())).thenReturn(List.of(first, second, third));
 
-        Set<ProjectDTO> projectDTOs = assertDoesNotThrow(() -> projectService.getAllProjects(token));
+        PageDTO<ProjectDTO> projectDTOs = assertDoesNotThrow(() -> projectService.getAllProjects(page, token));
 
-        assertEquals(1, projectDTOs.size());
-        verify(companyService, times(1)).getCompany(token.getName());
+        assertEquals(List.of(first, second), projectDTOs.items());
+        assertNotNull(projectDTOs.next_cursor());
+        assertEquals(2L, pageCursors.afterId(new PageRequestDTO(projectDTOs.next_cursor(), null, false)));
+        verify(projectRepository, times(1)).findAllDTOByCompanyId(companyId, 0L, PageRequest.ofSize(3));
+        verifyNoMoreInteractions(projectRepository);
     }
 
     @Test
@@ -330,24 +385,17 @@ class ProjectServiceTest {
     void getProject_successful() {
         Long id = 1L;
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        company.setProjects(new HashSet<>(){{
-            add(project);
-        }});
+        ProjectDTO project = new ProjectDTO(id, "Test Name", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
 
-        when(project.getManager()).thenReturn(manager);
-        when(manager.getUsername()).thenReturn("Test Username");
-        when(project.getDeadline()).thenReturn(LocalDate.now().plusDays(1L));
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(companyService.getCompany(token.getName())).thenReturn(company);
+        when(projectRepository.findDTOByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(project));
+        when(tokenService.companyId(token)).thenReturn(companyId);
 
         ProjectDTO projectDTO = assertDoesNotThrow(() -> projectService.getProject(id, token));
 
-        assertNotNull(projectDTO);
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
+        assertEquals(project, projectDTO);
+        verify(projectRepository, times(1)).findDTOByIdAndCompanyId(id, companyId);
+        verifyNoMoreInteractions(projectRepository);
+        verifyNoInteractions(authorizationGraph);
     }
     @Test
     @DisplayName("Get Project Unsuccessfully - Non existent Project")
@@ -355,27 +403,57 @@ class ProjectServiceTest {
         Long id = 1L;
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
 
-        when(projectRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findDTOByIdAndCompanyId(id, companyId)).thenReturn(Optional.empty());
 
         assertThrows(NullProjectException.class, () -> projectService.getProject(id, token));
 
-        verify(projectRepository, times(1)).findById(id);
+        verify(projectRepository, times(1)).findDTOByIdAndCompanyId(id, companyId);
     }
     @Test
     @DisplayName("Get Project Unsuccessfully - Isn't its Project")
     void getProject_unsuccessful_case02() {
         Long id = 1L;
         JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
-        Company company = mock(Company.class);
-        Project project = mock(Project.class);
 
-        when(projectRepository.findById(id)).thenReturn(Optional.of(project));
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(company.getProjects()).thenReturn(new HashSet<>());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(projectRepository.findDTOByIdAndCompanyId(id, companyId)).thenReturn(Optional.empty());
+        when(projectRepository.findById(id)).thenReturn(Optional.of(mock(Project.class)));
 
         assertThrows(NullProjectException.class, () -> projectService.getProject(id, token));
 
-        verify(companyService, times(1)).getCompany(token.getName());
-        verify(projectRepository, times(1)).findById(id);
+        verify(projectRepository, times(1)).findDTOByIdAndCompanyId(id, companyId);
+        verify(projectRepository, never()).findById(any());
+    }
+    @Test
+    @DisplayName("Get Project Summary Successfully")
+    void getSummary_successful() {
+        Long id = 1L;
+        JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+        ProjectSummaryDTO summary = new ProjectSummaryDTO(id, 3L, 1L, 5L, 2L, 4L);
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isProjectOfCompany(id, companyId)).thenReturn(true);
+        when(projectSummaryRepository.findDTOByProjectId(id)).thenReturn(Optional.of(summary));
+
+        ProjectSummaryDTO summaryDTO = assertDoesNotThrow(() -> projectService.getSummary(id, token));
+
+        assertEquals(summary, summaryDTO);
+        verify(projectSummaryRepository, times(1)).findDTOByProjectId(id);
+        verifyNoInteractions(projectRepository);
+    }
+    @Test
+    @DisplayName("Get Project Summary Unsuccessfully - Isn't its Project")
+    void getSummary_unsuccessful_case01() {
+        Long id = 1L;
+        JwtAuthenticationToken token = mock(JwtAuthenticationToken.class);
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isProjectOfCompany(id, companyId)).thenReturn(false);
+
+        assertThrows(NullProjectException.class, () -> projectService.getSummary(id, token));
+
+        verify(authorizationGraph, times(1)).isProjectOfCompany(id, companyId);
+        verifyNoInteractions(projectSummaryRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.office.api.service;
+
+import com.office.api.exception.LoginFailedException;
+import com.office.api.model.RefreshToken;
+import com.office.api.model.enums.Realm;
+import com.office.api.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private Clock clock;
+    private RefreshTokenService refreshTokenService;
+
+    private final Instant now = Instant.parse("2030-01-01T12:00:00Z");
+    private final UUID subject = UUID.randomUUID();
+    private final UUID session = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        this.setTime(now);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository,
+                Duration.ofDays(30), Duration.ofMinutes(15), clock);
+    }
+
+    @Test
+    @DisplayName("Create Refresh Token Successfully")
+    void create_successful() {
+        var captor = ArgumentCaptor.forClass(RefreshToken.class);
+
+        RefreshTokenService.Grant grant = assertDoesNotThrow(() -> refreshTokenService.create(subject, Realm.EMPLOYEE));
+
+        verify(refreshTokenRepository, times(1)).save(captor.capture());
+        RefreshToken token = captor.getValue();
+        assertEquals(subject, grant.subject());
+        assertEquals(grant.session(), token.getSession());
+        assertEquals(64, token.getTokenHash().length());
+        assertNotEquals(grant.refreshToken(), token.getTokenHash());
+        assertEquals(Realm.EMPLOYEE, token.getRealm());
+        assertEquals(now.plus(Duration.ofDays(30)), token.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Rotate Refresh Token Successfully")
+    void rotate_successful() {
+        RefreshToken token = this.storedToken(Realm.COMPANY, now.plusSeconds(60));
+
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(token.getId(), now)).thenReturn(1);
+
+        RefreshTokenService.Grant grant = assertDoesNotThrow(() -> refreshTokenService.rotate("Test Token", Realm.COMPANY));
+
+        assertEquals(subject, grant.subject());
+        assertEquals(session, grant.session());
+        assertNotNull(grant.refreshToken());
+        verify(refreshTokenRepository, times(1)).save(any());
+        verify(refreshTokenRepository, never()).revokeSession(any(), any());
+    }
+    @Test
+    @DisplayName("Rotate Refresh Token Unsuccessfully - Other Realm")
+    void rotate_unsuccessful_case01() {
+        RefreshToken token = this.storedToken(Realm.COMPANY, now.plusSeconds(60));
+
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(token));
+
+        assertThrows(LoginFailedException.class, () -> refreshTokenService.rotate("Test Token", Realm.EMPLOYEE));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+    @Test
+    @DisplayName("Rotate Refresh Token Unsuccessfully - Expired Token")
+    void rotate_unsuccessful_case02() {
+        RefreshToken token = this.storedToken(Realm.EMPLOYEE, now);
+
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(token));
+
+        assertThrows(LoginFailedException.class, () -> refreshTokenService.rotate("Test Token", Realm.EMPLOYEE));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+    @Test
+    @DisplayName("Rotate Refresh Token Unsuccessfully - Reused Token")
+    void rotate_unsuccessful_case03() {
+        RefreshToken token = this.storedToken(Realm.EMPLOYEE, now.plusSeconds(60));
+
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(token.getId(), now)).thenReturn(0);
+
+        assertThrows(LoginFailedException.class, () -> refreshTokenService.rotate("Test Token", Realm.EMPLOYEE));
+
+        verify(refreshTokenRepository, times(1)).revokeSession(session, now);
+        verify(refreshTokenRepository, never()).save(any());
+        assertTrue(refreshTokenService.isRevoked(session));
+    }
+
+    @Test
+    @DisplayName("Revoke Subject Sessions Until Their Access Tokens Expire")
+    void revokeSubject_successful() {
+        UUID other = UUID.randomUUID();
+        when(refreshTokenRepository.findActiveSessionsBySubject(subject)).thenReturn(List.of(session, other));
+
+        refreshTokenService.revokeSubject(subject);
+
+        verify(refreshTokenRepository, times(1)).revokeSubject(subject, now);
+        assertTrue(refreshTokenService.isRevoked(session));
+        assertTrue(refreshTokenService.isRevoked(other));
+        assertFalse(refreshTokenService.isRevoked(UUID.randomUUID()));
+
+        this.setTime(now.plus(Duration.ofMinutes(15)));
+        assertFalse(refreshTokenService.isRevoked(session));
+    }
+    @Test
+    @DisplayName("Rebuild Revoked Sessions - Many Entries")
+    void rebuild_successful() {
+        List<UUID> sessions = new ArrayList<>();
+        for(int i = 0; i < 5_000; i++)
+            sessions.add(UUID.randomUUID());
+        refreshTokenService.revokeSession(session);
+        when(refreshTokenRepository.findSessionsRevokedSince(now.minus(Duration.ofMinutes(15)))).thenReturn(sessions);
+
+        refreshTokenService.rebuild();
+
+        for(UUID value : sessions)
+            assertTrue(refreshTokenService.isRevoked(value));
+        assertFalse(refreshTokenService.isRevoked(session));
+        for(int i = 0; i < 5_000; i++)
+            assertFalse(refreshTokenService.isRevoked(UUID.randomUUID()));
+    }
+
+    private RefreshToken storedToken(Realm realm, Instant expiresAt) {
+        RefreshToken token = new RefreshToken("Test Hash", subject, realm, session, expiresAt);
+        token.setId(UUID.randomUUID());
+        return token;
+    }
+    private void setTime(Instant instant) {
+        when(clock.instant()).thenReturn(instant);
+        when(clock.millis()).thenReturn(instant.toEpochMilli());
+    }
+}
@@ -0,0 +1,128 @@
+package com.office.api.service;
+
+import com.office.api.exception.InvalidPageException;
+import com.office.api.exception.InvalidSearchException;
+import com.office.api.exception.NullProjectException;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.search.SearchHitDTO;
+import com.office.api.repository.SearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchServiceTest {
+    @Mock
+    private SearchRepository searchRepository;
+    @Mock
+    private TokenService tokenService;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @InjectMocks
+    private SearchService searchService;
+
+    private final Long projectId = 1L;
+    private final UUID companyId = UUID.randomUUID();
+    private final PageCursors.RankKey first = new PageCursors.RankKey(Float.MAX_VALUE, "", Long.MAX_VALUE);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Search Project Successfully")
+    void search_successful() {
+        var token = mock(JwtAuthenticationToken.class);
+        SearchHitDTO task = new SearchHitDTO("task", 3L, 3L, "Deploy", "<b>deploy</b> the api", 0.6f);
+        SearchHitDTO comment = new SearchHitDTO("comment", 9L, 3L, "Deploy", "after the <b>deploy</b>", 0.1f);
+        SearchHitDTO extra = new SearchHitDTO("comment", 8L, 3L, "Deploy", "<b>deploy</b> failed", 0.1f);
+
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(searchRepository.searchByProjectId(projectId, "deploy", first, PageRequest.ofSize(3)))
+                .thenReturn(List.of(task, comment, extra));
+
+        PageDTO<SearchHitDTO> hits = assertDoesNotThrow(() ->
+                searchService.search("deploy", new PageRequestDTO(null, null, false), token));
+
+        assertEquals(List.of(task, comment), hits.items());
+        assertEquals("0.1_comment_9", new String(Base64.getUrlDecoder().decode(hits.next_cursor()), StandardCharsets.UTF_8));
+        verify(searchRepository, never()).searchByCompanyId(any(), any(), any(), any());
+    }
+    @Test
+    @DisplayName("Search Project Successfully - Next Page")
+    void search_successful_nextPage() {
+        var token = mock(JwtAuthenticationToken.class);
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("0.1_comment_9".getBytes(StandardCharsets.UTF_8));
+
+        when(tokenService.projectId(token)).thenReturn(projectId);
+
+        PageDTO<SearchHitDTO> hits = assertDoesNotThrow(() ->
+                searchService.search("deploy", new PageRequestDTO(cursor, null, true), token));
+
+        assertNull(hits.next_cursor());
+        verify(searchRepository, times(1)).searchByProjectId(projectId, "deploy",
+                new PageCursors.RankKey(0.1f, "comment", 9L), PageRequest.ofSize(3));
+    }
+    @Test
+    @DisplayName("Search Company Successfully")
+    void search_company() {
+        var token = mock(JwtAuthenticationToken.class);
+
+        when(tokenService.isCompany(token)).thenReturn(true);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+
+        assertDoesNotThrow(() -> searchService.search("deploy", new PageRequestDTO(null, null, false), token));
+
+        verify(searchRepository, times(1)).searchByCompanyId(companyId, "deploy", first, PageRequest.ofSize(3));
+        verify(tokenService, never()).projectId(token);
+    }
+    @Test
+    @DisplayName("Search Unsuccessfully - Blank Query")
+    void search_unsuccessful_case01() {
+        var token = mock(JwtAuthenticationToken.class);
+
+        assertThrows(InvalidSearchException.class, () -> searchService.search(" ", new PageRequestDTO(null, null, false), token));
+        assertThrows(InvalidSearchException.class, () -> searchService.search(null, new PageRequestDTO(null, null, false), token));
+        assertThrows(InvalidSearchException.class, () -> searchService.search("a".repeat(201), new PageRequestDTO(null, null, false), token));
+
+        verifyNoInteractions(searchRepository);
+    }
+    @Test
+    @DisplayName("Search Unsuccessfully - Not Working on a Project")
+    void search_unsuccessful_case02() {
+        var token = mock(JwtAuthenticationToken.class);
+
+        when(tokenService.projectId(token)).thenReturn(null);
+
+        assertThrows(NullProjectException.class, () -> searchService.search("deploy", new PageRequestDTO(null, null, false), token));
+
+        verifyNoInteractions(searchRepository);
+    }
+    @Test
+    @DisplayName("Search Unsuccessfully - Invalid Cursor")
+    void search_unsuccessful_case03() {
+        var token = mock(JwtAuthenticationToken.class);
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("0.1_comment".getBytes(StandardCharsets.UTF_8));
+
+        when(tokenService.projectId(token)).thenReturn(projectId);
+
+        assertThrows(InvalidPageException.class, () -> searchService.search("deploy", new PageRequestDTO(cursor, null, false), token));
+
+        verifyNoInteractions(searchRepository);
+    }
+}
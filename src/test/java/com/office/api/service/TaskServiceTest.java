@@ -4,13 +4,17 @@ import com.office.api.exception.InvalidDeadlineException;
 import com.office.api.exception.NullProjectException;
 import com.office.api.exception.NullTaskException;
 import com.office.api.exception.UsedDataException;
-import com.office.api.model.Employee;
 import com.office.api.model.Project;
 import com.office.api.model.Task;
+import com.office.api.model.dto.comment.CommentDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
 import com.office.api.model.dto.task.NewTaskDTO;
+import com.office.api.model.dto.task.TaskCommentDTO;
 import com.office.api.model.dto.task.TaskDTO;
 import com.office.api.model.dto.task.UpdateTaskDTO;
-import com.office.api.model.enums.Role;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,10 +22,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -32,10 +39,20 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
     @Mock
-    private EmployeeService employeeService;
+    private ProjectRepository projectRepository;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @Mock
+    private TokenService tokenService;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Mock
+    private ProjectSummaryRepository projectSummaryRepository;
     @InjectMocks
     private TaskService taskService;
 
+    private final Long projectId = 1L;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -46,55 +63,68 @@ class TaskServiceTest {
     void newTask_successful() {
         NewTaskDTO data = mock(NewTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
         Project project = mock(Project.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.existsByTitle(data.title())).thenReturn(false);
-        when(manager.getProject()).thenReturn(project);
+        when(projectRepository.getReferenceById(projectId)).thenReturn(project);
         when(data.deadline()).thenReturn("01/12/2030 21:00");
 
         assertDoesNotThrow(() -> taskService.newTask(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).existsByTitle(data.title());
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(authorizationGraph, times(1)).addTask(any(), eq(projectId));
+        verify(projectSummaryRepository, times(1)).incrementTasks(projectId);
     }
     @Test
     @DisplayName("Creates Task Unsuccessfully - Used Data")
     void newTask_unsuccessful_case01() {
         NewTaskDTO data = mock(NewTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.existsByTitle(data.title())).thenReturn(true);
 
         assertThrows(UsedDataException.class, () -> taskService.newTask(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).existsByTitle(data.title());
         verify(taskRepository, never()).save(any(Task.class));
+        verify(projectSummaryRepository, never()).incrementTasks(any());
     }
     @Test
     @DisplayName("Creates Task Unsuccessfully - Invalid Deadline")
     void newTask_unsuccessful_case02() {
         NewTaskDTO data = mock(NewTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
         Project project = mock(Project.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.existsByTitle(data.title())).thenReturn(false);
-        when(manager.getProject()).thenReturn(project);
+        when(projectRepository.getReferenceById(projectId)).thenReturn(project);
         when(data.deadline()).thenReturn("01/12/2020 21:00");
 
         assertThrows(InvalidDeadlineException.class, () -> taskService.newTask(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).existsByTitle(data.title());
         verify(taskRepository, never()).save(any(Task.class));
     }
+    @Test
+    @DisplayName("Creates Task Unsuccessfully - Without Project")
+    void newTask_unsuccessful_case03() {
+        NewTaskDTO data = mock(NewTaskDTO.class);
+        var token = mock(JwtAuthenticationToken.class);
+
+        when(tokenService.projectId(token)).thenReturn(null);
+
+        assertThrows(NullProjectException.class, () -> taskService.newTask(data, token));
+
+        verify(taskRepository, never()).existsByTitle(any());
+        verify(taskRepository, never()).save(any(Task.class));
+    }
 
     @Test
     @DisplayName("Update Task Successfully")
@@ -102,22 +132,18 @@ class TaskServiceTest {
         Long id = 1L;
         var data = mock(UpdateTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
         Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.findByTitle(data.title())).thenReturn(new HashSet<>());
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>(){{add(task);}});
+        when(taskRepository.findByIdAndProjectId(id, projectId)).thenReturn(Optional.of(task));
         when(data.deadline()).thenReturn("01/12/2030 21:00");
 
         assertDoesNotThrow(() -> taskService.updateTask(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).findByTitle(data.title());
-        verify(taskRepository, times(1)).findById(id);
+        verify(taskRepository, times(1)).findByIdAndProjectId(id, projectId);
         verify(taskRepository, times(1)).save(any(Task.class));
     }
     @Test
@@ -126,21 +152,20 @@ class TaskServiceTest {
         Long id = 1L;
         var data = mock(UpdateTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
         Task task = mock(Task.class);
         Set<Task> usedData = new HashSet<>() {{
             add(task);
         }};
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.findByTitle(data.title())).thenReturn(usedData);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
+        when(task.getId()).thenReturn(2L);
 
         assertThrows(UsedDataException.class, () -> taskService.updateTask(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).findByTitle(data.title());
-        verify(taskRepository, never()).findById(id);
+        verify(taskRepository, never()).findByIdAndProjectId(id, projectId);
         verify(taskRepository, never()).save(any(Task.class));
     }
     @Test
@@ -149,22 +174,16 @@ class TaskServiceTest {
         Long id = 1L;
         var data = mock(UpdateTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        Set<Task> usedData = new HashSet<>();
-        Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findByTitle(data.title())).thenReturn(usedData);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(usedData);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.findByTitle(data.title())).thenReturn(new HashSet<>());
+        when(taskRepository.findByIdAndProjectId(id, projectId)).thenReturn(Optional.empty());
 
         assertThrows(NullTaskException.class, () -> taskService.updateTask(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).findByTitle(data.title());
-        verify(taskRepository, times(1)).findById(id);
+        verify(taskRepository, times(1)).findByIdAndProjectId(id, projectId);
         verify(taskRepository, never()).save(any(Task.class));
     }
     @Test
@@ -173,22 +192,18 @@ class TaskServiceTest {
         Long id = 1L;
         var data = mock(UpdateTaskDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
         Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(taskRepository.findByTitle(data.title())).thenReturn(new HashSet<>());
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>(){{add(task);}});
+        when(taskRepository.findByIdAndProjectId(id, projectId)).thenReturn(Optional.of(task));
         when(data.deadline()).thenReturn("01/12/2020 21:00");
 
         assertThrows(InvalidDeadlineException.class, () -> taskService.updateTask(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(taskRepository, times(1)).findByTitle(data.title());
-        verify(taskRepository, times(1)).findById(id);
+        verify(taskRepository, times(1)).findByIdAndProjectId(id, projectId);
         verify(taskRepository, never()).save(any(Task.class));
     }
 
@@ -197,94 +212,85 @@ class TaskServiceTest {
     void deleteTask_successful() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>(){{add(task);}});
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.countCommentsByIdAndProjectId(id, projectId)).thenReturn(3L);
+        when(taskRepository.deleteByIdAndProjectId(id, projectId)).thenReturn(1);
 
         assertDoesNotThrow(() -> taskService.deleteTask(id, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
-        verify(taskRepository, times(1)).delete(any(Task.class));
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).countCommentsByIdAndProjectId(id, projectId);
+        verify(taskRepository, times(1)).deleteByIdAndProjectId(id, projectId);
+        verify(authorizationGraph, times(1)).removeTask(id);
+        verify(projectSummaryRepository, times(1)).decrementTasks(projectId, 3L);
+        verifyNoMoreInteractions(taskRepository);
     }
     @Test
     @DisplayName("Delete Task Unsuccessfully - Non existent Task")
     void deleteTask_unsuccessful_case01() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.deleteByIdAndProjectId(id, projectId)).thenReturn(0);
 
         assertThrows(NullTaskException.class, () -> taskService.deleteTask(id, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
-        verify(taskRepository, never()).delete(any(Task.class));
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).deleteByIdAndProjectId(id, projectId);
+        verify(authorizationGraph, never()).removeTask(id);
+        verifyNoInteractions(projectSummaryRepository);
     }
     @Test
     @DisplayName("Delete Task Unsuccessfully - Isn't its Task")
     void deleteTask_unsuccessful_case02() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.deleteByIdAndProjectId(id, projectId)).thenReturn(0);
 
         assertThrows(NullTaskException.class, () -> taskService.deleteTask(id, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
-        verify(taskRepository, never()).delete(any(Task.class));
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).deleteByIdAndProjectId(id, projectId);
+        verify(authorizationGraph, never()).removeTask(id);
+        verifyNoInteractions(projectSummaryRepository);
     }
 
     @Test
     @DisplayName("Get Tasks Successfully")
     void getTasks_successful() {
         var token = mock(JwtAuthenticationToken.class);
-        Employee employee = mock(Employee.class);
-        Project project = mock(Project.class);
-        Task task = mock(Task.class);
-        Set<Task> tasks = new HashSet<>() {{
-            add(task);
-        }};
-
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
-        when(employee.getRole()).thenReturn(Role.MANAGER);
-        when(employee.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(tasks);
-        when(task.getDeadline()).thenReturn(LocalDateTime.now().plusDays(1L));
-        when(task.getComments()).thenReturn(new HashSet<>());
-
-        Set<TaskDTO> taskDTOs = assertDoesNotThrow(() -> taskService.getTasks(token));
-
-        assertEquals(1, taskDTOs.size());
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        PageRequestDTO page = new PageRequestDTO(null, null, false);
+        TaskDTO task = new TaskDTO(1L, "Test Title", "Test Description", LocalDateTime.now().plusDays(1L), false);
+        CommentDTO comment = new CommentDTO(10L, "Test Content", LocalDateTime.now(), "Test Username");
+
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.findAllDTOByProjectId(projectId, 0L, PageRequest.ofSize(3))).thenReturn(List.of(task));
+        when(taskRepository.findAllCommentDTOByTaskIdIn(List.of(1L))).thenReturn(List.of(new TaskCommentDTO(1L, comment)));
+
+        PageDTO<TaskDTO> taskDTOs = assertDoesNotThrow(() -> taskService.getTasks(page, token));
+
+        assertEquals(List.of(task.withComments(List.of(comment))), taskDTOs.items());
+        assertNull(taskDTOs.next_cursor());
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).findAllDTOByProjectId(projectId, 0L, PageRequest.ofSize(3));
+        verify(taskRepository, times(1)).findAllCommentDTOByTaskIdIn(List.of(1L));
+        verifyNoMoreInteractions(taskRepository);
     }
     @Test
     @DisplayName("Get Tasks Unsuccessfully")
     void getTasks_unsuccessful() {
         var token = mock(JwtAuthenticationToken.class);
-        Employee employee = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(employee);
-        when(employee.getRole()).thenReturn(Role.MANAGER);
-        when(employee.getProject()).thenReturn(null);
+        when(tokenService.projectId(token)).thenReturn(null);
 
-        assertThrows(NullProjectException.class, () -> taskService.getTasks(token));
+        assertThrows(NullProjectException.class, () -> taskService.getTasks(new PageRequestDTO(null, null, false), token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, never()).findAllDTOByProjectId(any(), any(), any());
     }
 
     @Test
@@ -292,58 +298,50 @@ class TaskServiceTest {
     void getTask_successful() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        Task task = mock(Task.class);
-        Set<Task> tasks = new HashSet<>() {{
-            add(task);
-        }};
+        TaskDTO task = new TaskDTO(id, "Test Title", "Test Description", LocalDateTime.now().plusDays(1L), false);
+        CommentDTO comment = new CommentDTO(10L, "Test Content", LocalDateTime.now(), "Test Username");
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(tasks);
-        when(task.getDeadline()).thenReturn(LocalDateTime.now().plusDays(1L));
-        when(task.getComments()).thenReturn(new HashSet<>());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.findDTOByIdAndProjectId(id, projectId)).thenReturn(Optional.of(task));
+        when(taskRepository.findAllCommentDTOByTaskIdIn(List.of(id))).thenReturn(List.of(new TaskCommentDTO(id, comment)));
 
         TaskDTO taskDTO = assertDoesNotThrow(() -> taskService.getTask(id, token));
 
-        assertNotNull(taskDTO);
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+        assertEquals(List.of(comment), taskDTO.comments());
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).findDTOByIdAndProjectId(id, projectId);
+        verify(taskRepository, times(1)).findAllCommentDTOByTaskIdIn(List.of(id));
+        verifyNoMoreInteractions(taskRepository);
+        verifyNoInteractions(authorizationGraph);
     }
     @Test
     @DisplayName("Get Task Unsuccessfully - Non existent Task")
     void getTask_unsuccessful_case01() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.findDTOByIdAndProjectId(id, projectId)).thenReturn(Optional.empty());
 
         assertThrows(NullTaskException.class, () -> taskService.getTask(id, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).findDTOByIdAndProjectId(id, projectId);
     }
     @Test
     @DisplayName("Get Task Unsuccessfully - Isn't its Task")
     void getTask_unsuccessful_case02() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
-        Project project = mock(Project.class);
-        Task task = mock(Task.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTasks()).thenReturn(new HashSet<>());
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(taskRepository.findDTOByIdAndProjectId(id, projectId)).thenReturn(Optional.empty());
+        when(taskRepository.findById(id)).thenReturn(Optional.of(mock(Task.class)));
 
         assertThrows(NullTaskException.class, () -> taskService.getTask(id, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(taskRepository, times(1)).findById(id);
+        verify(tokenService, times(1)).projectId(token);
+        verify(taskRepository, times(1)).findDTOByIdAndProjectId(id, projectId);
+        verify(taskRepository, never()).findById(any());
     }
-}
\ No newline at end of file
+}
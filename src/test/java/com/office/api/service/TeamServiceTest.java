@@ -2,17 +2,25 @@ package com.office.api.service;
 
 import com.office.api.exception.InvalidEmployeeException;
 import com.office.api.exception.NullEmployeeException;
+import com.office.api.exception.NullProjectException;
 import com.office.api.exception.NullTeamException;
 import com.office.api.exception.UsedDataException;
 import com.office.api.model.Company;
 import com.office.api.model.Employee;
 import com.office.api.model.Project;
 import com.office.api.model.Team;
+import com.office.api.model.dto.employee.EmployeeDTO;
+import com.office.api.model.dto.page.PageDTO;
+import com.office.api.model.dto.page.PageRequestDTO;
+import com.office.api.model.dto.team.MoveMembersDTO;
 import com.office.api.model.dto.team.NewTeamDTO;
 import com.office.api.model.dto.team.TeamDTO;
+import com.office.api.model.dto.team.TeamMemberDTO;
 import com.office.api.model.dto.team.UpdateTeamDTO;
 import com.office.api.model.enums.Role;
 import com.office.api.repository.EmployeeRepository;
+import com.office.api.repository.ProjectRepository;
+import com.office.api.repository.ProjectSummaryRepository;
 import com.office.api.repository.TeamRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,12 +28,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,12 +48,27 @@ class TeamServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
     @Mock
-    private EmployeeService employeeService;
+    private ProjectRepository projectRepository;
     @Mock
     private CompanyService companyService;
+    @Mock
+    private TokenService tokenService;
+    @Mock
+    private MembershipService membershipService;
+    @Mock
+    private AuthorizationGraph authorizationGraph;
+    @Spy
+    private PageCursors pageCursors = new PageCursors(2, 10);
+    @Mock
+    private EntityCacheService entityCacheService;
+    @Mock
+    private ProjectSummaryRepository projectSummaryRepository;
     @InjectMocks
     private TeamService teamService;
 
+    private final Long projectId = 1L;
+    private final UUID companyId = UUID.randomUUID();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -55,130 +82,152 @@ class TeamServiceTest {
         var token = mock(JwtAuthenticationToken.class);
         Project project = mock(Project.class);
         Company company = mock(Company.class);
-        Employee manager = mock(Employee.class);
         Employee employee = mock(Employee.class);
-        Set<String> usernames = new HashSet<>() {{add(username);}};
+        UUID employeeId = UUID.randomUUID();
+        Set<String> usernames = Set.of(username);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(teamRepository.existsByName(data.name())).thenReturn(false);
-        when(manager.getCompany()).thenReturn(company);
-        when(manager.getProject()).thenReturn(project);
+        when(companyService.getReference(companyId)).thenReturn(company);
+        when(projectRepository.getReferenceById(projectId)).thenReturn(project);
         when(data.usernames()).thenReturn(usernames);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(employee));
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
+        when(employee.getUsername()).thenReturn(username);
+        when(employee.getId()).thenReturn(employeeId);
         when(employee.getTeam()).thenReturn(null);
         when(employee.getRole()).thenReturn(Role.EMPLOYEE);
+        when(employeeRepository.joinTeamByUsernameIn(any(), eq(usernames), eq(companyId))).thenReturn(1);
 
         assertDoesNotThrow(() -> teamService.newTeam(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(teamRepository, times(1)).existsByName(data.name());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(teamRepository, times(1)).save(any(Team.class));
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(usernames, companyId);
+        verify(teamRepository, times(1)).saveAndFlush(any(Team.class));
+        verify(employeeRepository, times(1)).joinTeamByUsernameIn(any(), eq(usernames), eq(companyId));
+        verify(membershipService, times(1)).evict(employeeId);
+        verify(authorizationGraph, times(1)).addTeam(any(), eq(companyId), eq(projectId));
+        verify(projectSummaryRepository, times(1)).incrementTeams(projectId);
+        verify(projectSummaryRepository, times(1)).addMembersByTeamId(any(), eq(1L));
     }
     @Test
     @DisplayName("Creates Team Unsuccessfully - Used Data")
     void newTeam_unsuccessful_case01() {
-        String username = "test username";
         var data = mock(NewTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
         when(teamRepository.existsByName(data.name())).thenReturn(true);
 
         assertThrows(UsedDataException.class, () -> teamService.newTeam(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(teamRepository, times(1)).existsByName(data.name());
-        verify(employeeRepository, never()).findByUsername(username);
-        verify(teamRepository, never()).save(any(Team.class));
+        verify(employeeRepository, never()).findAllByUsernameInAndCompanyId(any(), any());
+        verify(teamRepository, never()).saveAndFlush(any(Team.class));
     }
     @Test
     @DisplayName("Creates Team Unsuccessfully - Non existent Employee")
     void newTeam_unsuccessful_case02() {
-        String username = "test username";
         var data = mock(NewTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Project project = mock(Project.class);
-        Company company = mock(Company.class);
-        Employee manager = mock(Employee.class);
-        Set<String> usernames = new HashSet<>() {{
-            add(username);
-        }};
+        Set<String> usernames = Set.of("test username01", "test username02");
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(teamRepository.existsByName(data.name())).thenReturn(false);
-        when(manager.getCompany()).thenReturn(company);
-        when(manager.getProject()).thenReturn(project);
         when(data.usernames()).thenReturn(usernames);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(mock(Employee.class)));
 
         assertThrows(NullEmployeeException.class, () -> teamService.newTeam(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(teamRepository, times(1)).existsByName(data.name());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(teamRepository, never()).save(any(Team.class));
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(usernames, companyId);
+        verify(teamRepository, never()).saveAndFlush(any(Team.class));
+        verify(employeeRepository, never()).joinTeamByUsernameIn(any(), any(), any());
     }
     @Test
     @DisplayName("Creates Team Unsuccessfully - Already on a Team")
     void newTeam_unsuccessful_case03() {
-        String username = "test username";
         var data = mock(NewTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
         Team team = mock(Team.class);
-        Project project = mock(Project.class);
-        Company company = mock(Company.class);
-        Employee manager = mock(Employee.class);
         Employee employee = mock(Employee.class);
-        Set<String> usernames = new HashSet<>() {{
-            add(username);
-        }};
+        Set<String> usernames = Set.of("test username");
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(teamRepository.existsByName(data.name())).thenReturn(false);
-        when(manager.getCompany()).thenReturn(company);
-        when(manager.getProject()).thenReturn(project);
         when(data.usernames()).thenReturn(usernames);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(employee));
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
         when(employee.getTeam()).thenReturn(team);
 
         assertThrows(InvalidEmployeeException.class, () -> teamService.newTeam(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(teamRepository, times(1)).existsByName(data.name());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(teamRepository, never()).save(any(Team.class));
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(usernames, companyId);
+        verify(teamRepository, never()).saveAndFlush(any(Team.class));
     }
     @Test
-    @DisplayName("Creates Team Unsuccessfully - ")
+    @DisplayName("Creates Team Unsuccessfully - Manager as Member")
     void newTeam_unsuccessful_case04() {
-        String username = "test username";
         var data = mock(NewTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Project project = mock(Project.class);
-        Company company = mock(Company.class);
-        Employee manager = mock(Employee.class);
         Employee employee = mock(Employee.class);
-        Set<String> usernames = new HashSet<>() {{
-            add(username);
-        }};
+        Set<String> usernames = Set.of("test username");
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.companyId(token)).thenReturn(companyId);
         when(teamRepository.existsByName(data.name())).thenReturn(false);
-        when(manager.getCompany()).thenReturn(company);
-        when(manager.getProject()).thenReturn(project);
         when(data.usernames()).thenReturn(usernames);
-        when(employeeRepository.findByUsername(username)).thenReturn(Optional.of(employee));
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
         when(employee.getTeam()).thenReturn(null);
         when(employee.getRole()).thenReturn(Role.MANAGER);
 
         assertThrows(InvalidEmployeeException.class, () -> teamService.newTeam(data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).projectId(token);
         verify(teamRepository, times(1)).existsByName(data.name());
-        verify(employeeRepository, times(1)).findByUsername(username);
-        verify(teamRepository, never()).save(any(Team.class));
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(usernames, companyId);
+        verify(teamRepository, never()).saveAndFlush(any(Team.class));
+    }
+    @Test
+    @DisplayName("Creates Team Unsuccessfully - Without Project")
+    void newTeam_unsuccessful_case05() {
+        var data = mock(NewTeamDTO.class);
+        var token = mock(JwtAuthenticationToken.class);
+
+        when(tokenService.projectId(token)).thenReturn(null);
+
+        assertThrows(NullProjectException.class, () -> teamService.newTeam(data, token));
+
+        verify(teamRepository, never()).existsByName(any());
+        verify(teamRepository, never()).saveAndFlush(any(Team.class));
+    }
+    @Test
+    @DisplayName("Creates Team Unsuccessfully - Concurrent Membership Change")
+    void newTeam_unsuccessful_case06() {
+        var data = mock(NewTeamDTO.class);
+        var token = mock(JwtAuthenticationToken.class);
+        Employee employee = mock(Employee.class);
+        Set<String> usernames = Set.of("test username");
+
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(data.usernames()).thenReturn(usernames);
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
+        when(employee.getUsername()).thenReturn("test username");
+        when(employee.getRole()).thenReturn(Role.EMPLOYEE);
+        when(employeeRepository.joinTeamByUsernameIn(any(), eq(usernames), eq(companyId))).thenReturn(0);
+
+        assertThrows(InvalidEmployeeException.class, () -> teamService.newTeam(data, token));
+
+        verify(employeeRepository, times(1)).joinTeamByUsernameIn(any(), eq(usernames), eq(companyId));
+        verify(membershipService, never()).evict(any());
+        verify(authorizationGraph, never()).addTeam(any(), any(), any());
     }
 
     @Test
@@ -187,38 +236,42 @@ class TeamServiceTest {
         Long id = 1L;
         var data = mock(UpdateTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
         Team team = mock(Team.class);
-        Company company = mock(Company.class);
         Set<Team> usedData = new HashSet<>();
         String username01 = "test username01";
         String username02 = "test username02";
         Employee employee01 = mock(Employee.class);
         Employee employee02 = mock(Employee.class);
-        Set<String> to_add = new HashSet<>() {{add(username01);}};
-        Set<String> to_remove = new HashSet<>() {{add(username02);}};
+        Set<String> to_add = Set.of(username01);
+        Set<String> to_remove = Set.of(username02);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(teamRepository.findById(id)).thenReturn(Optional.of(team));
-        when(manager.getCompany()).thenReturn(company);
-        when(team.getCompany()).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(teamRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(team));
         when(teamRepository.findByName(data.name())).thenReturn(usedData);
         when(data.to_add()).thenReturn(to_add);
         when(data.to_remove()).thenReturn(to_remove);
-        when(employeeRepository.findByUsername(username01)).thenReturn(Optional.of(employee01));
-        when(employeeRepository.findByUsername(username02)).thenReturn(Optional.of(employee02));
-        when(employee01.getCompany()).thenReturn(company);
+        when(employeeRepository.findAllByUsernameInAndCompanyId(Set.of(username01, username02), companyId))
+                .thenReturn(List.of(employee01, employee02));
+        when(employee01.getUsername()).thenReturn(username01);
         when(employee01.getRole()).thenReturn(Role.EMPLOYEE);
+        when(employee02.getUsername()).thenReturn(username02);
         when(employee02.getTeam()).thenReturn(team);
+        when(team.getId()).thenReturn(id);
+        when(employeeRepository.joinTeamByUsernameIn(id, to_add, companyId)).thenReturn(1);
+        when(employeeRepository.leaveTeamByUsernameIn(id, to_remove)).thenReturn(1);
 
         assertDoesNotThrow(() -> teamService.updateTeam(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(teamRepository, times(1)).findById(id);
+        verify(tokenService, times(1)).companyId(token);
+        verify(teamRepository, times(1)).findByIdAndCompanyId(id, companyId);
         verify(teamRepository, times(1)).findByName(data.name());
-        verify(employeeRepository, times(1)).findByUsername(username01);
-        verify(employeeRepository, times(1)).findByUsername(username02);
-        verify(teamRepository, times(1)).save(any(Team.class));
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(Set.of(username01, username02), companyId);
+        verify(employeeRepository, times(1)).joinTeamByUsernameIn(id, to_add, companyId);
+        verify(employeeRepository, times(1)).leaveTeamByUsernameIn(id, to_remove);
+        verify(projectSummaryRepository, times(1)).addMembersByTeamId(id, -1);
+        verify(projectSummaryRepository, times(1)).addMembersByTeamId(id, 1);
+        verify(membershipService, times(2)).evict(any());
+        verify(teamRepository, times(1)).save(team);
     }
     @Test
     @DisplayName("Update Team Unsuccessfully - Non existent Team")
@@ -226,14 +279,14 @@ class TeamServiceTest {
         Long id = 1L;
         var data = mock(UpdateTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(teamRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(teamRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.empty());
 
         assertThrows(NullTeamException.class, () -> teamService.updateTeam(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        verify(tokenService, times(1)).companyId(token);
+        verify(teamRepository, never()).findByName(any());
         verify(teamRepository, never()).save(any(Team.class));
     }
     @Test
@@ -242,103 +295,240 @@ class TeamServiceTest {
         Long id = 1L;
         var data = mock(UpdateTeamDTO.class);
         var token = mock(JwtAuthenticationToken.class);
-        Employee manager = mock(Employee.class);
         Team team = mock(Team.class);
-        Company company = mock(Company.class);
-        Set<Team> usedData = new HashSet<>() {{add(mock(Team.class));}};
+        Team usedTeam = mock(Team.class);
+        Set<Team> usedData = new HashSet<>() {{add(usedTeam);}};
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(teamRepository.findById(id)).thenReturn(Optional.of(team));
-        when(manager.getCompany()).thenReturn(company);
-        when(team.getCompany()).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(teamRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(team));
+        when(usedTeam.getId()).thenReturn(2L);
         when(teamRepository.findByName(data.name())).thenReturn(usedData);
 
         assertThrows(UsedDataException.class, () -> teamService.updateTeam(id, data, token));
 
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(teamRepository, times(1)).findById(id);
+        verify(tokenService, times(1)).companyId(token);
+        verify(teamRepository, times(1)).findByIdAndCompanyId(id, companyId);
         verify(teamRepository, times(1)).findByName(data.name());
         verify(teamRepository, never()).save(any(Team.class));
     }
 
+    @Test
+    @DisplayName("Update Team Unsuccessfully - Not a Member")
+    void updateTeam_unsuccessful_case03() {
+        Long id = 1L;
+        var data = mock(UpdateTeamDTO.class);
+        var token = mock(JwtAuthenticationToken.class);
+        Team team = mock(Team.class);
+        Team otherTeam = mock(Team.class);
+        Employee employee = mock(Employee.class);
+        Set<String> to_remove = Set.of("test username");
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(teamRepository.findByIdAndCompanyId(id, companyId)).thenReturn(Optional.of(team));
+        when(teamRepository.findByName(data.name())).thenReturn(Set.of());
+        when(data.to_remove()).thenReturn(to_remove);
+        when(employeeRepository.findAllByUsernameInAndCompanyId(to_remove, companyId)).thenReturn(List.of(employee));
+        when(employee.getUsername()).thenReturn("test username");
+        when(employee.getTeam()).thenReturn(otherTeam);
+        when(otherTeam.getId()).thenReturn(2L);
+
+        assertThrows(InvalidEmployeeException.class, () -> teamService.updateTeam(id, data, token));
+
+        verify(employeeRepository, never()).leaveTeamByUsernameIn(any(), any());
+        verify(teamRepository, never()).save(any(Team.class));
+    }
+
+    @Test
+    @DisplayName("Move Members Successfully")
+    void moveMembers_successful() {
+        Long id = 1L;
+        var token = mock(JwtAuthenticationToken.class);
+        Team team = mock(Team.class);
+        Employee employee = mock(Employee.class);
+        UUID employeeId = UUID.randomUUID();
+        Set<String> usernames = Set.of("test username");
+        MoveMembersDTO data = new MoveMembersDTO(2L, usernames);
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(tokenService.projectId(token)).thenReturn(7L);
+        when(authorizationGraph.isTeamOfProject(id, 7L)).thenReturn(true);
+        when(authorizationGraph.isTeamOfProject(2L, 7L)).thenReturn(true);
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
+        when(employee.getTeam()).thenReturn(team);
+        when(employee.getId()).thenReturn(employeeId);
+        when(team.getId()).thenReturn(id);
+        when(employeeRepository.moveTeamByUsernameIn(id, 2L, usernames)).thenReturn(1);
+
+        assertDoesNotThrow(() -> teamService.moveMembers(id, data, token));
+
+        verify(employeeRepository, times(1)).findAllByUsernameInAndCompanyId(usernames, companyId);
+        verify(employeeRepository, times(1)).moveTeamByUsernameIn(id, 2L, usernames);
+        verify(projectSummaryRepository, times(1)).addMembersByTeamId(id, -1);
+        verify(projectSummaryRepository, times(1)).addMembersByTeamId(2L, 1);
+        verify(membershipService, times(1)).evict(employeeId);
+        verifyNoMoreInteractions(employeeRepository);
+    }
+    @Test
+    @DisplayName("Move Members Unsuccessfully - Team of Another Project")
+    void moveMembers_unsuccessful_case01() {
+        Long id = 1L;
+        var token = mock(JwtAuthenticationToken.class);
+        MoveMembersDTO data = new MoveMembersDTO(2L, Set.of("test username"));
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(tokenService.projectId(token)).thenReturn(7L);
+        when(authorizationGraph.isTeamOfProject(id, 7L)).thenReturn(true);
+        when(authorizationGraph.isTeamOfProject(2L, 7L)).thenReturn(false);
+
+        assertThrows(NullTeamException.class, () -> teamService.moveMembers(id, data, token));
+
+        verify(authorizationGraph, never()).isTeamOfCompany(any(), any());
+        verifyNoInteractions(employeeRepository);
+    }
+    @Test
+    @DisplayName("Move Members Unsuccessfully - Source Team of Another Project")
+    void moveMembers_unsuccessful_case03() {
+        Long id = 1L;
+        var token = mock(JwtAuthenticationToken.class);
+        MoveMembersDTO data = new MoveMembersDTO(2L, Set.of("test username"));
+
+        when(tokenService.projectId(token)).thenReturn(7L);
+        when(authorizationGraph.isTeamOfProject(id, 7L)).thenReturn(false);
+        when(authorizationGraph.isTeamOfProject(2L, 7L)).thenReturn(true);
+
+        assertThrows(NullTeamException.class, () -> teamService.moveMembers(id, data, token));
+
+        verifyNoInteractions(employeeRepository, projectSummaryRepository);
+    }
+    @Test
+    @DisplayName("Move Members Unsuccessfully - Manager Without a Project")
+    void moveMembers_unsuccessful_case04() {
+        var token = mock(JwtAuthenticationToken.class);
+        MoveMembersDTO data = new MoveMembersDTO(2L, Set.of("test username"));
+
+        when(tokenService.projectId(token)).thenReturn(null);
+
+        assertThrows(NullTeamException.class, () -> teamService.moveMembers(1L, data, token));
+
+        verifyNoInteractions(employeeRepository, projectSummaryRepository);
+    }
+    @Test
+    @DisplayName("Move Members Unsuccessfully - Concurrent Membership Change")
+    void moveMembers_unsuccessful_case02() {
+        Long id = 1L;
+        var token = mock(JwtAuthenticationToken.class);
+        Team team = mock(Team.class);
+        Employee employee = mock(Employee.class);
+        Set<String> usernames = Set.of("test username");
+        MoveMembersDTO data = new MoveMembersDTO(2L, usernames);
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(tokenService.projectId(token)).thenReturn(7L);
+        when(authorizationGraph.isTeamOfProject(any(), eq(7L))).thenReturn(true);
+        when(employeeRepository.findAllByUsernameInAndCompanyId(usernames, companyId)).thenReturn(List.of(employee));
+        when(employee.getTeam()).thenReturn(team);
+        when(team.getId()).thenReturn(id);
+        when(employeeRepository.moveTeamByUsernameIn(id, 2L, usernames)).thenReturn(0);
+
+        assertThrows(InvalidEmployeeException.class, () -> teamService.moveMembers(id, data, token));
+
+        verify(membershipService, never()).evict(any());
+    }
+
     @Test
     @DisplayName("Delete Team Successfully")
     void deleteTeam_successful() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Team team = mock(Team.class);
-        Company company = mock(Company.class);
-        Employee manager = mock(Employee.class);
 
-        when(teamRepository.findById(id)).thenReturn(Optional.of(team));
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(manager.getCompany()).thenReturn(company);
-        when(team.getCompany()).thenReturn(company);
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isTeamOfCompany(id, companyId)).thenReturn(true);
+        when(teamRepository.findProjectIdById(id)).thenReturn(Optional.of(projectId));
+        when(employeeRepository.countByTeamId(id)).thenReturn(2L);
+        when(teamRepository.deleteByIdAndCompanyId(id, companyId)).thenReturn(1);
 
         assertDoesNotThrow(() -> teamService.deleteTeam(id, token));
 
-        verify(teamRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(teamRepository, times(1)).delete(team);
+        verify(tokenService, times(1)).companyId(token);
+        verify(membershipService, times(1)).touchTeam(id);
+        verify(teamRepository, times(1)).findProjectIdById(id);
+        verify(teamRepository, times(1)).deleteByIdAndCompanyId(id, companyId);
+        verify(entityCacheService, times(1)).evict(Employee.class);
+        verify(authorizationGraph, times(1)).removeTeam(id);
+        verify(projectSummaryRepository, times(1)).decrementTeams(projectId, 2L);
+        verifyNoMoreInteractions(teamRepository);
     }
     @Test
     @DisplayName("Delete Team Unsuccessfully")
     void deleteTeam_unsuccessful() {
         Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Team team = mock(Team.class);
 
-        when(teamRepository.findById(id)).thenReturn(Optional.empty());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isTeamOfCompany(id, companyId)).thenReturn(false);
 
         assertThrows(NullTeamException.class, () -> teamService.deleteTeam(id, token));
 
-        verify(teamRepository, times(1)).findById(id);
-        verify(employeeService, times(1)).getEmployee(token.getName());
-        verify(teamRepository, never()).delete(team);
+        verify(authorizationGraph, times(1)).isTeamOfCompany(id, companyId);
+        verify(tokenService, times(1)).companyId(token);
+        verify(membershipService, never()).touchTeam(id);
+        verify(teamRepository, never()).deleteByIdAndCompanyId(any(), any());
+        verifyNoInteractions(projectSummaryRepository);
     }
-
     @Test
-    @DisplayName("Get All Teams Successfully")
-    void getAllTeams() {
-        Team team = mock(Team.class);
-        Company company = mock(Company.class);
-        Project project = mock(Project.class);
-        Employee manager = mock(Employee.class);
+    @DisplayName("Delete Team Unsuccessfully - Concurrently Deleted Team")
+    void deleteTeam_unsuccessful_case02() {
+        Long id = 1L;
         var token = mock(JwtAuthenticationToken.class);
-        Set<Team> teams = new HashSet<>() {{add(team);}};
 
-        when(companyService.getCompany(token.getName())).thenReturn(company);
-        when(company.getTeams()).thenReturn(teams);
-        when(team.getProject()).thenReturn(project);
-        when(project.getManager()).thenReturn(manager);
-        when(project.getDeadline()).thenReturn(LocalDate.now().plusDays(1L));
-        when(team.getMembers()).thenReturn(new HashSet<>());
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(authorizationGraph.isTeamOfCompany(id, companyId)).thenReturn(true);
+        when(teamRepository.findProjectIdById(id)).thenReturn(Optional.of(projectId));
+        when(teamRepository.deleteByIdAndCompanyId(id, companyId)).thenReturn(0);
 
-        Set<TeamDTO> teamDTOs = assertDoesNotThrow(() -> teamService.getAllTeams(token));
+        assertThrows(NullTeamException.class, () -> teamService.deleteTeam(id, token));
 
-        assertEquals(1, teamDTOs.size());
-        verify(companyService, times(1)).getCompany(token.getName());
+        verify(authorizationGraph, never()).removeTeam(id);
+        verifyNoInteractions(projectSummaryRepository);
+    }
+
+    @Test
+    @DisplayName("Get All Teams Successfully")
+    void getAllTeams() {
+        var token = mock(JwtAuthenticationToken.class);
+        PageRequestDTO page = new PageRequestDTO(null, null, false);
+        TeamDTO first = new TeamDTO(1L, "Test Name", projectId, "Test Project", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
+        TeamDTO second = new TeamDTO(2L, "Other Name", projectId, "Test Project", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
+        TeamDTO third = new TeamDTO(3L, "Third Name", projectId, "Test Project", "Test Description", "Test Username", LocalDate.now().plusDays(1L), false);
+        EmployeeDTO member = new EmployeeDTO("Test Name", "Test Username", "Test CPF", "Test Email", Role.EMPLOYEE, "Test Company");
+
+        when(tokenService.companyId(token)).thenReturn(companyId);
+        when(teamRepository.findAllDTOByCompanyId(companyId, 0L, PageRequest.ofSize(3))).thenReturn(List.of(first, second, third));
+        when(teamRepository.findAllMemberDTOByTeamIdIn(List.of(1L, 2L))).thenReturn(List.of(new TeamMemberDTO(1L, member)));
+
+        PageDTO<TeamDTO> teamDTOs = assertDoesNotThrow(() -> teamService.getAllTeams(page, token));
+
+        assertEquals(List.of(first.withMembers(Set.of(member)), second), teamDTOs.items());
+        assertEquals(2L, pageCursors.afterId(new PageRequestDTO(teamDTOs.next_cursor(), null, false)));
+        verify(teamRepository, times(1)).findAllDTOByCompanyId(companyId, 0L, PageRequest.ofSize(3));
+        verify(teamRepository, times(1)).findAllMemberDTOByTeamIdIn(List.of(1L, 2L));
+        verifyNoMoreInteractions(teamRepository);
     }
 
     @Test
     @DisplayName("Get Teams Successfully")
     void getTeams() {
-        Team team = mock(Team.class);
-        Project project = mock(Project.class);
-        Employee manager = mock(Employee.class);
         var token = mock(JwtAuthenticationToken.class);
+        PageRequestDTO page = new PageRequestDTO(null, null, false);
 
-        when(employeeService.getEmployee(token.getName())).thenReturn(manager);
-        when(manager.getProject()).thenReturn(project);
-        when(project.getTeams()).thenReturn(Set.of(team));
-        when(team.getProject()).thenReturn(project);
-        when(team.getMembers()).thenReturn(new HashSet<>());
-        when(project.getManager()).thenReturn(manager);
-        when(project.getDeadline()).thenReturn(LocalDate.now().plusDays(1L));
+        when(tokenService.projectId(token)).thenReturn(projectId);
+        when(teamRepository.findAllDTOByProjectId(projectId, 0L, PageRequest.ofSize(3))).thenReturn(List.of());
 
-        Set<TeamDTO> teamDTOs = assertDoesNotThrow(() -> teamService.getTeams(token));
+        PageDTO<TeamDTO> teamDTOs = assertDoesNotThrow(() -> teamService.getTeams(page, token));
 
-        assertEquals(1, teamDTOs.size());
-        verify(employeeService, times(1)).getEmployee(token.getName());
+        assertTrue(teamDTOs.items().isEmpty());
+        assertNull(teamDTOs.next_cursor());
+        verify(teamRepository, times(1)).findAllDTOByProjectId(projectId, 0L, PageRequest.ofSize(3));
+        verify(teamRepository, never()).findAllMemberDTOByTeamIdIn(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package com.office.api.service;
+
+import com.office.api.model.Company;
+import com.office.api.model.Employee;
+import com.office.api.model.Project;
+import com.office.api.model.Team;
+import com.office.api.model.enums.Role;
+import com.office.api.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTest {
+    @Mock
+    private JwtEncoder jwtEncoder;
+    @Mock
+    private ProjectRepository projectRepository;
+    private TokenService tokenService;
+
+    private final UUID companyId = UUID.randomUUID();
+    private final UUID employeeId = UUID.randomUUID();
+    private final UUID session = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenService = new TokenService(jwtEncoder, projectRepository, Duration.ofMinutes(15));
+    }
+
+    @Test
+    @DisplayName("Issues Employee Token Successfully")
+    void issue_employee() {
+        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
+        Employee employee = new Employee("Test Name", "Test Username", "Test CPF",
+                "Test Email", "Test Password", company);
+        employee.setId(employeeId);
+        employee.setRole(Role.EMPLOYEE);
+        employee.setMembershipVersion(3L);
+        Project project = mock(Project.class);
+        Team team = new Team("Test Name", company, project);
+        team.setId(2L);
+        employee.setTeam(team);
+        var captor = ArgumentCaptor.forClass(JwtEncoderParameters.class);
+
+        when(project.getId()).thenReturn(1L);
+        when(jwtEncoder.encode(any())).thenReturn(mock(Jwt.class));
+
+        assertDoesNotThrow(() -> tokenService.issue(employee, session));
+
+        verify(jwtEncoder, times(1)).encode(captor.capture());
+        JwtClaimsSet claims = captor.getValue().getClaims();
+        assertEquals(employeeId.toString(), claims.getSubject());
+        assertEquals(companyId.toString(), claims.getClaim(TokenService.COMPANY_CLAIM));
+        assertEquals(1L, (Long) claims.getClaim(TokenService.PROJECT_CLAIM));
+        assertEquals(2L, (Long) claims.getClaim(TokenService.TEAM_CLAIM));
+        assertEquals(3L, (Long) claims.getClaim(TokenService.VERSION_CLAIM));
+        assertEquals(session.toString(), claims.getClaim(TokenService.SESSION_CLAIM));
+        assertEquals(Duration.ofMinutes(15), Duration.between(claims.getIssuedAt(), claims.getExpiresAt()));
+    }
+    @Test
+    @DisplayName("Issues Manager Token with the Managed Project")
+    void issue_manager() {
+        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
+        Employee employee = new Employee("Test Name", "Test Username", "Test CPF",
+                "Test Email", "Test Password", company);
+        employee.setId(employeeId);
+        employee.setRole(Role.MANAGER);
+        var captor = ArgumentCaptor.forClass(JwtEncoderParameters.class);
+
+        when(projectRepository.findIdByManagerId(employeeId)).thenReturn(Optional.of(1L));
+        when(jwtEncoder.encode(any())).thenReturn(mock(Jwt.class));
+
+        assertDoesNotThrow(() -> tokenService.issue(employee, session));
+
+        verify(jwtEncoder, times(1)).encode(captor.capture());
+        JwtClaimsSet claims = captor.getValue().getClaims();
+        assertEquals(1L, (Long) claims.getClaim(TokenService.PROJECT_CLAIM));
+        assertFalse(claims.hasClaim(TokenService.TEAM_CLAIM));
+    }
+    @Test
+    @DisplayName("Issues Employee Token Without Project")
+    void issue_employee_withoutProject() {
+        Company company = new Company("Test Name", "Test CNPJ", "Test Password");
+        company.setId(companyId);
+        Employee employee = new Employee("Test Name", "Test Username", "Test CPF",
+                "Test Email", "Test Password", company);
+        employee.setId(employeeId);
+        employee.setRole(Role.EMPLOYEE);
+        var captor = ArgumentCaptor.forClass(JwtEncoderParameters.class);
+
+        when(jwtEncoder.encode(any())).thenReturn(mock(Jwt.class));
+
+        assertDoesNotThrow(() -> tokenService.issue(employee, session));
+
+        verify(jwtEncoder, times(1)).encode(captor.capture());
+        JwtClaimsSet claims = captor.getValue().getClaims();
+        assertFalse(claims.hasClaim(TokenService.PROJECT_CLAIM));
+        assertFalse(claims.hasClaim(TokenService.TEAM_CLAIM));
+    }
+
+    @Test
+    @DisplayName("Reads Token Claims Successfully")
+    void readClaims() {
+        Jwt jwt = Jwt.withTokenValue("Test Token")
+                .header("alg", "RS256")
+                .subject(employeeId.toString())
+                .claim(TokenService.COMPANY_CLAIM, companyId.toString())
+                .claim(TokenService.PROJECT_CLAIM, 1)
+                .issuedAt(Instant.now())
+                .build();
+        var token = new JwtAuthenticationToken(jwt);
+
+        assertEquals(employeeId, tokenService.subject(token));
+        assertEquals(companyId, tokenService.companyId(token));
+        assertEquals(1L, tokenService.projectId(token));
+        assertNull(tokenService.teamId(token));
+        assertFalse(tokenService.isCompany(token));
+        assertTrue(tokenService.isCompany(new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList("SCOPE_COMPANY"))));
+    }
+}